@@ -0,0 +1,63 @@
+package fr.vvlabs.jira.client;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.codehaus.jettison.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * search request building cost : JQL concatenation, GET URI and POST entity.
+ * In this package to reach the package-private request builders of {@link JiraExpandSearchRestClient}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchRequestBenchmark {
+
+  private static final String CUSTOM_JQL = "issuetype in (Bug, Task) AND status != Closed";
+
+  private final Set<String> projects = new HashSet<>(Arrays.asList("LOOM", "RECA", "RECB", "OPS", "DATA"));
+  private final Set<String> fields = new HashSet<>(Arrays.asList("summary", "status", "updated", "customfield_10300", "customfield_10301"));
+  private final Set<String> expandos = new HashSet<>(Arrays.asList("schema", "names", "changelog"));
+  private final LocalDateTime startDate = LocalDateTime.of(2018, 6, 15, 0, 0);
+  private final LocalDateTime endDate = LocalDateTime.of(2018, 7, 15, 0, 0);
+  private JiraExpandSearchRestClient searchClient;
+  private String jql;
+
+  @Setup
+  public void setup() {
+    searchClient = new JiraExpandSearchRestClient(URI.create("http://jira.local/rest/api/latest"), null);
+    jql = JiraExpandRestClient.buildJql(CUSTOM_JQL, projects, startDate, endDate);
+  }
+
+  @Benchmark
+  public String buildJql() {
+    return JiraExpandRestClient.buildJql(CUSTOM_JQL, projects, startDate, endDate);
+  }
+
+  @Benchmark
+  public URI buildSearchUri() {
+    return searchClient.buildSearchUri(100, 500, expandos, jql, fields);
+  }
+
+  @Benchmark
+  public JSONObject buildSearchEntity() {
+    return searchClient.buildSearchEntity(100, 500, expandos, jql, fields);
+  }
+}
@@ -0,0 +1,179 @@
+package fr.vvlabs.jira.client.benchmark;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import fr.vvlabs.jira.client.JiraExpandRestClient;
+import fr.vvlabs.jira.client.JiraExpandRestClientFactory;
+import fr.vvlabs.jira.client.JiraExpandRestClientOptions;
+import fr.vvlabs.jira.client.metrics.InMemoryMetricsReporter;
+import fr.vvlabs.jira.client.metrics.JiraClientListener;
+import fr.vvlabs.jira.client.metrics.JiraOperation;
+import fr.vvlabs.jira.client.metrics.LatencyHistogram;
+import fr.vvlabs.jira.client.metrics.OperationMetrics;
+import fr.vvlabs.jira.client.retry.RetryPolicy;
+import fr.vvlabs.jira.client.transport.HttpTransportConfig;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * drives {@link JiraExpandRestClient} against an embedded {@link JiraStubServer} and reports throughput,
+ * p50/p99 latency, allocation and retries. Settings are system properties, see the module README.
+ */
+public class LoadGenerator {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final String scenario = System.getProperty("scenario", "search");
+  private final int workers = Integer.getInteger("workers", 16);
+  private final int warmupSeconds = Integer.getInteger("warmupSeconds", 10);
+  private final int durationSeconds = Integer.getInteger("durationSeconds", 30);
+  private final int pageSize = Integer.getInteger("pageSize", 100);
+  private final int connections = Integer.getInteger("connections", 64);
+  private final boolean gzip = Boolean.parseBoolean(System.getProperty("gzip", "true"));
+  private final JiraStubConfig stubConfig = JiraStubConfig.builder()
+      .issueCount(Integer.getInteger("issues", 10000))
+      .maxPageSize(Integer.getInteger("maxPageSize", 100))
+      .latencyMillis(Integer.getInteger("latencyMillis", 20))
+      .latencyJitterMillis(Integer.getInteger("jitterMillis", 10))
+      .throttleRate(Double.parseDouble(System.getProperty("throttleRate", "0")))
+      .descriptionSize(Integer.getInteger("descriptionSize", 200))
+      .customFieldCount(Integer.getInteger("customFields", 6))
+      .changelogGroups(Integer.getInteger("changelogGroups", 20))
+      .gzip(gzip)
+      .build();
+
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong issues = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  public static void main(String[] args) throws Exception {
+    new LoadGenerator().run();
+  }
+
+  private void run() throws Exception {
+    try (JiraStubServer stub = new JiraStubServer(stubConfig).start()) {
+      System.out.printf("scenario=%s workers=%d pageSize=%d latency=%d+%dms throttleRate=%s gzip=%s%n", scenario, workers, pageSize,
+          stubConfig.getLatencyMillis(), stubConfig.getLatencyJitterMillis(), stubConfig.getThrottleRate(), gzip);
+
+      // warmup with its own client, so that the reported metrics only cover the measurement
+      try (JiraExpandRestClientFactory factory = factory(JiraClientListener.NO_OP);
+          JiraExpandRestClient client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test")) {
+        drive(client, stub, warmupSeconds, new LatencyHistogram());
+      }
+      calls.set(0);
+      issues.set(0);
+      failures.set(0);
+      long requestsBefore = stub.getRequestCount();
+      long throttledBefore = stub.getThrottledCount();
+      long bytesBefore = stub.getBytesSent();
+
+      InMemoryMetricsReporter reporter = new InMemoryMetricsReporter();
+      LatencyHistogram latencies = new LatencyHistogram();
+      long allocatedBefore = allocatedBytes();
+      long start = System.nanoTime();
+      try (JiraExpandRestClientFactory factory = factory(reporter);
+          JiraExpandRestClient client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test")) {
+        drive(client, stub, durationSeconds, latencies);
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      long allocated = allocatedBytes() - allocatedBefore;
+
+      System.out.printf("calls      : %d (%.1f/s), failures %d%n", calls.get(), calls.get() / seconds, failures.get());
+      System.out.printf("issues     : %d (%.1f/s)%n", issues.get(), issues.get() / seconds);
+      System.out.printf("latency    : p50 %.2fms, p99 %.2fms%n", latencies.percentileMillis(0.5), latencies.percentileMillis(0.99));
+      System.out.printf("allocation : %.1f MB (%.1f KB/call)%n", allocated / 1e6, calls.get() > 0 ? allocated / 1e3 / calls.get() : 0);
+      System.out.printf("stub       : %d requests, %d throttled, %.1f MB sent%n", stub.getRequestCount() - requestsBefore,
+          stub.getThrottledCount() - throttledBefore, (stub.getBytesSent() - bytesBefore) / 1e6);
+      for (Map.Entry<JiraOperation, OperationMetrics> entry : reporter.snapshot().entrySet()) {
+        System.out.printf("%-11s: %s%n", entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private JiraExpandRestClientFactory factory(JiraClientListener listener) {
+    return JiraExpandRestClientFactory.builder()
+        .options(JiraExpandRestClientOptions.builder()
+            .gzip(gzip)
+            .listener(listener)
+            .retryPolicy(RetryPolicy.builder().maxAttempts(5).initialDelay(Duration.ofMillis(100)).build())
+            .build())
+        .transportConfig(HttpTransportConfig.builder().maxTotalConnections(connections).maxConnectionsPerHost(connections).build())
+        .build();
+  }
+
+  private void drive(JiraExpandRestClient client, JiraStubServer stub, int seconds, LatencyHistogram latencies) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < workers; i++) {
+        futures.add(executor.submit(() -> {
+          while (System.nanoTime() < deadline) {
+            long callStart = System.nanoTime();
+            try {
+              issues.addAndGet(call(client, stub));
+              latencies.record(System.nanoTime() - callStart);
+            } catch (RuntimeException e) {
+              failures.incrementAndGet();
+            }
+            calls.incrementAndGet();
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return issues received
+   */
+  private int call(JiraExpandRestClient client, JiraStubServer stub) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String operation = scenario.equals("mixed") ? (random.nextInt(4) == 0 ? "issue" : "search") : scenario;
+    switch (operation) {
+      case "issue":
+        Issue issue = client.getIssueByKey(stub.issueKey(random.nextInt(stubConfig.getIssueCount())));
+        return issue != null ? 1 : 0;
+      case "projects":
+        return client.getAllProjects().size();
+      default:
+        int startAt = random.nextInt(Math.max(1, stubConfig.getIssueCount() / pageSize)) * pageSize;
+        return client.getIssues("", startAt, pageSize).size();
+    }
+  }
+
+  /**
+   * @return bytes allocated so far by the live threads, -1 when the JVM does not measure it
+   */
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    long total = 0;
+    for (long allocated : ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(threads.getAllThreadIds())) {
+      total += Math.max(0, allocated);
+    }
+    return total;
+  }
+}
@@ -0,0 +1,94 @@
+package fr.vvlabs.jira.client.benchmark;
+
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.atlassian.jira.rest.client.internal.json.SearchResultJsonParser;
+import fr.vvlabs.jira.client.compact.CompactPage;
+import fr.vvlabs.jira.client.compact.CompactSearchResultParser;
+import fr.vvlabs.jira.client.compact.InternPool;
+import fr.vvlabs.jira.client.search.StreamingSearchResultParser;
+import fr.vvlabs.jira.client.util.SearchResponseFixtures;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SearchResult parsing cost on 50 / 500 / 1000 issues pages : Jettison tree building then issues parsing,
+ * against the streaming parser with all fields or a few selected fields, and the compact parser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchResultParserBenchmark {
+
+  @Param({"50", "500", "1000"})
+  private int issues;
+
+  @Param({"0", "20"})
+  private int changelogGroups;
+
+  private final SearchResultJsonParser parser = new SearchResultJsonParser();
+  private final StreamingSearchResultParser streamingParser = new StreamingSearchResultParser();
+  private final CompactSearchResultParser compactParser = new CompactSearchResultParser();
+  private final InternPool pool = new InternPool();
+  private final Set<String> selectedFields = new HashSet<>(Arrays.asList("summary", "issuetype", "project", "status", "created", "updated"));
+  private String body;
+  private byte[] bodyBytes;
+  private JSONObject tree;
+
+  @Setup
+  public void setup() throws JSONException {
+    body = SearchResponseFixtures.searchResponse(issues, changelogGroups);
+    tree = new JSONObject(body);
+    bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public JSONObject buildTree() throws JSONException {
+    return new JSONObject(body);
+  }
+
+  @Benchmark
+  public SearchResult parseTree() throws JSONException {
+    return parser.parse(tree);
+  }
+
+  @Benchmark
+  public SearchResult parseBody() throws JSONException {
+    return parser.parse(new JSONObject(body));
+  }
+
+  @Benchmark
+  public SearchResult parseStreaming() throws IOException, JSONException {
+    return streamingParser.parse(new ByteArrayInputStream(bodyBytes), null, false, null);
+  }
+
+  @Benchmark
+  public SearchResult parseStreamingSelectedFields() throws IOException, JSONException {
+    return streamingParser.parse(new ByteArrayInputStream(bodyBytes), selectedFields, false, null);
+  }
+
+  @Benchmark
+  public CompactPage parseCompact() throws IOException {
+    return compactParser.parse(new ByteArrayInputStream(bodyBytes), pool);
+  }
+}
@@ -0,0 +1,13 @@
+package fr.vvlabs.jira.client;
+
+/**
+ * threads of the executor owned by {@link JiraExpandRestClient}, running supplyAsync calls
+ */
+public enum ExecutionMode {
+
+  /** cached pool of daemon platform threads */
+  DEFAULT,
+
+  /** virtual threads, or the cached pool of daemon platform threads before Java 21 */
+  VIRTUAL_THREADS
+}
@@ -1,13 +1,45 @@
 package fr.vvlabs.jira.client;
 
 import com.atlassian.jira.rest.client.api.SearchRestClient;
+import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import fr.vvlabs.jira.client.compact.CompactPage;
+import fr.vvlabs.jira.client.compact.InternPool;
 import io.atlassian.util.concurrent.Promise;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
 public interface ExpandSearchRestClient extends SearchRestClient {
 
+  /** JQL validation answering queries on unknown values (e.g. issue keys) with warnings instead of 400 */
+  String VALIDATE_QUERY_WARN = "warn";
+
   Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
       @Nullable Set<String> fields, @Nullable Set<String> expandos);
+
+  /**
+   * Search, handing issues to the consumer as they are parsed instead of collecting them in the result.
+   * The consumer is called from the HTTP client threads, and again for every attempt if the call is retried.
+   * @return search result without issues
+   */
+  Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
+      @Nullable Set<String> fields, @Nullable Set<String> expandos, @Nullable Consumer<Issue> issueConsumer);
+
+  /**
+   * Search with the given JQL validation
+   * @param validateQuery e.g. {@link #VALIDATE_QUERY_WARN}, null for the Jira default : strict
+   * @return search result
+   */
+  Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
+      @Nullable Set<String> fields, @Nullable Set<String> expandos, @Nullable Consumer<Issue> issueConsumer,
+      @Nullable String validateQuery);
+
+  /**
+   * Search, parsing issues straight into compact rows, see {@link fr.vvlabs.jira.client.compact.CompactIssueTable}
+   * @param pool canonical instances shared with the target table
+   * @return parsed page
+   */
+  Promise<CompactPage> searchJqlCompact(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
+      @Nullable Set<String> fields, InternPool pool);
 }
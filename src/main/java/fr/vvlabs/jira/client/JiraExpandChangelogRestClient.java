@@ -0,0 +1,119 @@
+package fr.vvlabs.jira.client;
+
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.jira.rest.client.api.domain.ChangelogGroup;
+import com.atlassian.jira.rest.client.internal.async.AbstractAsynchronousRestClient;
+import com.atlassian.jira.rest.client.internal.json.ChangelogJsonParser;
+import com.atlassian.jira.rest.client.internal.json.JsonObjectParser;
+import fr.vvlabs.jira.client.changelog.ChangelogPage;
+import io.atlassian.util.concurrent.Promise;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import javax.ws.rs.core.UriBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * issue history client : paged changelog resource, or whole history expanded on the issue
+ * for Jira versions without that resource
+ */
+@Slf4j
+public class JiraExpandChangelogRestClient extends AbstractAsynchronousRestClient {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String ISSUE_URI_PREFIX = "issue";
+  private static final String CHANGELOG_URI_SUFFIX = "changelog";
+  private static final String START_AT_ATTRIBUTE = "startAt";
+  private static final String MAX_RESULTS_ATTRIBUTE = "maxResults";
+  private static final String TOTAL_ATTRIBUTE = "total";
+  private static final String VALUES_ATTRIBUTE = "values";
+  private static final String HISTORIES_ATTRIBUTE = "histories";
+  private static final String EXPAND_ATTRIBUTE = "expand";
+  private static final String FIELDS_ATTRIBUTE = "fields";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final ChangelogJsonParser changelogJsonParser = new ChangelogJsonParser();
+  private final URI baseUri;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new Jira Changelog Rest Client
+   * @param baseUri
+   * @param asyncHttpClient
+   */
+  public JiraExpandChangelogRestClient(final URI baseUri, final HttpClient asyncHttpClient) {
+    super(asyncHttpClient);
+    this.baseUri = baseUri;
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Get a page of an issue history, from the paged changelog resource
+   * @param issueKey
+   * @param startAt
+   * @param maxResults
+   * @return
+   */
+  public Promise<ChangelogPage> getChangelog(String issueKey, int startAt, int maxResults) {
+    URI uri = UriBuilder.fromUri(baseUri).path(ISSUE_URI_PREFIX).path(issueKey).path(CHANGELOG_URI_SUFFIX)
+        .queryParam(START_AT_ATTRIBUTE, startAt)
+        .queryParam(MAX_RESULTS_ATTRIBUTE, maxResults)
+        .build(new Object[0]);
+    return getAndParse(uri, (JsonObjectParser<ChangelogPage>) json -> parsePage(json, VALUES_ATTRIBUTE));
+  }
+
+  /**
+   * Get an issue history expanded on the issue, in one last page : Jira caps expanded histories,
+   * the groups past the cap cannot be read this way
+   * @param issueKey
+   * @return
+   */
+  public Promise<ChangelogPage> getExpandedChangelog(String issueKey) {
+    URI uri = UriBuilder.fromUri(baseUri).path(ISSUE_URI_PREFIX).path(issueKey)
+        .queryParam(EXPAND_ATTRIBUTE, CHANGELOG_URI_SUFFIX)
+        // keep the issue itself minimal
+        .queryParam(FIELDS_ATTRIBUTE, "created")
+        .build(new Object[0]);
+    return getAndParse(uri, (JsonObjectParser<ChangelogPage>) json -> {
+      JSONObject changelog = json.optJSONObject(CHANGELOG_URI_SUFFIX);
+      if (changelog == null) {
+        return new ChangelogPage(0, 0, 0, new ArrayList<>());
+      }
+      ChangelogPage page = parsePage(changelog, HISTORIES_ATTRIBUTE);
+      int groups = page.getGroups().size();
+      if (page.getTotal() > groups) {
+        log.warn("getExpandedChangelog({}) history truncated by Jira : {} groups of {}", issueKey, groups, page.getTotal());
+      }
+      // never ask for the next groups : the expanded history has no startAt
+      return new ChangelogPage(0, groups, groups, page.getGroups());
+    });
+  }
+
+  private ChangelogPage parsePage(JSONObject json, String groupsAttribute) throws JSONException {
+    JSONArray values = json.optJSONArray(groupsAttribute);
+    List<ChangelogGroup> groups = new ArrayList<>(values != null ? values.length() : 0);
+    if (values != null) {
+      for (int i = 0; i < values.length(); i++) {
+        groups.add(changelogJsonParser.parse(values.getJSONObject(i)));
+      }
+    }
+    int startAt = json.optInt(START_AT_ATTRIBUTE, 0);
+    return new ChangelogPage(startAt, json.optInt(MAX_RESULTS_ATTRIBUTE, groups.size()),
+        json.optInt(TOTAL_ATTRIBUTE, startAt + groups.size()), groups);
+  }
+}
@@ -1,26 +1,83 @@
 package fr.vvlabs.jira.client;
 
+import com.atlassian.jira.rest.client.api.IssueRestClient;
+import com.atlassian.jira.rest.client.api.ProjectRestClient;
 import com.atlassian.jira.rest.client.api.domain.BasicProject;
+import com.atlassian.jira.rest.client.api.domain.ChangelogGroup;
 import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.Project;
 import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClient;
 import com.atlassian.jira.rest.client.internal.async.DisposableHttpClient;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.vvlabs.jira.client.async.BoundedAsyncRunner;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.async.VirtualThreads;
+import fr.vvlabs.jira.client.cache.ResponseCache;
+import fr.vvlabs.jira.client.cache.ResponseCacheStats;
+import fr.vvlabs.jira.client.changelog.ChangelogFilters;
+import fr.vvlabs.jira.client.changelog.ChangelogIterator;
+import fr.vvlabs.jira.client.changelog.ChangelogPage;
+import fr.vvlabs.jira.client.changelog.ChangelogReport;
+import fr.vvlabs.jira.client.compact.CompactIssueTable;
+import fr.vvlabs.jira.client.compact.CompactPage;
+import fr.vvlabs.jira.client.compact.InternPool;
+import fr.vvlabs.jira.client.metrics.JiraClientListener;
+import fr.vvlabs.jira.client.project.CachingProjectRestClient;
+import fr.vvlabs.jira.client.project.ProjectLoadResult;
+import fr.vvlabs.jira.client.retry.AsyncRetryExecutor;
+import fr.vvlabs.jira.client.retry.RestErrors;
+import fr.vvlabs.jira.client.search.IssueSearchIterator;
+import fr.vvlabs.jira.client.search.IssuesByKeysResult;
+import fr.vvlabs.jira.client.store.LocalIssueStore;
+import fr.vvlabs.jira.client.throttle.JiraThrottle;
+import fr.vvlabs.jira.client.throttle.ThrottleMetrics;
+import io.atlassian.util.concurrent.Promise;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.ws.rs.core.UriBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 
 /**
  * based on original code, this extended class allows to customize "expand" query param with search client
@@ -33,12 +90,33 @@ public class JiraExpandRestClient extends AsynchronousJiraRestClient {
   // ===========================================================
 
   private static final String API_URI = "/rest/api/latest";
+  private static final int DEFAULT_MAX_IN_FLIGHT = 4;
+  private static final int DEFAULT_PREFETCH_PAGES = 2;
+  private static final int ISSUE_KEYS_CHUNK_SIZE = 100;
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final int CHANGELOG_PAGE_SIZE = 100;
+  private static final String ASYNC_THREAD_NAME_FORMAT = "jira-async-%d";
+  // fields Jira requires to parse an issue, enough to compare update dates
+  private static final Set<String> MINIMAL_FIELDS = new HashSet<>(Arrays.asList("summary", "issuetype", "created", "updated", "project", "status"));
 
   // ===========================================================
   // Fields
   // ===========================================================
 
   private final ExpandSearchRestClient searchRestClient;
+  private final IssueRestClient issueRestClient;
+  private final ExpandSearchRestClient executingSearchClient;
+  private final IssueRestClient executingIssueClient;
+  private final ProjectRestClient projectRestClient;
+  private final JiraExpandChangelogRestClient changelogRestClient;
+  private final AsyncRetryExecutor retryExecutor;
+  private final JiraThrottle throttle;
+  private final JiraClientListener listener;
+  private final ResponseCache responseCache;
+  private final LocalIssueStore issueStore;
+  private final ExecutorService asyncExecutor;
+  // paged changelog resource, missing on older Jira versions
+  private volatile boolean pagedChangelogSupported = true;
 
   // ===========================================================
   // Constructors
@@ -48,18 +126,82 @@ public class JiraExpandRestClient extends AsynchronousJiraRestClient {
    * Build a new Jira Rest Client
    */
   public JiraExpandRestClient(final URI serverUri, final DisposableHttpClient httpClient) {
+    this(serverUri, httpClient, JiraExpandRestClientOptions.defaults());
+  }
+
+  /**
+   * Build a new Jira Rest Client with optional features
+   */
+  public JiraExpandRestClient(final URI serverUri, final DisposableHttpClient httpClient, final JiraExpandRestClientOptions options) {
     super(serverUri, httpClient);
     URI baseUri = UriBuilder.fromUri(serverUri).path(API_URI).build(new Object[0]);
-    this.searchRestClient = new JiraExpandSearchRestClient(baseUri, httpClient);
+    this.listener = options.getListener();
+    this.searchRestClient = new JiraExpandSearchRestClient(baseUri, httpClient, options.isStreamingParser(), options.isGzip(), listener);
+    this.changelogRestClient = new JiraExpandChangelogRestClient(baseUri, httpClient);
+    this.retryExecutor = new AsyncRetryExecutor(options.getRetryPolicy(), listener);
+    this.throttle = options.getThrottle() != null ? new JiraThrottle(options.getThrottle()) : null;
+    this.issueRestClient = super.getIssueClient();
+    // sub-clients handed out go through retry and the throttle, sharing its limits with the calls made here
+    this.executingSearchClient = executing(ExpandSearchRestClient.class, searchRestClient);
+    this.executingIssueClient = executing(IssueRestClient.class, issueRestClient);
+    // the cache sits above retry and throttling : hits take no rate token and report no Jira latency
+    ProjectRestClient executingProjectClient = new ExecutingProjectRestClient(super.getProjectClient());
+    this.projectRestClient = options.getProjectCache() != null
+        ? new CachingProjectRestClient(executingProjectClient, options.getProjectCache())
+        : executingProjectClient;
+    this.responseCache = options.getResponseCache() != null ? new ResponseCache(options.getResponseCache()) : null;
+    this.issueStore = options.getIssueStore() != null ? openIssueStore(options) : null;
+    this.asyncExecutor = options.getExecutionMode() == ExecutionMode.VIRTUAL_THREADS
+        ? VirtualThreads.newPerTaskExecutor(ASYNC_THREAD_NAME_FORMAT)
+        : Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat(ASYNC_THREAD_NAME_FORMAT).build());
   }
 
   // ===========================================================
   // Methods for/from SuperClass/Interfaces
   // ===========================================================
 
+  /**
+   * @return search client whose calls go through retry, throttling and metrics
+   */
   @Override
   public ExpandSearchRestClient getSearchClient() {
-    return this.searchRestClient;
+    return this.executingSearchClient;
+  }
+
+  /**
+   * @return issue client whose calls go through retry, throttling and metrics
+   */
+  @Override
+  public IssueRestClient getIssueClient() {
+    return this.executingIssueClient;
+  }
+
+  @Override
+  public ProjectRestClient getProjectClient() {
+    return this.projectRestClient;
+  }
+
+  public JiraExpandChangelogRestClient getChangelogClient() {
+    return this.changelogRestClient;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      retryExecutor.close();
+      if (throttle != null) {
+        throttle.close();
+      }
+      if (projectRestClient instanceof Closeable) {
+        ((Closeable) projectRestClient).close();
+      }
+      asyncExecutor.shutdown();
+      if (issueStore != null) {
+        issueStore.close();
+      }
+    }
   }
 
   // ===========================================================
@@ -67,39 +209,106 @@ public class JiraExpandRestClient extends AsynchronousJiraRestClient {
   // ===========================================================
 
   /**
-   * Get All Projects
+   * Run blocking style code against the client on the executor owned by the client,
+   * virtual threads in {@link ExecutionMode#VIRTUAL_THREADS} mode
+   * @param call
+   * @param <T>
+   * @return
+   */
+  public <T> CompletableFuture<T> supplyAsync(Function<? super JiraExpandRestClient, ? extends T> call) {
+    return CompletableFuture.supplyAsync(() -> call.apply(this), asyncExecutor);
+  }
+
+  /**
+   * Futures of the *Async methods complete on the HTTP client threads : chain blocking callbacks
+   * with thenApplyAsync(..., getAsyncExecutor()) and the like
+   * @return executor owned by the client, shut down on close
+   */
+  public Executor getAsyncExecutor() {
+    return asyncExecutor;
+  }
+
+  /**
+   * Get All Projects, project details are loaded concurrently.
+   * Projects which cannot be loaded are logged and skipped.
    * @return all projects
-   * @throws ExecutionException
-   * @throws InterruptedException
    */
   public Set<Project> getAllProjects() {
-    final Set<Project> projectsResult = new HashSet<>();
-    Iterable<BasicProject> jiraProjects = executeWithRetry(() -> getProjectClient().getAllProjects().claim());
-    for (BasicProject basicProject : jiraProjects) {
-      Project jiraProject = executeWithRetry(() -> getProjectClient().getProject(basicProject.getKey()).claim());
-      if(jiraProject != null) {
-        projectsResult.add(jiraProject);
-      }
-    }
-    return projectsResult;
+    return PromiseUtils.join(getAllProjectsAsync());
   }
 
   /**
-   * Get Projects by Keys
+   * Get All Projects, asynchronously
+   * @return all projects
+   */
+  public CompletableFuture<Set<Project>> getAllProjectsAsync() {
+    return loadAllProjectsAsync(DEFAULT_MAX_IN_FLIGHT).thenApply(ProjectLoadResult::getProjects);
+  }
+
+  /**
+   * Load All Projects, with at most parallelism concurrent requests
+   * @param parallelism
+   * @return loaded projects and failures by key
+   */
+  public ProjectLoadResult loadAllProjects(int parallelism) {
+    return PromiseUtils.join(loadAllProjectsAsync(parallelism));
+  }
+
+  /**
+   * Get Projects by Keys, projects are loaded concurrently.
+   * Projects which cannot be loaded are logged and skipped.
    * @param projectKeys
    * @return projects by keys
-   * @throws ExecutionException
-   * @throws InterruptedException
    */
   public Set<Project> getProjectsByKeys(Set<String> projectKeys)  {
-    final Set<Project> projectsResult = new HashSet<>();
-    for (String projectKey : projectKeys) {
-      Project jiraProject = (executeWithRetry(() -> getProjectClient().getProject(projectKey).claim()));
-      if(jiraProject != null) {
-        projectsResult.add(jiraProject);
-      }
-    }
-    return projectsResult;
+    return PromiseUtils.join(getProjectsByKeysAsync(projectKeys));
+  }
+
+  /**
+   * Get Projects by Keys, asynchronously
+   * @param projectKeys
+   * @return projects by keys
+   */
+  public CompletableFuture<Set<Project>> getProjectsByKeysAsync(Set<String> projectKeys) {
+    return loadProjectsAsync(projectKeys, DEFAULT_MAX_IN_FLIGHT).thenApply(ProjectLoadResult::getProjects);
+  }
+
+  /**
+   * Load Projects by Keys, with at most parallelism concurrent requests
+   * @param projectKeys
+   * @param parallelism
+   * @return loaded projects and failures by key
+   */
+  public ProjectLoadResult loadProjectsByKeys(Set<String> projectKeys, int parallelism) {
+    return PromiseUtils.join(loadProjectsAsync(projectKeys, parallelism));
+  }
+
+  private CompletableFuture<ProjectLoadResult> loadAllProjectsAsync(int parallelism) {
+    return PromiseUtils.toCompletableFuture(() -> getProjectClient().getAllProjects())
+        .thenCompose(basicProjects -> {
+          Set<String> projectKeys = new LinkedHashSet<>();
+          basicProjects.forEach(basicProject -> projectKeys.add(basicProject.getKey()));
+          return loadProjectsAsync(projectKeys, parallelism);
+        });
+  }
+
+  private CompletableFuture<ProjectLoadResult> loadProjectsAsync(Collection<String> projectKeys, int parallelism) {
+    final Set<Project> projects = ConcurrentHashMap.newKeySet();
+    final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    return BoundedAsyncRunner.runAll(new ArrayList<>(projectKeys), parallelism, (String projectKey) ->
+        PromiseUtils.toCompletableFuture(() -> getProjectClient().getProject(projectKey)).handle((project, error) -> {
+          if (error != null) {
+            Throwable cause = PromiseUtils.unwrap(error);
+            log.warn("loadProjects(...) could not load project {} : {}", projectKey, cause.getMessage());
+            failures.put(projectKey, cause);
+            return Boolean.FALSE;
+          }
+          if (project != null) {
+            projects.add(project);
+          }
+          return Boolean.TRUE;
+        }))
+        .thenApply(loaded -> new ProjectLoadResult(new HashSet<>(projects), new HashMap<>(failures)));
   }
 
   /**
@@ -140,7 +349,203 @@ public class JiraExpandRestClient extends AsynchronousJiraRestClient {
    * @return
    */
   public List<Issue> getIssues(String customJQL, int start, int maxResults, Set<String> projects, Set<String> fields, Set<String> expandos, LocalDateTime startDate, LocalDateTime endDate) {
-    List<Issue> listOfIssues = new ArrayList<>();
+    return PromiseUtils.join(getIssuesAsync(customJQL, start, maxResults, projects, fields, expandos, startDate, endDate));
+  }
+
+  /**
+   * Get Issues paginated, asynchronously
+   * @param customJQL
+   * @param start
+   * @param maxResults
+   * @param projects
+   * @param fields
+   * @param expandos
+   * @param startDate
+   * @param endDate
+   * @return
+   */
+  public CompletableFuture<List<Issue>> getIssuesAsync(String customJQL, int start, int maxResults, Set<String> projects, Set<String> fields,
+      Set<String> expandos, LocalDateTime startDate, LocalDateTime endDate) {
+    final String jqlQuery = buildJql(customJQL, projects, startDate, endDate);
+    log.debug("JQL Query : {}", jqlQuery);
+
+    return cachedSearchAsync(jqlQuery, maxResults, start, fields, expandos).thenApply(results -> {
+      List<Issue> listOfIssues = new ArrayList<>();
+      if (results != null && results.getIssues() != null) {
+        results.getIssues().forEach(listOfIssues::add);
+      }
+      return listOfIssues;
+    });
+  }
+
+  /**
+   * Get All Issues matching the query, pages after the first one are fetched concurrently
+   * @param customJQL
+   * @param pageSize
+   * @return
+   */
+  public List<Issue> getAllIssues(String customJQL, int pageSize) {
+    return getAllIssues(customJQL, pageSize, DEFAULT_MAX_IN_FLIGHT, null, null, null, null, null);
+  }
+
+  /**
+   * Get All Issues matching the query, with projects filter, custom fields and expandable properties, from / to dates.
+   * The first page gives the total, remaining pages are fetched concurrently with at most maxInFlight requests.
+   * @param customJQL
+   * @param pageSize
+   * @param maxInFlight
+   * @param projects
+   * @param fields
+   * @param expandos
+   * @param startDate
+   * @param endDate
+   * @return issues, in search order
+   */
+  public List<Issue> getAllIssues(String customJQL, int pageSize, int maxInFlight, Set<String> projects, Set<String> fields, Set<String> expandos,
+      LocalDateTime startDate, LocalDateTime endDate) {
+    final String jqlQuery = buildJql(customJQL, projects, startDate, endDate);
+    log.debug("JQL Query (all pages) : {}", jqlQuery);
+    return PromiseUtils.join(searchAllPages(jqlQuery, pageSize, maxInFlight, fields, expandos));
+  }
+
+  /**
+   * Get All Issues matching the query in a compact, columnar table, parsed without building JRJC issues
+   * @param customJQL
+   * @param pageSize
+   * @return
+   */
+  public CompactIssueTable getCompactIssues(String customJQL, int pageSize) {
+    return getCompactIssues(customJQL, pageSize, DEFAULT_MAX_IN_FLIGHT, null, null, null, null, new CompactIssueTable());
+  }
+
+  /**
+   * Get All Issues matching the query in a compact, columnar table, with projects filter, custom fields, from / to dates.
+   * Pages are fetched concurrently and appended to the table as they complete, so rows are not in search order.
+   * @param customJQL
+   * @param pageSize
+   * @param maxInFlight
+   * @param projects
+   * @param fields
+   * @param startDate
+   * @param endDate
+   * @param table target table, possibly sharing its intern pool with other tables
+   * @return the target table
+   */
+  public CompactIssueTable getCompactIssues(String customJQL, int pageSize, int maxInFlight, Set<String> projects, Set<String> fields,
+      LocalDateTime startDate, LocalDateTime endDate, CompactIssueTable table) {
+    final String jqlQuery = buildJql(customJQL, projects, startDate, endDate);
+    log.debug("JQL Query (compact) : {}", jqlQuery);
+    return PromiseUtils.join(searchCompactAsync(jqlQuery, pageSize, 0, fields, table)
+        .thenCompose(firstPage -> {
+          final int effectivePageSize = firstPage.getMaxResults() > 0 ? firstPage.getMaxResults() : pageSize;
+          List<Integer> startAts = new ArrayList<>();
+          for (int startAt = effectivePageSize; startAt < firstPage.getTotal(); startAt += effectivePageSize) {
+            startAts.add(startAt);
+          }
+          return BoundedAsyncRunner.runAll(startAts, maxInFlight,
+              (Integer startAt) -> searchCompactAsync(jqlQuery, effectivePageSize, startAt, fields, table));
+        })
+        .thenApply(pages -> table));
+  }
+
+  /**
+   * Search one page into the table, rows are appended only once the page is fully parsed, so retries do not duplicate them
+   */
+  private CompletableFuture<CompactPage> searchCompactAsync(String jql, int maxResults, int startAt, Set<String> fields,
+      CompactIssueTable table) {
+    return searchCompactAsync(jql, maxResults, startAt, fields, table.getPool())
+        .thenApply(page -> {
+          table.append(page);
+          return page;
+        });
+  }
+
+  /**
+   * Search one page asynchronously into compact rows, with retry and throttling
+   * @param jql
+   * @param maxResults
+   * @param startAt
+   * @param fields
+   * @param pool canonical instances shared with the target table
+   * @return
+   */
+  public CompletableFuture<CompactPage> searchCompactAsync(String jql, int maxResults, int startAt, Set<String> fields, InternPool pool) {
+    return execute(JiraOperation.search(jql), () -> searchRestClient.searchJqlCompact(jql, maxResults, startAt, fields, pool));
+  }
+
+  /**
+   * Stream Issues matching the query, pages are fetched on demand with background prefetch
+   * @param customJQL
+   * @param pageSize
+   * @return
+   */
+  public Stream<Issue> streamIssues(String customJQL, int pageSize) {
+    return streamIssues(customJQL, pageSize, DEFAULT_PREFETCH_PAGES, null, null, null, null, null);
+  }
+
+  /**
+   * Stream Issues matching the query, with projects filter, custom fields and expandable properties, from / to dates.
+   * At most prefetchPages pages are buffered ahead of the consumer, so memory stays flat whatever the number of issues.
+   * @param customJQL
+   * @param pageSize
+   * @param prefetchPages
+   * @param projects
+   * @param fields
+   * @param expandos
+   * @param startDate
+   * @param endDate
+   * @return lazy, ordered stream of issues, closing it cancels the prefetched pages
+   */
+  public Stream<Issue> streamIssues(String customJQL, int pageSize, int prefetchPages, Set<String> projects, Set<String> fields,
+      Set<String> expandos, LocalDateTime startDate, LocalDateTime endDate) {
+    IssueSearchIterator iterator = iterateIssues(customJQL, pageSize, prefetchPages, projects, fields, expandos, startDate, endDate);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(iterator::cancel);
+  }
+
+  /**
+   * Iterate over Issues matching the query, pages are fetched on demand with background prefetch
+   * @param customJQL
+   * @param pageSize
+   * @param prefetchPages
+   * @param projects
+   * @param fields
+   * @param expandos
+   * @param startDate
+   * @param endDate
+   * @return lazy iterator of issues, cancel it to drop the prefetched pages
+   */
+  public IssueSearchIterator iterateIssues(String customJQL, int pageSize, int prefetchPages, Set<String> projects, Set<String> fields,
+      Set<String> expandos, LocalDateTime startDate, LocalDateTime endDate) {
+    final String jqlQuery = buildJql(customJQL, projects, startDate, endDate);
+    log.debug("JQL Query (stream) : {}", jqlQuery);
+    return new IssueSearchIterator((startAt, maxResults) -> searchJqlAsync(jqlQuery, maxResults, startAt, fields, expandos),
+        pageSize, prefetchPages);
+  }
+
+  /**
+   * Build JQL query with projects filter and from / to dates
+   * @param customJQL
+   * @param projects
+   * @param startDate
+   * @param endDate
+   * @return
+   */
+  public static String buildJql(String customJQL, Set<String> projects, LocalDateTime startDate, LocalDateTime endDate) {
+    return buildJqlBetween(customJQL, projects,
+        startDate != null ? startDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null,
+        endDate != null ? endDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null);
+  }
+
+  /**
+   * Build JQL query with projects filter and from / to timestamps, both exclusive
+   * @param customJQL
+   * @param projects
+   * @param startMillis epoch millis
+   * @param endMillis epoch millis
+   * @return
+   */
+  public static String buildJqlBetween(String customJQL, Set<String> projects, Long startMillis, Long endMillis) {
     // Custom jql filter
     customJQL = customJQL != null ? customJQL : "";
     // projects filter
@@ -151,22 +556,92 @@ public class JiraExpandRestClient extends AsynchronousJiraRestClient {
       customJQL += StringUtils.isNotBlank(customJQL) ? " AND "  + projectFilter : projectFilter;
     }
     // incremental sync
-    if (startDate != null) {
-      String lastSyncFilter = "updated > " + startDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    if (startMillis != null) {
+      String lastSyncFilter = "updated > " + startMillis;
       customJQL += StringUtils.isNotBlank(customJQL) ? " AND "  + lastSyncFilter : lastSyncFilter;
     }
-    if (endDate != null) {
-      String startSyncFilter = "updated < " + endDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    if (endMillis != null) {
+      String startSyncFilter = "updated < " + endMillis;
       customJQL += StringUtils.isNotBlank(customJQL) ? " AND "  + startSyncFilter : startSyncFilter;
     }
-    final String jqlQuery = customJQL;
-    log.debug("JQL Query : {}", jqlQuery);
+    return customJQL;
+  }
+
+  /**
+   * Fetch first page, then fan out remaining pages
+   * @param jql
+   * @param pageSize
+   * @param maxInFlight
+   * @param fields
+   * @param expandos
+   * @return
+   */
+  private CompletableFuture<List<Issue>> searchAllPages(String jql, int pageSize, int maxInFlight, Set<String> fields, Set<String> expandos) {
+    return searchJqlAsync(jql, pageSize, 0, fields, expandos)
+        .thenCompose(firstPage -> {
+          // Jira may cap maxResults below the requested page size
+          final int effectivePageSize = firstPage.getMaxResults() > 0 ? firstPage.getMaxResults() : pageSize;
+          List<Integer> startAts = new ArrayList<>();
+          for (int startAt = effectivePageSize; startAt < firstPage.getTotal(); startAt += effectivePageSize) {
+            startAts.add(startAt);
+          }
+          return BoundedAsyncRunner.runAll(startAts, maxInFlight,
+              (Integer startAt) -> searchJqlAsync(jql, effectivePageSize, startAt, fields, expandos))
+              .thenApply(pages -> {
+                List<Issue> listOfIssues = new ArrayList<>(Math.max(0, firstPage.getTotal()));
+                firstPage.getIssues().forEach(listOfIssues::add);
+                pages.forEach(page -> page.getIssues().forEach(listOfIssues::add));
+                return listOfIssues;
+              });
+        });
+  }
+
+  /**
+   * Search one page asynchronously, with retry and throttling
+   * @param jql
+   * @param maxResults
+   * @param startAt
+   * @param fields
+   * @param expandos
+   * @return
+   */
+  public CompletableFuture<SearchResult> searchJqlAsync(String jql, int maxResults, int startAt, Set<String> fields, Set<String> expandos) {
+    return searchJqlAsync(jql, maxResults, startAt, fields, expandos, null);
+  }
+
+  private CompletableFuture<SearchResult> searchJqlAsync(String jql, int maxResults, int startAt, Set<String> fields, Set<String> expandos,
+      String validateQuery) {
+    CompletableFuture<SearchResult> page = execute(JiraOperation.search(jql),
+        () -> searchRestClient.searchJql(jql, maxResults, startAt, fields, expandos, null, validateQuery));
+    return issueStore != null ? PromiseUtils.propagateCancellation(page.thenApply(result -> store(result, fields)), page) : page;
+  }
+
+  /**
+   * @return local issue store, fed by every fetched search page, null if disabled
+   */
+  public LocalIssueStore getIssueStore() {
+    return issueStore;
+  }
+
+  /**
+   * Queue a fetched page for the local store, merged into stored records when fetched with fewer fields.
+   * The search does not wait for the store, a store failure does not fail it
+   */
+  private SearchResult store(SearchResult page, Set<String> fields) {
+    issueStore.upsertAsync(page.getIssues(), fields).whenComplete((done, error) -> {
+      if (error != null) {
+        log.warn("store(...) could not store {} issues : {}", Iterables.size(page.getIssues()), PromiseUtils.unwrap(error).getMessage());
+      }
+    });
+    return page;
+  }
 
-    SearchResult results = executeWithRetry(() -> getSearchClient().searchJql(jqlQuery, maxResults, start, fields, expandos).claim());
-    if (results != null && results.getIssues() != null) {
-      results.getIssues().forEach(listOfIssues::add);
+  private static LocalIssueStore openIssueStore(JiraExpandRestClientOptions options) {
+    try {
+      return new LocalIssueStore(options.getIssueStore());
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not open issue store " + options.getIssueStore().getDirectory(), e);
     }
-    return listOfIssues;
   }
 
   /**
@@ -175,22 +650,414 @@ public class JiraExpandRestClient extends AsynchronousJiraRestClient {
    * @return
    */
   public Issue getIssueByKey(String issueKey) {
-   return executeWithRetry(() -> getIssueClient().getIssue(issueKey).claim());
+    return PromiseUtils.join(getIssueByKeyAsync(issueKey));
+  }
+
+  /**
+   * Get Issue By Key, asynchronously
+   * @param issueKey
+   * @return
+   */
+  public CompletableFuture<Issue> getIssueByKeyAsync(String issueKey) {
+    if (responseCache == null) {
+      return execute(JiraOperation.GET_ISSUE, () -> issueRestClient.getIssue(issueKey));
+    }
+    return responseCache.get(JiraOperation.GET_ISSUE + ":" + issueKey,
+        () -> execute(JiraOperation.GET_ISSUE, () -> issueRestClient.getIssue(issueKey)),
+        this::isUnchanged);
   }
 
   /**
-   * execute call with retry
+   * @return response cache counters, null if the response cache is disabled
+   */
+  public ResponseCacheStats getResponseCacheStats() {
+    return responseCache != null ? responseCache.getStats() : null;
+  }
+
+  /**
+   * Search one page through the response cache, if enabled.
+   * Search pages have no cheap validator : they are served until they are no longer fresh.
+   */
+  private CompletableFuture<SearchResult> cachedSearchAsync(String jql, int maxResults, int startAt, Set<String> fields, Set<String> expandos) {
+    if (responseCache == null) {
+      return searchJqlAsync(jql, maxResults, startAt, fields, expandos);
+    }
+    String key = JiraOperation.search(jql) + ":" + jql + ":" + maxResults + ":" + startAt + ":" + sorted(fields) + ":" + sorted(expandos);
+    return responseCache.get(key, () -> searchJqlAsync(jql, maxResults, startAt, fields, expandos), null);
+  }
+
+  /**
+   * Revalidate a cached issue : Jira sends no ETag on issues, so the update date is compared through a minimal search
+   */
+  private CompletableFuture<Boolean> isUnchanged(Issue cached) {
+    if (cached.getUpdateDate() == null) {
+      return CompletableFuture.completedFuture(Boolean.FALSE);
+    }
+    return searchJqlAsync("key = \"" + cached.getKey() + "\"", 1, 0, MINIMAL_FIELDS, null)
+        .thenApply(page -> {
+          Iterator<Issue> issues = page.getIssues().iterator();
+          Issue current = issues.hasNext() ? issues.next() : null;
+          return current != null && current.getUpdateDate() != null
+              && current.getUpdateDate().getMillis() == cached.getUpdateDate().getMillis();
+        });
+  }
+
+  private static SortedSet<String> sorted(Set<String> values) {
+    return values != null ? new TreeSet<>(values) : null;
+  }
+
+  /**
+   * Get Issues By Keys : keys are chunked into "key IN (...)" searches, run concurrently.
+   * Keys match whatever their case, and old keys of moved issues match the issues under their current key.
+   * @param issueKeys
+   * @param fields
+   * @param expandos
+   * @return issues by requested key, and requested keys not found
+   */
+  public IssuesByKeysResult getIssuesByKeys(Collection<String> issueKeys, Set<String> fields, Set<String> expandos) {
+    return PromiseUtils.join(getIssuesByKeysAsync(issueKeys, fields, expandos));
+  }
+
+  /**
+   * Get Issues By Keys, asynchronously
+   * @param issueKeys
+   * @param fields
+   * @param expandos
+   * @return issues by requested key, and requested keys not found
+   */
+  public CompletableFuture<IssuesByKeysResult> getIssuesByKeysAsync(Collection<String> issueKeys, Set<String> fields, Set<String> expandos) {
+    // normalized key -> key as requested
+    final Map<String, String> requested = new LinkedHashMap<>();
+    issueKeys.forEach(issueKey -> requested.putIfAbsent(normalizedKey(issueKey), issueKey));
+    // found issues by normalized current key
+    final Map<String, Issue> found = new ConcurrentHashMap<>();
+    return BoundedAsyncRunner.runAll(Lists.partition(new ArrayList<>(requested.keySet()), ISSUE_KEYS_CHUNK_SIZE), DEFAULT_MAX_IN_FLIGHT,
+        (List<String> chunk) -> searchByKeys(chunk, 0, fields, expandos, found))
+        .thenCompose(done -> {
+          final Map<String, Issue> issues = new ConcurrentHashMap<>();
+          final Set<String> unclaimed = new HashSet<>(found.keySet());
+          final List<String> unresolved = new ArrayList<>();
+          requested.forEach((normalizedKey, issueKey) -> {
+            Issue issue = found.get(normalizedKey);
+            if (issue != null) {
+              issues.put(issueKey, issue);
+              unclaimed.remove(normalizedKey);
+            } else {
+              unresolved.add(normalizedKey);
+            }
+          });
+          if (unresolved.isEmpty() || unclaimed.isEmpty()) {
+            return CompletableFuture.completedFuture(byKeysResult(requested, issues, unresolved));
+          }
+          // issues found under a key nobody asked for were moved : the issue resource follows old keys, matched by id
+          final Map<Long, Issue> movedById = new HashMap<>();
+          unclaimed.forEach(normalizedKey -> movedById.put(found.get(normalizedKey).getId(), found.get(normalizedKey)));
+          return BoundedAsyncRunner.runAll(unresolved, DEFAULT_MAX_IN_FLIGHT, (String normalizedKey) -> resolveOldKey(normalizedKey)
+              .thenApply(issueId -> {
+                Issue moved = issueId != null ? movedById.get(issueId) : null;
+                if (moved != null) {
+                  issues.put(requested.get(normalizedKey), moved);
+                }
+                return Boolean.TRUE;
+              }))
+              .thenApply(resolved -> byKeysResult(requested, issues, unresolved));
+        });
+  }
+
+  /**
+   * Search a chunk of keys. The query is validated in warn mode : Jira skips the keys which do not exist
+   * instead of rejecting the whole query with 400.
+   */
+  private CompletableFuture<Boolean> searchByKeys(List<String> keys, int startAt, Set<String> fields, Set<String> expandos,
+      Map<String, Issue> found) {
+    String jql = "key IN (" + keys.stream().map(key -> "\"" + key + "\"").collect(Collectors.joining(",")) + ")";
+    return searchJqlAsync(jql, keys.size(), startAt, fields, expandos, ExpandSearchRestClient.VALIDATE_QUERY_WARN)
+        .thenCompose(page -> {
+          int received = 0;
+          for (Issue issue : page.getIssues()) {
+            found.put(normalizedKey(issue.getKey()), issue);
+            received++;
+          }
+          // Jira may cap maxResults below the chunk size
+          int next = startAt + received;
+          return received > 0 && next < page.getTotal()
+              ? searchByKeys(keys, next, fields, expandos, found)
+              : CompletableFuture.completedFuture(Boolean.TRUE);
+        });
+  }
+
+  /**
+   * @return id of the issue the key leads to, null if none
+   */
+  private CompletableFuture<Long> resolveOldKey(String issueKey) {
+    return execute(JiraOperation.GET_ISSUE, () -> issueRestClient.getIssue(issueKey))
+        .handle((issue, error) -> {
+          if (error == null) {
+            return issue.getId();
+          }
+          Integer statusCode = RestErrors.statusCodeOf(PromiseUtils.unwrap(error));
+          if (statusCode != null && statusCode == HTTP_NOT_FOUND) {
+            log.debug("getIssuesByKeys(...) issue {} not found", issueKey);
+            return null;
+          }
+          throw new CompletionException(PromiseUtils.unwrap(error));
+        });
+  }
+
+  private static IssuesByKeysResult byKeysResult(Map<String, String> requested, Map<String, Issue> issues, List<String> unresolved) {
+    Set<String> missingKeys = new LinkedHashSet<>();
+    unresolved.forEach(normalizedKey -> missingKeys.add(requested.get(normalizedKey)));
+    missingKeys.removeAll(issues.keySet());
+    return new IssuesByKeysResult(new HashMap<>(issues), missingKeys);
+  }
+
+  /**
+   * Jira keys are upper case, JQL matches them whatever the case
+   */
+  private static String normalizedKey(String issueKey) {
+    return issueKey.trim().toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * Stream an issue history, oldest first : pages are requested while the previous one is consumed,
+   * without the changelog expando on searches
+   * @param issueKey
+   * @param fields field names whose items are kept (e.g. status), null for all items
+   * @return lazy stream of changelog groups
+   */
+  public Stream<ChangelogGroup> streamChangelog(String issueKey, Set<String> fields) {
+    Iterator<ChangelogGroup> iterator = new ChangelogIterator(startAt -> getChangelogPageAsync(issueKey, startAt), fields);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Get an issue full history, asynchronously
+   * @param issueKey
+   * @param fields field names whose items are kept (e.g. status), null for all items
+   * @return changelog groups, oldest first
+   */
+  public CompletableFuture<List<ChangelogGroup>> getChangelogAsync(String issueKey, Set<String> fields) {
+    final List<ChangelogGroup> history = new ArrayList<>();
+    return readChangelog(issueKey, 0, history).thenApply(pages -> ChangelogFilters.filter(history, fields));
+  }
+
+  /**
+   * Extract the full history of issues, at most maxInFlight issues at a time.
+   * Each history is handed to the consumer once complete, calls to the consumer are serialized.
+   * Issues whose history cannot be read are reported, not retried beyond the retry policy.
+   * @param issueKeys
+   * @param maxInFlight
+   * @param fields field names whose items are kept (e.g. status), null for all items
+   * @param consumer receives issue key and changelog groups, oldest first
+   * @return extraction report
+   */
+  public ChangelogReport extractChangelogs(Collection<String> issueKeys, int maxInFlight, Set<String> fields,
+      BiConsumer<String, List<ChangelogGroup>> consumer) {
+    final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    final AtomicInteger issues = new AtomicInteger();
+    final LongAdder groups = new LongAdder();
+    final LongAdder pages = new LongAdder();
+    PromiseUtils.join(BoundedAsyncRunner.runAll(new ArrayList<>(new LinkedHashSet<>(issueKeys)), maxInFlight, (String issueKey) -> {
+      final List<ChangelogGroup> history = new ArrayList<>();
+      return readChangelog(issueKey, 0, history).handle((pageCount, error) -> {
+        if (error != null) {
+          Throwable cause = PromiseUtils.unwrap(error);
+          log.warn("extractChangelogs(...) could not read history of {} : {}", issueKey, cause.getMessage());
+          failures.put(issueKey, cause);
+          return Boolean.FALSE;
+        }
+        List<ChangelogGroup> filtered = ChangelogFilters.filter(history, fields);
+        synchronized (consumer) {
+          consumer.accept(issueKey, filtered);
+        }
+        issues.incrementAndGet();
+        groups.add(filtered.size());
+        pages.add(pageCount);
+        return Boolean.TRUE;
+      });
+    }));
+    return new ChangelogReport(issues.get(), groups.sum(), pages.sum(), new HashMap<>(failures));
+  }
+
+  /**
+   * Read every page of an issue history into groups
+   * @return number of pages read
+   */
+  private CompletableFuture<Integer> readChangelog(String issueKey, int startAt, List<ChangelogGroup> history) {
+    return getChangelogPageAsync(issueKey, startAt).thenCompose(page -> {
+      history.addAll(page.getGroups());
+      return page.isLast()
+          ? CompletableFuture.completedFuture(1)
+          : readChangelog(issueKey, page.getStartAt() + page.getGroups().size(), history).thenApply(pageCount -> pageCount + 1);
+    });
+  }
+
+  /**
+   * Get a page of an issue history. A 404 on the paged resource is answered by the history expanded on the issue,
+   * in one last page. Only a 404 about the resource itself, for an issue that exists, means this Jira has no such resource :
+   * whole histories are then read expanded on the issue.
+   */
+  private CompletableFuture<ChangelogPage> getChangelogPageAsync(String issueKey, int startAt) {
+    if (!pagedChangelogSupported) {
+      return startAt == 0
+          ? execute(JiraOperation.GET_CHANGELOG, () -> changelogRestClient.getExpandedChangelog(issueKey))
+          : CompletableFuture.completedFuture(new ChangelogPage(startAt, 0, startAt, new ArrayList<>()));
+    }
+    return execute(JiraOperation.GET_CHANGELOG, () -> changelogRestClient.getChangelog(issueKey, startAt, CHANGELOG_PAGE_SIZE))
+        .handle((page, error) -> {
+          if (error == null) {
+            return CompletableFuture.completedFuture(page);
+          }
+          Throwable cause = PromiseUtils.unwrap(error);
+          Integer statusCode = RestErrors.statusCodeOf(cause);
+          if (startAt == 0 && statusCode != null && statusCode == HTTP_NOT_FOUND) {
+            // fails with the issue own error if the issue does not exist or is not visible
+            return execute(JiraOperation.GET_CHANGELOG, () -> changelogRestClient.getExpandedChangelog(issueKey))
+                .thenApply(expandedPage -> {
+                  if (pagedChangelogSupported && !RestErrors.isIssueNotFound(cause)) {
+                    log.info("getChangelog(...) paged changelog resource not available, reading expanded histories");
+                    pagedChangelogSupported = false;
+                  }
+                  return expandedPage;
+                });
+          }
+          CompletableFuture<ChangelogPage> failed = new CompletableFuture<>();
+          failed.completeExceptionally(cause);
+          return failed;
+        })
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * execute call with retry, according to the client retry policy
    * @param s
    * @param <T>
    * @return
    */
-  @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 500))
   public <T> T executeWithRetry(Supplier<T> s) {
-    try {
-      return s.get();
-    } catch (Exception e) {
-      log.warn("executeWithRetry(...) got exception, retry ...", e.getMessage(), e);
-      throw e;
+    // the call blocks : retried and throttled on the caller thread, never on the shared schedulers
+    return retryExecutor.executeBlocking(JiraOperation.CUSTOM, () -> throttle != null ? throttle.executeBlocking(s) : s.get());
+  }
+
+  /**
+   * @return rate limiter and concurrency limit metrics, null if throttling is disabled
+   */
+  public ThrottleMetrics getThrottleMetrics() {
+    return throttle != null ? throttle.getMetrics() : null;
+  }
+
+  /**
+   * Every call to Jira goes through here : retry of transient failures, each attempt going through the throttle, without blocking
+   * @param operation
+   * @param call
+   * @param <T>
+   * @return
+   */
+  private <T> CompletableFuture<T> execute(JiraOperation operation, Supplier<? extends Promise<T>> call) {
+    return retryExecutor.execute(operation, () -> throttle != null
+        ? throttle.execute(() -> timed(operation, call))
+        : timed(operation, call));
+  }
+
+  /**
+   * Client of type whose Promise calls go through {@link #execute(JiraOperation, Supplier)}, other calls reach the delegate as is.
+   * A proxy rather than a delegating class, the JRJC client interfaces being wide and changing between versions.
+   */
+  private <C> C executing(Class<C> type, C delegate) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new ExecutingInvocationHandler(delegate)));
+  }
+
+  /**
+   * Run one attempt, reporting its latency to the listener
+   */
+  private <T> CompletableFuture<T> timed(JiraOperation operation, Supplier<? extends Promise<T>> call) {
+    final long start = System.nanoTime();
+    return PromiseUtils.toCompletableFuture(call).whenComplete((value, error) -> {
+      long latencyNanos = System.nanoTime() - start;
+      if (error == null) {
+        listener.onCallSucceeded(operation, latencyNanos);
+      } else {
+        listener.onCallFailed(operation, latencyNanos, PromiseUtils.unwrap(error));
+      }
+    });
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  /**
+   * routes the Promise calls of a JRJC client through retry, throttling and metrics
+   */
+  private class ExecutingInvocationHandler implements InvocationHandler {
+
+    private final Object delegate;
+
+    private ExecutingInvocationHandler(final Object delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        switch (method.getName()) {
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          default:
+            return "executing " + delegate;
+        }
+      }
+      if (!Promise.class.isAssignableFrom(method.getReturnType())) {
+        return invokeDelegate(method, args);
+      }
+      return PromiseUtils.toPromise(execute(operationOf(method, args), () -> (Promise<?>) invokeDelegate(method, args)));
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) {
+      try {
+        return method.invoke(delegate, args);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private JiraOperation operationOf(Method method, Object[] args) {
+      if (method.getName().startsWith("searchJql") && args != null && (args[0] == null || args[0] instanceof String)) {
+        return JiraOperation.search((String) args[0]);
+      }
+      return "getIssue".equals(method.getName()) ? JiraOperation.GET_ISSUE : JiraOperation.CUSTOM;
+    }
+  }
+
+  /**
+   * project client whose calls go through retry, throttling and metrics
+   */
+  private class ExecutingProjectRestClient implements ProjectRestClient {
+
+    private final ProjectRestClient delegate;
+
+    private ExecutingProjectRestClient(final ProjectRestClient delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Promise<Project> getProject(String key) {
+      return PromiseUtils.toPromise(execute(JiraOperation.GET_PROJECT, () -> delegate.getProject(key)));
+    }
+
+    @Override
+    public Promise<Project> getProject(URI projectUri) {
+      return PromiseUtils.toPromise(execute(JiraOperation.GET_PROJECT, () -> delegate.getProject(projectUri)));
+    }
+
+    @Override
+    public Promise<Iterable<BasicProject>> getAllProjects() {
+      return PromiseUtils.toPromise(execute(JiraOperation.GET_ALL_PROJECTS, () -> delegate.getAllProjects()));
     }
   }
 }
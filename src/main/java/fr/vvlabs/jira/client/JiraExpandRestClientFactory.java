@@ -6,19 +6,51 @@ import com.atlassian.jira.rest.client.api.JiraRestClientFactory;
 import com.atlassian.jira.rest.client.auth.BasicHttpAuthenticationHandler;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousHttpClientFactory;
 import com.atlassian.jira.rest.client.internal.async.DisposableHttpClient;
+import fr.vvlabs.jira.client.transport.HttpTransportConfig;
+import fr.vvlabs.jira.client.transport.JiraHttpTransport;
+import java.io.Closeable;
 import java.net.URI;
+import lombok.Builder;
 
 /**
- * based on original code, this extended class allows to customize "expand" query param with search client
+ * based on original code, this extended class allows to customize "expand" query param with search client.
+ * With a transport (or transport settings), every client created by the factory shares one connection pool.
+ * On every path, throttling responses expose their Retry-After delay to the retry policy.
  */
-public class JiraExpandRestClientFactory implements JiraRestClientFactory {
+public class JiraExpandRestClientFactory implements JiraRestClientFactory, Closeable {
+
+  private final JiraExpandRestClientOptions options;
+  private final JiraHttpTransport transport;
+  private final boolean ownsTransport;
 
   public JiraExpandRestClientFactory() {
+    this(JiraExpandRestClientOptions.defaults());
+  }
+
+  public JiraExpandRestClientFactory(JiraExpandRestClientOptions options) {
+    this(options, null, null);
+  }
+
+  /**
+   * Build a new factory, see {@link #builder()}
+   * @param options client options, defaults if null
+   * @param transportConfig settings of a transport owned by the factory, closed with it
+   * @param transport transport shared with other factories, owned by the caller
+   */
+  @Builder
+  private JiraExpandRestClientFactory(JiraExpandRestClientOptions options, HttpTransportConfig transportConfig, JiraHttpTransport transport) {
+    this.options = options != null ? options : JiraExpandRestClientOptions.defaults();
+    this.ownsTransport = transport == null && transportConfig != null;
+    this.transport = ownsTransport ? new JiraHttpTransport(transportConfig) : transport;
   }
 
   public JiraExpandRestClient create(URI serverUri, AuthenticationHandler authenticationHandler) {
-    DisposableHttpClient httpClient = (new AsynchronousHttpClientFactory()).createClient(serverUri, authenticationHandler);
-    return new JiraExpandRestClient(serverUri, httpClient);
+    // Retry-After of throttling responses reaches the retry policy whichever way the HTTP client is built
+    DisposableHttpClient httpClient = transport != null
+        ? transport.createClient(authenticationHandler)
+        : JiraHttpTransport.withRetryAfter((new AsynchronousHttpClientFactory()).createClient(serverUri, authenticationHandler),
+            authenticationHandler);
+    return new JiraExpandRestClient(serverUri, httpClient, options);
   }
 
   public JiraExpandRestClient createWithBasicHttpAuthentication(URI serverUri, String username, String password) {
@@ -30,7 +62,17 @@ public class JiraExpandRestClientFactory implements JiraRestClientFactory {
   }
 
   public JiraExpandRestClient create(URI serverUri, HttpClient httpClient) {
-    DisposableHttpClient disposableHttpClient = (new AsynchronousHttpClientFactory()).createClient(httpClient);
-    return new JiraExpandRestClient(serverUri, disposableHttpClient);
+    DisposableHttpClient disposableHttpClient = (new AsynchronousHttpClientFactory()).createClient(JiraHttpTransport.withRetryAfter(httpClient));
+    return new JiraExpandRestClient(serverUri, disposableHttpClient, options);
+  }
+
+  /**
+   * Close the transport created by this factory, if any
+   */
+  @Override
+  public void close() {
+    if (ownsTransport) {
+      transport.close();
+    }
   }
 }
@@ -0,0 +1,59 @@
+package fr.vvlabs.jira.client;
+
+import fr.vvlabs.jira.client.cache.ResponseCacheConfig;
+import fr.vvlabs.jira.client.metrics.JiraClientListener;
+import fr.vvlabs.jira.client.project.ProjectCacheConfig;
+import fr.vvlabs.jira.client.retry.RetryPolicy;
+import fr.vvlabs.jira.client.store.IssueStoreConfig;
+import fr.vvlabs.jira.client.throttle.ThrottleConfig;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * optional features of {@link JiraExpandRestClient}
+ */
+@Getter
+@Builder
+public class JiraExpandRestClientOptions {
+
+  /** project metadata cache, null to disable */
+  private final ProjectCacheConfig projectCache;
+
+  /** retry of transient failures (transport errors, 429, 5xx) */
+  @Builder.Default
+  private final RetryPolicy retryPolicy = RetryPolicy.defaults();
+
+  /** rate limit and adaptive concurrency limit shared by every call of the client, null to disable */
+  private final ThrottleConfig throttle;
+
+  /** cache of issue and search responses, null to disable */
+  private final ResponseCacheConfig responseCache;
+
+  /** local store kept current with every fetched search page, null to disable */
+  private final IssueStoreConfig issueStore;
+
+  /**
+   * parse search responses as a token stream, one issue at a time, instead of a full Jettison tree (opt-in).
+   * Names and schema are then only asked for when given as expandos, custom fields have no name otherwise
+   */
+  @Builder.Default
+  private final boolean streamingParser = false;
+
+  /** ask for gzip compressed search responses, decoded while streaming (streaming and compact parsers only) */
+  private final boolean gzip;
+
+  /** latency, retry, parsing and error notifications, see InMemoryMetricsReporter */
+  @Builder.Default
+  private final JiraClientListener listener = JiraClientListener.NO_OP;
+
+  /** threads running supplyAsync calls, virtual threads when the runtime supports them */
+  @Builder.Default
+  private final ExecutionMode executionMode = ExecutionMode.DEFAULT;
+
+  /**
+   * @return default options : default retry policy, no caches, no throttling
+   */
+  public static JiraExpandRestClientOptions defaults() {
+    return JiraExpandRestClientOptions.builder().build();
+  }
+}
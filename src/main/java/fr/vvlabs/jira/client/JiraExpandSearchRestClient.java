@@ -1,19 +1,37 @@
 package fr.vvlabs.jira.client;
 
 import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
 import com.atlassian.jira.rest.client.api.IssueRestClient.Expandos;
 import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousSearchRestClient;
+import com.atlassian.jira.rest.client.internal.json.JsonObjectParser;
 import com.atlassian.jira.rest.client.internal.json.SearchResultJsonParser;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.io.CountingInputStream;
+import fr.vvlabs.jira.client.compact.CompactPage;
+import fr.vvlabs.jira.client.compact.CompactSearchResultParser;
+import fr.vvlabs.jira.client.compact.InternPool;
+import fr.vvlabs.jira.client.metrics.JiraClientListener;
+import fr.vvlabs.jira.client.search.StreamingSearchResultParser;
 import io.atlassian.util.concurrent.Promise;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 import javax.annotation.Nullable;
 import javax.ws.rs.core.UriBuilder;
 import org.apache.commons.lang3.StringUtils;
@@ -36,6 +54,11 @@ public class JiraExpandSearchRestClient extends AsynchronousSearchRestClient imp
   private static final String SEARCH_URI_PREFIX = "search";
   private static final String EXPAND_ATTRIBUTE = "expand";
   private static final String FIELDS_ATTRIBUTE = "fields";
+  private static final String VALIDATE_QUERY_ATTRIBUTE = "validateQuery";
+  private static final String JSON_CONTENT_TYPE = "application/json";
+  private static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+  private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+  private static final String GZIP_ENCODING = "gzip";
 
   // ===========================================================
   // Fields
@@ -44,6 +67,11 @@ public class JiraExpandSearchRestClient extends AsynchronousSearchRestClient imp
   private final SearchResultJsonParser searchResultJsonParser = new SearchResultJsonParser();
   private final List<String> defaultExpand = Arrays.asList(Expandos.SCHEMA.getValue(), Expandos.NAMES.getValue());
   private final URI searchUri;
+  private final HttpClient httpClient;
+  private final StreamingSearchResultParser streamingParser;
+  private final CompactSearchResultParser compactParser = new CompactSearchResultParser();
+  private final JiraClientListener listener;
+  private final boolean gzip;
 
   // ===========================================================
   // Constructors
@@ -55,8 +83,47 @@ public class JiraExpandSearchRestClient extends AsynchronousSearchRestClient imp
    * @param asyncHttpClient
    */
   public JiraExpandSearchRestClient(final URI baseUri, final HttpClient asyncHttpClient) {
+    this(baseUri, asyncHttpClient, false);
+  }
+
+  /**
+   * Build a new Jira Search Rest Client
+   * @param baseUri
+   * @param asyncHttpClient
+   * @param streamingParser true to parse responses with {@link StreamingSearchResultParser} instead of a Jettison tree
+   */
+  public JiraExpandSearchRestClient(final URI baseUri, final HttpClient asyncHttpClient, final boolean streamingParser) {
+    this(baseUri, asyncHttpClient, streamingParser, JiraClientListener.NO_OP);
+  }
+
+  /**
+   * Build a new Jira Search Rest Client
+   * @param baseUri
+   * @param asyncHttpClient
+   * @param streamingParser true to parse responses with {@link StreamingSearchResultParser} instead of a Jettison tree
+   * @param listener notified of parsed pages
+   */
+  public JiraExpandSearchRestClient(final URI baseUri, final HttpClient asyncHttpClient, final boolean streamingParser,
+      final JiraClientListener listener) {
+    this(baseUri, asyncHttpClient, streamingParser, false, listener);
+  }
+
+  /**
+   * Build a new Jira Search Rest Client
+   * @param baseUri
+   * @param asyncHttpClient
+   * @param streamingParser true to parse responses with {@link StreamingSearchResultParser} instead of a Jettison tree
+   * @param gzip true to ask for gzip compressed responses, streaming and compact parsers only
+   * @param listener notified of parsed pages
+   */
+  public JiraExpandSearchRestClient(final URI baseUri, final HttpClient asyncHttpClient, final boolean streamingParser,
+      final boolean gzip, final JiraClientListener listener) {
     super(baseUri, asyncHttpClient);
+    this.listener = listener;
+    this.gzip = gzip;
     this.searchUri = UriBuilder.fromUri(baseUri).path(SEARCH_URI_PREFIX).build(new Object[0]);
+    this.httpClient = asyncHttpClient;
+    this.streamingParser = streamingParser ? new StreamingSearchResultParser() : null;
   }
 
   // ===========================================================
@@ -66,31 +133,93 @@ public class JiraExpandSearchRestClient extends AsynchronousSearchRestClient imp
   @Override
   public Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
       @Nullable Set<String> fields, @Nullable Set<String> expandos) {
+    return searchJql(jql, maxResults, startAt, fields, expandos, null);
+  }
 
-    Set<String> expandosValues = new HashSet<>(defaultExpand);
+  @Override
+  public Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
+      @Nullable Set<String> fields, @Nullable Set<String> expandos, @Nullable Consumer<Issue> issueConsumer) {
+    return searchJql(jql, maxResults, startAt, fields, expandos, issueConsumer, null);
+  }
+
+  @Override
+  public Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
+      @Nullable Set<String> fields, @Nullable Set<String> expandos, @Nullable Consumer<Issue> issueConsumer,
+      @Nullable String validateQuery) {
+
+    // Jira sends names and schema after the issues : the streaming parser would hold every issue of the page
+    // to wait for them, it only asks for them when the caller does
+    Set<String> expandosValues = new HashSet<>(streamingParser != null ? Collections.<String>emptyList() : defaultExpand);
     if(expandos != null){
       expandosValues.addAll(expandos);
     }
 
     String notNullJql = StringUtils.defaultString(jql);
-    return notNullJql.length() > MAX_JQL_LENGTH_FOR_HTTP_GET ? this.searchJqlImplPost(maxResults, startAt, expandosValues, notNullJql, fields)
-        : this.searchJqlImplGet(maxResults, startAt, expandosValues, notNullJql, fields);
+    if (streamingParser == null && issueConsumer != null) {
+      // tree parsing : hand over issues once the whole page is parsed
+      return searchJql(notNullJql, maxResults, startAt, fields, expandos, null, validateQuery).map(result -> {
+        result.getIssues().forEach(issueConsumer);
+        return new SearchResult(result.getStartIndex(), result.getMaxResults(), result.getTotal(), Collections.<Issue>emptyList());
+      });
+    }
+    return isPostSearch(notNullJql)
+        ? this.searchJqlImplPost(maxResults, startAt, expandosValues, notNullJql, fields, issueConsumer, validateQuery)
+        : this.searchJqlImplGet(maxResults, startAt, expandosValues, notNullJql, fields, issueConsumer, validateQuery);
+  }
+
+  @Override
+  public Promise<CompactPage> searchJqlCompact(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt,
+      @Nullable Set<String> fields, InternPool pool) {
+    String notNullJql = StringUtils.defaultString(jql);
+    // the schema types the field columns, names are not needed : compact columns are keyed by field id
+    List<String> schemaExpand = Collections.singletonList(Expandos.SCHEMA.getValue());
+    if (isPostSearch(notNullJql)) {
+      JSONObject postEntity = this.buildSearchEntity(maxResults, startAt, schemaExpand, notNullJql, fields, null);
+      return this.callAndParse(jsonRequest(httpClient.newRequest(this.searchUri, JSON_CONTENT_TYPE, postEntity.toString())).post(),
+          compactHandler(JiraOperation.SEARCH_POST, pool));
+    }
+    URI uri = this.buildSearchUri(maxResults, startAt, schemaExpand, notNullJql, fields, null);
+    return this.callAndParse(jsonRequest(httpClient.newRequest(uri)).get(), compactHandler(JiraOperation.SEARCH_GET, pool));
   }
 
   // ===========================================================
   // Methods
   // ===========================================================
 
+  /**
+   * @param jql
+   * @return true if the search is sent by POST, JQL too long for a GET query string
+   */
+  static boolean isPostSearch(@Nullable String jql) {
+    return jql != null && jql.length() > MAX_JQL_LENGTH_FOR_HTTP_GET;
+  }
+
   private Promise<SearchResult> searchJqlImplGet(@Nullable Integer maxResults, @Nullable Integer startAt, Iterable<String> expandosValues,
-      String jql, @Nullable Set<String> fields) {
-    UriBuilder uriBuilder = UriBuilder.fromUri(this.searchUri).queryParam(JQL_ATTRIBUTE, new Object[]{jql})
-        .queryParam(EXPAND_ATTRIBUTE, new Object[]{Joiner.on(",").join(expandosValues)});
+      String jql, @Nullable Set<String> fields, @Nullable Consumer<Issue> issueConsumer, @Nullable String validateQuery) {
+    URI uri = this.buildSearchUri(maxResults, startAt, expandosValues, jql, fields, validateQuery);
+    if (streamingParser != null) {
+      return this.callAndParse(jsonRequest(httpClient.newRequest(uri)).get(),
+          streamingHandler(JiraOperation.SEARCH_GET, fields, waitsForNames(expandosValues), issueConsumer));
+    }
+    return this.getAndParse(uri, timedParser(JiraOperation.SEARCH_GET));
+  }
+
+  /**
+   * Build search GET request URI
+   */
+  URI buildSearchUri(@Nullable Integer maxResults, @Nullable Integer startAt, Iterable<String> expandosValues,
+      String jql, @Nullable Set<String> fields, @Nullable String validateQuery) {
+    UriBuilder uriBuilder = UriBuilder.fromUri(this.searchUri).queryParam(JQL_ATTRIBUTE, new Object[]{jql});
+    if (!Iterables.isEmpty(expandosValues)) {
+      uriBuilder.queryParam(EXPAND_ATTRIBUTE, new Object[]{Joiner.on(",").join(expandosValues)});
+    }
     if (fields != null) {
       uriBuilder.queryParam(FIELDS_ATTRIBUTE, new Object[]{Joiner.on(",").join(fields)});
     }
     this.addOptionalQueryParam(uriBuilder, MAX_RESULTS_ATTRIBUTE, maxResults);
     this.addOptionalQueryParam(uriBuilder, START_AT_ATTRIBUTE, startAt);
-    return this.getAndParse(uriBuilder.build(new Object[0]), this.searchResultJsonParser);
+    this.addOptionalQueryParam(uriBuilder, VALIDATE_QUERY_ATTRIBUTE, validateQuery);
+    return uriBuilder.build(new Object[0]);
   }
 
   private void addOptionalQueryParam(UriBuilder uriBuilder, String key, Object... values) {
@@ -100,17 +229,101 @@ public class JiraExpandSearchRestClient extends AsynchronousSearchRestClient imp
   }
 
   private Promise<SearchResult> searchJqlImplPost(@Nullable Integer maxResults, @Nullable Integer startAt, Iterable<String> expandosValues,
-      String jql, @Nullable Set<String> fields) {
+      String jql, @Nullable Set<String> fields, @Nullable Consumer<Issue> issueConsumer, @Nullable String validateQuery) {
+    JSONObject postEntity = this.buildSearchEntity(maxResults, startAt, expandosValues, jql, fields, validateQuery);
+    if (streamingParser != null) {
+      ResponsePromise responsePromise = jsonRequest(httpClient.newRequest(this.searchUri, JSON_CONTENT_TYPE, postEntity.toString())).post();
+      return this.callAndParse(responsePromise, streamingHandler(JiraOperation.SEARCH_POST, fields, waitsForNames(expandosValues),
+          issueConsumer));
+    }
+    return this.postAndParse(this.searchUri, postEntity, timedParser(JiraOperation.SEARCH_POST));
+  }
+
+  /**
+   * @return true if the response holds names or schema, the streaming parser then waits for them
+   */
+  private static boolean waitsForNames(Iterable<String> expandosValues) {
+    return Iterables.contains(expandosValues, Expandos.NAMES.getValue()) || Iterables.contains(expandosValues, Expandos.SCHEMA.getValue());
+  }
+
+  private ResponseHandler<SearchResult> streamingHandler(JiraOperation operation, @Nullable Set<String> fields, boolean waitForNames,
+      @Nullable Consumer<Issue> issueConsumer) {
+    return new ResponseHandler<SearchResult>() {
+      @Override
+      public SearchResult handle(Response response) throws JSONException, IOException {
+        final long start = System.nanoTime();
+        final AtomicInteger consumed = new AtomicInteger();
+        Consumer<Issue> countingConsumer = issueConsumer != null ? issue -> {
+          consumed.incrementAndGet();
+          issueConsumer.accept(issue);
+        } : null;
+        try (CountingInputStream body = new CountingInputStream(response.getEntityStream())) {
+          SearchResult result = streamingParser.parse(decode(response, body), fields, waitForNames, countingConsumer);
+          int issues = issueConsumer != null ? consumed.get() : Iterables.size(result.getIssues());
+          listener.onPageParsed(operation, issues, body.getCount(), System.nanoTime() - start);
+          return result;
+        }
+      }
+    };
+  }
+
+  private ResponseHandler<CompactPage> compactHandler(JiraOperation operation, InternPool pool) {
+    return new ResponseHandler<CompactPage>() {
+      @Override
+      public CompactPage handle(Response response) throws IOException {
+        final long start = System.nanoTime();
+        try (CountingInputStream body = new CountingInputStream(response.getEntityStream())) {
+          CompactPage page = compactParser.parse(decode(response, body), pool);
+          listener.onPageParsed(operation, page.size(), body.getCount(), System.nanoTime() - start);
+          return page;
+        }
+      }
+    };
+  }
+
+  private Request.Builder jsonRequest(Request.Builder request) {
+    request.setAccept(JSON_CONTENT_TYPE);
+    if (gzip) {
+      request.setHeader(ACCEPT_ENCODING_HEADER, GZIP_ENCODING);
+    }
+    return request;
+  }
+
+  /**
+   * Inflate gzip bodies : the transport may already have decoded the body, in which case the header is gone
+   */
+  private static InputStream decode(Response response, InputStream body) throws IOException {
+    return GZIP_ENCODING.equalsIgnoreCase(response.getHeader(CONTENT_ENCODING_HEADER)) ? new GZIPInputStream(body) : body;
+  }
+
+  private JsonObjectParser<SearchResult> timedParser(JiraOperation operation) {
+    return new JsonObjectParser<SearchResult>() {
+      @Override
+      public SearchResult parse(JSONObject json) throws JSONException {
+        final long start = System.nanoTime();
+        SearchResult result = searchResultJsonParser.parse(json);
+        // body size is not known once the response is read as a tree
+        listener.onPageParsed(operation, Iterables.size(result.getIssues()), -1, System.nanoTime() - start);
+        return result;
+      }
+    };
+  }
+
+  /**
+   * Build search POST request entity
+   */
+  JSONObject buildSearchEntity(@Nullable Integer maxResults, @Nullable Integer startAt, Iterable<String> expandosValues,
+      String jql, @Nullable Set<String> fields, @Nullable String validateQuery) {
     JSONObject postEntity = new JSONObject();
     try {
       postEntity.put(JQL_ATTRIBUTE, jql).put(EXPAND_ATTRIBUTE, ImmutableList.copyOf(expandosValues)).putOpt(START_AT_ATTRIBUTE, startAt)
-          .putOpt(MAX_RESULTS_ATTRIBUTE, maxResults);
+          .putOpt(MAX_RESULTS_ATTRIBUTE, maxResults).putOpt(VALIDATE_QUERY_ATTRIBUTE, validateQuery);
       if (fields != null) {
         postEntity.put(FIELDS_ATTRIBUTE, fields);
       }
     } catch (JSONException var8) {
       throw new RestClientException(var8);
     }
-    return this.postAndParse(this.searchUri, postEntity, this.searchResultJsonParser);
+    return postEntity;
   }
 }
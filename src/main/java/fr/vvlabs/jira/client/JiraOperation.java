@@ -0,0 +1,23 @@
+package fr.vvlabs.jira.client;
+
+/**
+ * calls made by {@link JiraExpandRestClient} to Jira
+ */
+public enum JiraOperation {
+  SEARCH_GET,
+  SEARCH_POST,
+  GET_ISSUE,
+  GET_CHANGELOG,
+  GET_PROJECT,
+  GET_ALL_PROJECTS,
+  /** calls made through executeWithRetry */
+  CUSTOM;
+
+  /**
+   * @param jql
+   * @return search operation used for this JQL : long queries are sent by POST
+   */
+  public static JiraOperation search(String jql) {
+    return JiraExpandSearchRestClient.isPostSearch(jql) ? SEARCH_POST : SEARCH_GET;
+  }
+}
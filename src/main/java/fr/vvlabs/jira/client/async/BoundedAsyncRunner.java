@@ -0,0 +1,121 @@
+package fr.vvlabs.jira.client.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * runs one async call per input with at most N calls in flight, results are kept in input order
+ * @param <T> input type
+ * @param <R> result type
+ */
+public final class BoundedAsyncRunner<T, R> {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final List<T> inputs;
+  private final Function<? super T, ? extends CompletionStage<R>> call;
+  private final AtomicReferenceArray<R> values;
+  private final AtomicInteger nextIndex = new AtomicInteger();
+  private final AtomicInteger remaining;
+  private final CompletableFuture<List<R>> result = new CompletableFuture<>();
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private BoundedAsyncRunner(final List<T> inputs, final Function<? super T, ? extends CompletionStage<R>> call) {
+    this.inputs = inputs;
+    this.call = call;
+    this.values = new AtomicReferenceArray<>(inputs.size());
+    this.remaining = new AtomicInteger(inputs.size());
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Run all calls, at most maxInFlight at a time. The first failure fails the whole result and stops dispatching.
+   * @param inputs
+   * @param maxInFlight
+   * @param call
+   * @param <T>
+   * @param <R>
+   * @return results, in inputs order
+   */
+  public static <T, R> CompletableFuture<List<R>> runAll(List<T> inputs, int maxInFlight, Function<? super T, ? extends CompletionStage<R>> call) {
+    BoundedAsyncRunner<T, R> runner = new BoundedAsyncRunner<>(new ArrayList<>(inputs), call);
+    if (inputs.isEmpty()) {
+      runner.result.complete(new ArrayList<>());
+      return runner.result;
+    }
+    int workers = Math.min(Math.max(1, maxInFlight), inputs.size());
+    for (int i = 0; i < workers; i++) {
+      runner.dispatchNext();
+    }
+    return runner.result;
+  }
+
+  private void dispatchNext() {
+    // loop instead of recursing when calls complete synchronously (e.g. cached values)
+    while (!result.isDone()) {
+      final int index = nextIndex.getAndIncrement();
+      if (index >= inputs.size()) {
+        return;
+      }
+      CompletableFuture<R> future = start(inputs.get(index));
+      if (!future.isDone()) {
+        future.whenComplete((value, error) -> {
+          if (onComplete(index, value, error)) {
+            dispatchNext();
+          }
+        });
+        return;
+      }
+      R value = null;
+      Throwable error = null;
+      try {
+        value = future.join();
+      } catch (RuntimeException e) {
+        error = e;
+      }
+      if (!onComplete(index, value, error)) {
+        return;
+      }
+    }
+  }
+
+  private CompletableFuture<R> start(T input) {
+    try {
+      return call.apply(input).toCompletableFuture();
+    } catch (RuntimeException e) {
+      CompletableFuture<R> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  private boolean onComplete(int index, R value, Throwable error) {
+    if (error != null) {
+      result.completeExceptionally(PromiseUtils.unwrap(error));
+      return false;
+    }
+    values.set(index, value);
+    if (remaining.decrementAndGet() == 0) {
+      List<R> ordered = new ArrayList<>(values.length());
+      for (int i = 0; i < values.length(); i++) {
+        ordered.add(values.get(i));
+      }
+      result.complete(ordered);
+      return false;
+    }
+    return true;
+  }
+}
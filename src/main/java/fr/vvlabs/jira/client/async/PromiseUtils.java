@@ -0,0 +1,123 @@
+package fr.vvlabs.jira.client.async;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import io.atlassian.util.concurrent.Promise;
+import io.atlassian.util.concurrent.Promises;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * bridges between atlassian {@link Promise} and {@link CompletableFuture}, without blocking
+ */
+public final class PromiseUtils {
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private PromiseUtils() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Adapt a promise to a completable future, synchronous failures of the call are reported through the future
+   * @param call
+   * @param <A>
+   * @return
+   */
+  public static <A> CompletableFuture<A> toCompletableFuture(Supplier<? extends Promise<A>> call) {
+    final CompletableFuture<A> future = new CompletableFuture<>();
+    try {
+      Promise<A> promise = call.get();
+      promise.done(future::complete).fail(future::completeExceptionally);
+      // cancelling the future cancels the underlying request
+      propagateCancellation(future, promise);
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Start an async call, synchronous failures of the call are reported through the future
+   * @param call
+   * @param <A>
+   * @return
+   */
+  public static <A> CompletableFuture<A> invoke(Supplier<? extends CompletionStage<A>> call) {
+    try {
+      return call.get().toCompletableFuture();
+    } catch (RuntimeException e) {
+      CompletableFuture<A> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  /**
+   * Cancel source when future is cancelled : a dependent stage does not cancel the stage it was derived from
+   * @param future
+   * @param source
+   * @param <A>
+   * @return future
+   */
+  public static <A> CompletableFuture<A> propagateCancellation(CompletableFuture<A> future, Future<?> source) {
+    future.whenComplete((value, error) -> {
+      if (future.isCancelled()) {
+        source.cancel(true);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Adapt a completion stage to a promise
+   * @param future
+   * @param <A>
+   * @return
+   */
+  public static <A> Promise<A> toPromise(CompletableFuture<A> future) {
+    return Promises.forCompletionStage(future);
+  }
+
+  /**
+   * Remove CompletionException / ExecutionException wrappers
+   * @param throwable
+   * @return
+   */
+  public static Throwable unwrap(Throwable throwable) {
+    Throwable current = throwable;
+    while ((current instanceof CompletionException || current instanceof ExecutionException) && current.getCause() != null) {
+      current = current.getCause();
+    }
+    return current;
+  }
+
+  /**
+   * Wait for a future, rethrowing the original failure instead of a CompletionException
+   * @param future
+   * @param <A>
+   * @return
+   */
+  public static <A> A join(CompletableFuture<A> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RestClientException(cause);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package fr.vvlabs.jira.client.async;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * virtual threads (Java 21+) looked up by reflection, the library being built for Java 8
+ */
+@Slf4j
+public final class VirtualThreads {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookup();
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private VirtualThreads() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return true if the runtime supports virtual threads
+   */
+  public static boolean isSupported() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  /**
+   * Build an executor starting one virtual thread per task, or a cached pool of daemon platform threads
+   * when the runtime does not support virtual threads
+   * @param nameFormat platform thread name format, used by the fallback pool only
+   * @return
+   */
+  public static ExecutorService newPerTaskExecutor(String nameFormat) {
+    if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+      try {
+        return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        log.warn("newPerTaskExecutor(...) virtual threads unavailable, using platform threads : {}", e.getMessage());
+      }
+    }
+    return Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat(nameFormat).build());
+  }
+
+  private static Method lookup() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
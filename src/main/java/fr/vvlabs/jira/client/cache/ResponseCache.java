@@ -0,0 +1,168 @@
+package fr.vvlabs.jira.client.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * bounded cache of parsed responses : fresh entries are served directly, stale entries are revalidated
+ * by a light call when a validator is given, identical concurrent loads and revalidations share one call
+ */
+@Slf4j
+public class ResponseCache {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final long freshNanos;
+  private final Cache<String, Entry> entries;
+  private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<Object>> revalidating = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder revalidated = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new response cache
+   * @param config
+   */
+  public ResponseCache(final ResponseCacheConfig config) {
+    this.freshNanos = config.getFresh().toNanos();
+    this.entries = CacheBuilder.newBuilder()
+        .maximumSize(config.getMaximumSize())
+        .expireAfterWrite(Math.max(config.getFresh().toMillis(), config.getMaxStale().toMillis()), TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Get response from cache, or load it
+   * @param key request identity : operation, URI or query and parameters
+   * @param loader full call
+   * @param validator light call telling whether a stale value is still valid, null to always reload stale values
+   * @param <T>
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> get(String key, Supplier<CompletableFuture<T>> loader,
+      @Nullable Function<T, CompletableFuture<Boolean>> validator) {
+    final Entry entry = entries.getIfPresent(key);
+    if (entry != null && System.nanoTime() - entry.storedAt < freshNanos) {
+      hits.increment();
+      return CompletableFuture.completedFuture((T) entry.value);
+    }
+    if (entry != null && validator != null) {
+      return singleFlight(revalidating, key, () -> revalidate(key, entry, loader, validator));
+    }
+    return load(key, loader);
+  }
+
+  /**
+   * Drop cached response
+   * @param key
+   */
+  public void invalidate(String key) {
+    entries.invalidate(key);
+  }
+
+  /**
+   * @return hit / revalidation / miss counters
+   */
+  public ResponseCacheStats getStats() {
+    return new ResponseCacheStats(hits.sum(), revalidated.sum(), misses.sum(), entries.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> CompletableFuture<T> revalidate(String key, Entry entry, Supplier<CompletableFuture<T>> loader,
+      Function<T, CompletableFuture<Boolean>> validator) {
+    return validator.apply((T) entry.value)
+        .exceptionally(error -> Boolean.FALSE)
+        .thenCompose(unchanged -> {
+          if (Boolean.TRUE.equals(unchanged)) {
+            revalidated.increment();
+            entries.put(key, new Entry(entry.value, System.nanoTime()));
+            return CompletableFuture.completedFuture((T) entry.value);
+          }
+          return load(key, loader);
+        });
+  }
+
+  private <T> CompletableFuture<T> load(String key, Supplier<CompletableFuture<T>> loader) {
+    return singleFlight(loading, key, () -> {
+      misses.increment();
+      return loader.get().thenApply(value -> {
+        if (value != null) {
+          entries.put(key, new Entry(value, System.nanoTime()));
+        }
+        return value;
+      });
+    });
+  }
+
+  /**
+   * Run call unless one is already in flight for the key, in which case its result is shared.
+   * Each caller gets its own dependent future : cancelling it does not cancel the call for the other callers.
+   * @param inFlight in flight calls by key
+   * @param key
+   * @param call
+   * @param <T>
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> CompletableFuture<T> singleFlight(Map<String, CompletableFuture<Object>> inFlight, String key,
+      Supplier<CompletableFuture<T>> call) {
+    CompletableFuture<Object> pending = inFlight.get(key);
+    if (pending != null) {
+      return (CompletableFuture<T>) pending.thenApply(Function.identity());
+    }
+    CompletableFuture<Object> created = new CompletableFuture<>();
+    pending = inFlight.putIfAbsent(key, created);
+    if (pending != null) {
+      return (CompletableFuture<T>) pending.thenApply(Function.identity());
+    }
+    CompletableFuture<T> started;
+    try {
+      started = call.get();
+    } catch (RuntimeException e) {
+      started = new CompletableFuture<>();
+      started.completeExceptionally(e);
+    }
+    started.whenComplete((value, error) -> {
+      inFlight.remove(key, created);
+      if (error != null) {
+        created.completeExceptionally(error);
+      } else {
+        created.complete(value);
+      }
+    });
+    return (CompletableFuture<T>) created.thenApply(Function.identity());
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  @AllArgsConstructor
+  private static class Entry {
+
+    private final Object value;
+    private final long storedAt;
+  }
+}
@@ -0,0 +1,25 @@
+package fr.vvlabs.jira.client.cache;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * response cache settings
+ */
+@Getter
+@Builder
+public class ResponseCacheConfig {
+
+  /** maximum number of cached responses */
+  @Builder.Default
+  private final long maximumSize = 10000;
+
+  /** responses younger than this are served without any call */
+  @Builder.Default
+  private final Duration fresh = Duration.ofSeconds(30);
+
+  /** older responses are kept this long, to be revalidated instead of fetched again */
+  @Builder.Default
+  private final Duration maxStale = Duration.ofMinutes(10);
+}
@@ -0,0 +1,26 @@
+package fr.vvlabs.jira.client.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * response cache counters
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ResponseCacheStats {
+
+  /** fresh responses served without call */
+  private final long hits;
+
+  /** stale responses confirmed unchanged by a light call */
+  private final long revalidated;
+
+  /** responses fetched (absent, expired or changed) */
+  private final long misses;
+
+  /** cached responses */
+  private final long size;
+}
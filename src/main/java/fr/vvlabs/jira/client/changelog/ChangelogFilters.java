@@ -0,0 +1,52 @@
+package fr.vvlabs.jira.client.changelog;
+
+import com.atlassian.jira.rest.client.api.domain.ChangelogGroup;
+import com.atlassian.jira.rest.client.api.domain.ChangelogItem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * restriction of changelog groups to the items of some fields
+ */
+public final class ChangelogFilters {
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private ChangelogFilters() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Keep the items of the given fields (e.g. status, assignee), groups left without items are dropped
+   * @param groups
+   * @param fields field names, case insensitive, null or empty to keep everything
+   * @return
+   */
+  public static List<ChangelogGroup> filter(List<ChangelogGroup> groups, Set<String> fields) {
+    if (fields == null || fields.isEmpty()) {
+      return groups;
+    }
+    Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    names.addAll(fields);
+    List<ChangelogGroup> filtered = new ArrayList<>(groups.size());
+    for (ChangelogGroup group : groups) {
+      List<ChangelogItem> items = new ArrayList<>();
+      for (ChangelogItem item : group.getItems()) {
+        if (item.getField() != null && names.contains(item.getField())) {
+          items.add(item);
+        }
+      }
+      if (!items.isEmpty()) {
+        filtered.add(new ChangelogGroup(group.getAuthor(), group.getCreated(), items));
+      }
+    }
+    return filtered;
+  }
+}
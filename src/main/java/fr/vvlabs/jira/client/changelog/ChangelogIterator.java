@@ -0,0 +1,73 @@
+package fr.vvlabs.jira.client.changelog;
+
+import com.atlassian.jira.rest.client.api.domain.ChangelogGroup;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * lazy iterator over an issue history : the next page is requested as soon as the current one arrives
+ */
+public class ChangelogIterator implements Iterator<ChangelogGroup> {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final PageFetcher fetcher;
+  private final Set<String> fields;
+  private Iterator<ChangelogGroup> current = Collections.emptyIterator();
+  private CompletableFuture<ChangelogPage> next;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new iterator, the first page is requested immediately
+   * @param fetcher
+   * @param fields field names to keep, null for all items
+   */
+  public ChangelogIterator(final PageFetcher fetcher, final Set<String> fields) {
+    this.fetcher = fetcher;
+    this.fields = fields;
+    this.next = fetcher.fetch(0);
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public boolean hasNext() {
+    while (!current.hasNext() && next != null) {
+      ChangelogPage page = PromiseUtils.join(next);
+      next = page.isLast() ? null : fetcher.fetch(page.getStartAt() + page.getGroups().size());
+      current = ChangelogFilters.filter(page.getGroups(), fields).iterator();
+    }
+    return current.hasNext();
+  }
+
+  @Override
+  public ChangelogGroup next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return current.next();
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  /**
+   * fetches the history page starting at startAt
+   */
+  public interface PageFetcher {
+
+    CompletableFuture<ChangelogPage> fetch(int startAt);
+  }
+}
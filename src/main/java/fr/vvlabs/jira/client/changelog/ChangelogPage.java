@@ -0,0 +1,26 @@
+package fr.vvlabs.jira.client.changelog;
+
+import com.atlassian.jira.rest.client.api.domain.ChangelogGroup;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * one page of an issue history, oldest groups first
+ */
+@Getter
+@AllArgsConstructor
+public class ChangelogPage {
+
+  private final int startAt;
+  private final int maxResults;
+  private final int total;
+  private final List<ChangelogGroup> groups;
+
+  /**
+   * @return true if no group follows this page
+   */
+  public boolean isLast() {
+    return groups.isEmpty() || startAt + groups.size() >= total;
+  }
+}
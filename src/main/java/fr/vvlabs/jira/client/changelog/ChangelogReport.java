@@ -0,0 +1,34 @@
+package fr.vvlabs.jira.client.changelog;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * outcome of a changelog extraction
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ChangelogReport {
+
+  /** issues whose history was fully read */
+  private final int issues;
+
+  /** changelog groups delivered, after field filtering */
+  private final long groups;
+
+  /** pages fetched */
+  private final long pages;
+
+  /** issues whose history could not be read */
+  private final Map<String, Throwable> failures;
+
+  /**
+   * @return true if some history could not be read
+   */
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+}
@@ -0,0 +1,91 @@
+package fr.vvlabs.jira.client.compact;
+
+/**
+ * view of one row of a {@link CompactIssueTable}, holding no data of its own
+ */
+public class CompactIssue {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final CompactIssueTable table;
+  private final int row;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  CompactIssue(final CompactIssueTable table, final int row) {
+    this.table = table;
+    this.row = row;
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  public int getRow() {
+    return row;
+  }
+
+  public long getId() {
+    return table.id(row);
+  }
+
+  public String getKey() {
+    return table.key(row);
+  }
+
+  public ProjectRef getProject() {
+    return table.project(row);
+  }
+
+  public StatusRef getStatus() {
+    return table.status(row);
+  }
+
+  public String getIssueType() {
+    return table.issueType(row);
+  }
+
+  public String getSummary() {
+    return table.summary(row);
+  }
+
+  public UserRef getAssignee() {
+    return table.assignee(row);
+  }
+
+  public UserRef getReporter() {
+    return table.reporter(row);
+  }
+
+  /**
+   * @return epoch millis, Long.MIN_VALUE if unknown
+   */
+  public long getCreated() {
+    return table.created(row);
+  }
+
+  /**
+   * @return epoch millis, Long.MIN_VALUE if unknown
+   */
+  public long getUpdated() {
+    return table.updated(row);
+  }
+
+  /**
+   * @param fieldId
+   * @return field value as text, null if absent
+   */
+  public String getFieldText(String fieldId) {
+    FieldColumn column = table.column(fieldId);
+    return column != null ? column.getText(row) : null;
+  }
+
+  @Override
+  public String toString() {
+    return "CompactIssue(" + getKey() + ")";
+  }
+}
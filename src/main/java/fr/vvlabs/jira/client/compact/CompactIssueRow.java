@@ -0,0 +1,23 @@
+package fr.vvlabs.jira.client.compact;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * one parsed issue, staged until its page is appended to a {@link CompactIssueTable}
+ */
+class CompactIssueRow {
+
+  long id = -1L;
+  String key;
+  ProjectRef project;
+  StatusRef status;
+  String issueType;
+  String summary;
+  UserRef assignee;
+  UserRef reporter;
+  long created = Long.MIN_VALUE;
+  long updated = Long.MIN_VALUE;
+  /** other fields by interned id : Double for JSON numbers, String for text, typed by the page schema once appended */
+  final Map<String, Object> fields = new LinkedHashMap<>();
+}
@@ -0,0 +1,205 @@
+package fr.vvlabs.jira.client.compact;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * columnar store of compact issues : one array per attribute, one {@link FieldColumn} per custom field,
+ * typed from the field schema, projects, statuses, users and field ids interned in a shared {@link InternPool}.
+ * Appends are serialized, reads are meant to happen once loading is done.
+ */
+public class CompactIssueTable {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Getter
+  private final InternPool pool;
+  private final Map<String, FieldColumn> columns = new LinkedHashMap<>();
+  private final Map<String, FieldKind> fieldKinds;
+  private int size;
+  private int capacity = INITIAL_CAPACITY;
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private String[] keys = new String[INITIAL_CAPACITY];
+  private ProjectRef[] projects = new ProjectRef[INITIAL_CAPACITY];
+  private StatusRef[] statuses = new StatusRef[INITIAL_CAPACITY];
+  private String[] issueTypes = new String[INITIAL_CAPACITY];
+  private String[] summaries = new String[INITIAL_CAPACITY];
+  private UserRef[] assignees = new UserRef[INITIAL_CAPACITY];
+  private UserRef[] reporters = new UserRef[INITIAL_CAPACITY];
+  private long[] created = new long[INITIAL_CAPACITY];
+  private long[] updated = new long[INITIAL_CAPACITY];
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new empty table
+   */
+  public CompactIssueTable() {
+    this(new InternPool());
+  }
+
+  /**
+   * Build a new empty table, sharing interned values with other tables
+   * @param pool
+   */
+  public CompactIssueTable(final InternPool pool) {
+    this(pool, new HashMap<>());
+  }
+
+  /**
+   * Build a new empty table, sharing interned values and field kinds with other tables :
+   * a field keeps the kind it first got in any of them
+   * @param pool
+   * @param fieldKinds kinds by field id, thread safe if tables are appended concurrently
+   */
+  public CompactIssueTable(final InternPool pool, final Map<String, FieldKind> fieldKinds) {
+    this.pool = pool;
+    this.fieldKinds = fieldKinds;
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return number of issues
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * @param row
+   * @return view of the issue at row
+   */
+  public CompactIssue get(int row) {
+    if (row < 0 || row >= size()) {
+      throw new IndexOutOfBoundsException("row " + row + ", size " + size());
+    }
+    return new CompactIssue(this, row);
+  }
+
+  /**
+   * @param fieldId
+   * @return values of a field for every row, null if no issue has the field
+   */
+  public synchronized FieldColumn column(String fieldId) {
+    return columns.get(fieldId);
+  }
+
+  /**
+   * @return ids of fields stored as columns
+   */
+  public synchronized Set<String> fieldIds() {
+    return Collections.unmodifiableSet(columns.keySet());
+  }
+
+  /**
+   * Append the issues of a parsed page
+   * @param page
+   */
+  public synchronized void append(CompactPage page) {
+    for (CompactIssueRow row : page.getRows()) {
+      append(row, page.getFieldKinds());
+    }
+  }
+
+  long id(int row) {
+    return ids[row];
+  }
+
+  String key(int row) {
+    return keys[row];
+  }
+
+  ProjectRef project(int row) {
+    return projects[row];
+  }
+
+  StatusRef status(int row) {
+    return statuses[row];
+  }
+
+  String issueType(int row) {
+    return issueTypes[row];
+  }
+
+  String summary(int row) {
+    return summaries[row];
+  }
+
+  UserRef assignee(int row) {
+    return assignees[row];
+  }
+
+  UserRef reporter(int row) {
+    return reporters[row];
+  }
+
+  long created(int row) {
+    return created[row];
+  }
+
+  long updated(int row) {
+    return updated[row];
+  }
+
+  private void append(CompactIssueRow row, Map<String, FieldKind> schemaKinds) {
+    if (size == capacity) {
+      grow();
+    }
+    int index = size++;
+    ids[index] = row.id;
+    keys[index] = row.key;
+    projects[index] = row.project;
+    statuses[index] = row.status;
+    issueTypes[index] = row.issueType;
+    summaries[index] = row.summary;
+    assignees[index] = row.assignee;
+    reporters[index] = row.reporter;
+    created[index] = row.created;
+    updated[index] = row.updated;
+    for (Map.Entry<String, Object> field : row.fields.entrySet()) {
+      columns.computeIfAbsent(field.getKey(), fieldId ->
+          new FieldColumn(fieldId, fieldKinds.computeIfAbsent(fieldId, id -> kindOf(id, field.getValue(), schemaKinds)), capacity))
+          .set(index, field.getValue(), capacity);
+    }
+  }
+
+  /**
+   * Kind of a new column : from the schema, else from its first value
+   */
+  private static FieldKind kindOf(String fieldId, Object value, Map<String, FieldKind> schemaKinds) {
+    FieldKind kind = schemaKinds.get(fieldId);
+    return kind != null ? kind : FieldColumn.kindOf(value);
+  }
+
+  private void grow() {
+    capacity = capacity * 2;
+    ids = Arrays.copyOf(ids, capacity);
+    keys = Arrays.copyOf(keys, capacity);
+    projects = Arrays.copyOf(projects, capacity);
+    statuses = Arrays.copyOf(statuses, capacity);
+    issueTypes = Arrays.copyOf(issueTypes, capacity);
+    summaries = Arrays.copyOf(summaries, capacity);
+    assignees = Arrays.copyOf(assignees, capacity);
+    reporters = Arrays.copyOf(reporters, capacity);
+    created = Arrays.copyOf(created, capacity);
+    updated = Arrays.copyOf(updated, capacity);
+  }
+}
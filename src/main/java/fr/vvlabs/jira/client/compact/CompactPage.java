@@ -0,0 +1,31 @@
+package fr.vvlabs.jira.client.compact;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * one parsed search page, to be appended to a {@link CompactIssueTable}
+ */
+@Getter
+@AllArgsConstructor
+public class CompactPage {
+
+  private final int startAt;
+  private final int maxResults;
+  private final int total;
+  @Getter(AccessLevel.PACKAGE)
+  private final List<CompactIssueRow> rows;
+  /** kinds of the fields in the response schema, by field id */
+  @Getter(AccessLevel.PACKAGE)
+  private final Map<String, FieldKind> fieldKinds;
+
+  /**
+   * @return number of issues in the page
+   */
+  public int size() {
+    return rows.size();
+  }
+}
@@ -0,0 +1,262 @@
+package fr.vvlabs.jira.client.compact;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * token based search response parser producing compact issue rows directly, without JRJC issues nor JSON trees :
+ * known system fields go to typed attributes, other fields are staged as numbers or interned text.
+ * Field kinds come from the response schema, after the issues : only values of date fields are parsed as dates.
+ */
+public class CompactSearchResultParser {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final Pattern DATE_TIME = Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}[+-]\\d{4}");
+  private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+  private static final DateTimeFormatter JIRA_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+  // longer text is rarely repeated, not worth interning
+  private static final int MAX_INTERNED_LENGTH = 64;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Parse a search response body
+   * @param body
+   * @param pool canonical instances shared with the target table
+   * @return parsed page
+   * @throws IOException
+   */
+  public CompactPage parse(InputStream body, InternPool pool) throws IOException {
+    List<CompactIssueRow> rows = new ArrayList<>();
+    int startAt = 0;
+    int maxResults = 0;
+    int total = 0;
+    Map<String, FieldKind> fieldKinds = new HashMap<>();
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("search response is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        switch (name) {
+          case "startAt":
+            startAt = parser.getIntValue();
+            break;
+          case "maxResults":
+            maxResults = parser.getIntValue();
+            break;
+          case "total":
+            total = parser.getIntValue();
+            break;
+          case "issues":
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              rows.add(readIssue(parser, pool));
+            }
+            break;
+          case "schema":
+            readSchema(parser, pool, fieldKinds);
+            break;
+          default:
+            parser.skipChildren();
+        }
+      }
+    }
+    return new CompactPage(startAt, maxResults, total, rows, fieldKinds);
+  }
+
+  /**
+   * Field kinds from the schema types : number, date and datetime, anything else is text
+   */
+  private static void readSchema(JsonParser parser, InternPool pool, Map<String, FieldKind> fieldKinds) throws IOException {
+    if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldId = parser.getCurrentName();
+      parser.nextToken();
+      String type = readMembers(parser).get("type");
+      if ("number".equals(type)) {
+        fieldKinds.put(pool.intern(fieldId), FieldKind.NUMBER);
+      } else if ("date".equals(type) || "datetime".equals(type)) {
+        fieldKinds.put(pool.intern(fieldId), FieldKind.DATE);
+      } else {
+        fieldKinds.put(pool.intern(fieldId), FieldKind.TEXT);
+      }
+    }
+  }
+
+  private CompactIssueRow readIssue(JsonParser parser, InternPool pool) throws IOException {
+    CompactIssueRow row = new CompactIssueRow();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if ("id".equals(name) && token.isScalarValue()) {
+        row.id = Long.parseLong(parser.getText());
+      } else if ("key".equals(name)) {
+        row.key = parser.getText();
+      } else if ("fields".equals(name) && token == JsonToken.START_OBJECT) {
+        readFields(parser, pool, row);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return row;
+  }
+
+  private void readFields(JsonParser parser, InternPool pool, CompactIssueRow row) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      if (parser.nextToken() == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      switch (name) {
+        case "project":
+          Map<String, String> project = readMembers(parser);
+          row.project = pool.intern(new ProjectRef(toLong(project.get("id")), project.get("key"), project.get("name")));
+          break;
+        case "status":
+          Map<String, String> status = readMembers(parser);
+          row.status = pool.intern(new StatusRef(toLong(status.get("id")), status.get("name")));
+          break;
+        case "issuetype":
+          row.issueType = pool.intern(readMembers(parser).get("name"));
+          break;
+        case "summary":
+          row.summary = parser.getText();
+          break;
+        case "assignee":
+          row.assignee = readUser(parser, pool);
+          break;
+        case "reporter":
+          row.reporter = readUser(parser, pool);
+          break;
+        case "created":
+          row.created = toMillis(parser.getText(), Long.MIN_VALUE);
+          break;
+        case "updated":
+          row.updated = toMillis(parser.getText(), Long.MIN_VALUE);
+          break;
+        default:
+          Object value = readValue(parser, pool);
+          if (value != null) {
+            row.fields.put(pool.intern(name), value);
+          }
+      }
+    }
+  }
+
+  /**
+   * Current value : Double for numbers, String otherwise, null for empty values
+   */
+  private Object readValue(JsonParser parser, InternPool pool) throws IOException {
+    switch (parser.getCurrentToken()) {
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_STRING:
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        return intern(pool, parser.getText());
+      case START_OBJECT:
+        return intern(pool, optionText(readMembers(parser)));
+      case START_ARRAY:
+        StringBuilder joined = new StringBuilder();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          Object item = readValue(parser, pool);
+          if (item != null) {
+            joined.append(joined.length() > 0 ? "," : "").append(item);
+          }
+        }
+        return joined.length() > 0 ? intern(pool, joined.toString()) : null;
+      default:
+        parser.skipChildren();
+        return null;
+    }
+  }
+
+  /**
+   * Scalar members of the current object, nested values are skipped
+   */
+  private static Map<String, String> readMembers(JsonParser parser) throws IOException {
+    Map<String, String> members = new HashMap<>();
+    if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return members;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+        members.put(name, parser.getText());
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return members;
+  }
+
+  private static UserRef readUser(JsonParser parser, InternPool pool) throws IOException {
+    Map<String, String> user = readMembers(parser);
+    String name = user.containsKey("name") ? user.get("name") : user.get("accountId");
+    return pool.intern(new UserRef(name, user.get("displayName")));
+  }
+
+  private static String optionText(Map<String, String> members) {
+    for (String name : new String[] {"value", "name", "key", "displayName"}) {
+      if (members.containsKey(name)) {
+        return members.get(name);
+      }
+    }
+    return null;
+  }
+
+  private static String intern(InternPool pool, String text) {
+    return text != null && text.length() <= MAX_INTERNED_LENGTH ? pool.intern(text) : text;
+  }
+
+  private static Long toLong(String text) {
+    try {
+      return text != null ? Long.valueOf(text) : null;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Jira date time (2020-01-31T10:15:30.000+0100) or date (2020-01-31, UTC) to epoch millis
+   */
+  static long toMillis(String text, long defaultValue) {
+    try {
+      if (DATE_TIME.matcher(text).matches()) {
+        return OffsetDateTime.parse(text, JIRA_DATE_TIME).toInstant().toEpochMilli();
+      }
+      if (DATE.matcher(text).matches()) {
+        return LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+      }
+    } catch (DateTimeParseException e) {
+      return defaultValue;
+    }
+    return defaultValue;
+  }
+}
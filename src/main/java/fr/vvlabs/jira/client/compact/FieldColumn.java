@@ -0,0 +1,219 @@
+package fr.vvlabs.jira.client.compact;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import lombok.Getter;
+
+/**
+ * values of one field for every row of a {@link CompactIssueTable}, in primitive arrays for numbers and dates.
+ * The kind is set once, from the field schema : a value not matching it keeps its raw text, see {@link #isMismatch(int)}.
+ */
+public class FieldColumn {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Getter
+  private final String fieldId;
+  @Getter
+  private final FieldKind kind;
+  private final BitSet present = new BitSet();
+  private double[] numbers;
+  private long[] dates;
+  private String[] texts;
+  /** raw text of values not matching the kind, by row, rarely used */
+  private Map<Integer, String> mismatches;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  FieldColumn(final String fieldId, final FieldKind kind, final int capacity) {
+    this.fieldId = fieldId;
+    this.kind = kind;
+    allocate(capacity);
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @param row
+   * @return true if the issue has a value for this field
+   */
+  public boolean isPresent(int row) {
+    return present.get(row);
+  }
+
+  /**
+   * @param row
+   * @return true if the value does not match the column kind (e.g. text in a number field), it is then only available as text
+   */
+  public boolean isMismatch(int row) {
+    return mismatches != null && mismatches.containsKey(row);
+  }
+
+  /**
+   * @param row
+   * @return number value, NaN if absent or mismatched
+   * @throws IllegalStateException if the column does not hold numbers
+   */
+  public double getNumber(int row) {
+    checkKind(FieldKind.NUMBER);
+    return present.get(row) && !isMismatch(row) ? numbers[row] : Double.NaN;
+  }
+
+  /**
+   * @param row
+   * @return date value in epoch millis, Long.MIN_VALUE if absent or mismatched
+   * @throws IllegalStateException if the column does not hold dates
+   */
+  public long getDate(int row) {
+    checkKind(FieldKind.DATE);
+    return present.get(row) && !isMismatch(row) ? dates[row] : Long.MIN_VALUE;
+  }
+
+  /**
+   * @param row
+   * @return value as text, whatever the column kind (dates as ISO-8601 instants), null if absent
+   */
+  public String getText(int row) {
+    if (!present.get(row)) {
+      return null;
+    }
+    if (isMismatch(row)) {
+      return mismatches.get(row);
+    }
+    switch (kind) {
+      case NUMBER:
+        return formatNumber(numbers[row]);
+      case DATE:
+        return Instant.ofEpochMilli(dates[row]).toString();
+      default:
+        return texts[row];
+    }
+  }
+
+  /**
+   * @return present number values, in row order, without mismatched values
+   */
+  public DoubleStream numbers() {
+    checkKind(FieldKind.NUMBER);
+    return present.stream().filter(row -> !isMismatch(row)).mapToDouble(row -> numbers[row]);
+  }
+
+  /**
+   * @return present date values in epoch millis, in row order, without mismatched values
+   */
+  public LongStream dates() {
+    checkKind(FieldKind.DATE);
+    return present.stream().filter(row -> !isMismatch(row)).mapToLong(row -> dates[row]);
+  }
+
+  /**
+   * @return present values as text, in row order
+   */
+  public Stream<String> texts() {
+    return present.stream().mapToObj(this::getText);
+  }
+
+  /**
+   * @return number of rows having a value
+   */
+  public int count() {
+    return present.cardinality();
+  }
+
+  /**
+   * Store a staged value : Double for JSON numbers, String for text. Dates are parsed from the text of date columns only
+   */
+  void set(int row, Object value, int capacity) {
+    ensureCapacity(capacity);
+    switch (kind) {
+      case NUMBER:
+        if (value instanceof Double) {
+          numbers[row] = (Double) value;
+        } else {
+          mismatch(row, value);
+        }
+        break;
+      case DATE:
+        long millis = value instanceof String ? CompactSearchResultParser.toMillis((String) value, Long.MIN_VALUE) : Long.MIN_VALUE;
+        if (millis != Long.MIN_VALUE) {
+          dates[row] = millis;
+        } else {
+          mismatch(row, value);
+        }
+        break;
+      default:
+        texts[row] = value instanceof Double ? formatNumber((Double) value) : (String) value;
+    }
+    present.set(row);
+  }
+
+  /**
+   * @param value staged value
+   * @return kind of a field without schema : numbers for JSON numbers, text otherwise
+   */
+  static FieldKind kindOf(Object value) {
+    return value instanceof Double ? FieldKind.NUMBER : FieldKind.TEXT;
+  }
+
+  private void mismatch(int row, Object value) {
+    if (mismatches == null) {
+      mismatches = new HashMap<>();
+    }
+    mismatches.put(row, value instanceof Double ? formatNumber((Double) value) : (String) value);
+  }
+
+  private void ensureCapacity(int capacity) {
+    switch (kind) {
+      case NUMBER:
+        if (numbers.length < capacity) {
+          numbers = Arrays.copyOf(numbers, capacity);
+        }
+        break;
+      case DATE:
+        if (dates.length < capacity) {
+          dates = Arrays.copyOf(dates, capacity);
+        }
+        break;
+      default:
+        if (texts.length < capacity) {
+          texts = Arrays.copyOf(texts, capacity);
+        }
+    }
+  }
+
+  private void allocate(int capacity) {
+    switch (kind) {
+      case NUMBER:
+        numbers = new double[capacity];
+        break;
+      case DATE:
+        dates = new long[capacity];
+        break;
+      default:
+        texts = new String[capacity];
+    }
+  }
+
+  private void checkKind(FieldKind expected) {
+    if (kind != expected) {
+      throw new IllegalStateException("field " + fieldId + " holds " + kind + " values, not " + expected);
+    }
+  }
+
+  private static String formatNumber(double number) {
+    return number == Math.rint(number) && !Double.isInfinite(number) && Math.abs(number) < 1e15
+        ? Long.toString((long) number) : Double.toString(number);
+  }
+}
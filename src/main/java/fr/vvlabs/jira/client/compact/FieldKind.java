@@ -0,0 +1,16 @@
+package fr.vvlabs.jira.client.compact;
+
+/**
+ * storage of a {@link FieldColumn}
+ */
+public enum FieldKind {
+
+  /** numbers, as primitive doubles */
+  NUMBER,
+
+  /** dates and date times, as primitive epoch millis */
+  DATE,
+
+  /** anything else, as interned text : option values, names, joined arrays */
+  TEXT
+}
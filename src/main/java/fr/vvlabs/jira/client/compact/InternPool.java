@@ -0,0 +1,41 @@
+package fr.vvlabs.jira.client.compact;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * canonical instances of repeated values : field ids, statuses, projects, users, option values
+ */
+public class InternPool {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final ConcurrentMap<Object, Object> values = new ConcurrentHashMap<>();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @param value
+   * @param <T>
+   * @return the canonical instance equal to value, null if value is null
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T intern(T value) {
+    if (value == null) {
+      return null;
+    }
+    Object canonical = values.putIfAbsent(value, value);
+    return canonical != null ? (T) canonical : value;
+  }
+
+  /**
+   * @return number of canonical instances
+   */
+  public int size() {
+    return values.size();
+  }
+}
@@ -0,0 +1,20 @@
+package fr.vvlabs.jira.client.compact;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * project of a compact issue, shared by every issue of the project
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class ProjectRef {
+
+  private final Long id;
+  private final String key;
+  private final String name;
+}
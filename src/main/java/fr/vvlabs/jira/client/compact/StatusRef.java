@@ -0,0 +1,19 @@
+package fr.vvlabs.jira.client.compact;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * status of a compact issue, shared by every issue in the status
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class StatusRef {
+
+  private final Long id;
+  private final String name;
+}
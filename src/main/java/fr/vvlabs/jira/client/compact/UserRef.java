@@ -0,0 +1,20 @@
+package fr.vvlabs.jira.client.compact;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * assignee or reporter of a compact issue, shared by every issue of the user
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class UserRef {
+
+  /** user name (server) or account id (cloud) */
+  private final String name;
+  private final String displayName;
+}
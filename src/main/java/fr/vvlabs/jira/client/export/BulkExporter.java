@@ -0,0 +1,230 @@
+package fr.vvlabs.jira.client.export;
+
+import fr.vvlabs.jira.client.JiraExpandRestClient;
+import fr.vvlabs.jira.client.async.BoundedAsyncRunner;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.compact.CompactIssueTable;
+import fr.vvlabs.jira.client.compact.CompactPage;
+import fr.vvlabs.jira.client.compact.FieldKind;
+import fr.vvlabs.jira.client.compact.InternPool;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * exports every issue of a query to gzip NDJSON and columnar files.
+ * Pages are fetched concurrently and parsed into compact rows, encoded off the writer lock, then appended
+ * through file channels in completion order. Field columns are typed once for the whole export, from the field schema,
+ * so a field has the same kind in every page. Each written page is recorded in a checkpoint file, a new run
+ * of the same export truncates the files to the last recorded page and only fetches missing pages.
+ * Pages are addressed by position : the query is ordered by creation date so that new issues do not shift them.
+ * A completed export is not written again, delete its checkpoint file to start over.
+ */
+@Slf4j
+public class BulkExporter {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String NDJSON_EXTENSION = ".ndjson.gz";
+  private static final String COLUMNAR_EXTENSION = ".jcol";
+  private static final String CHECKPOINT_EXTENSION = ".checkpoint";
+  private static final String STABLE_ORDER = " ORDER BY created ASC, key ASC";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final JiraExpandRestClient client;
+  private final ExportConfig config;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new exporter
+   * @param client
+   * @param config
+   */
+  public BulkExporter(final JiraExpandRestClient client, final ExportConfig config) {
+    this.client = client;
+    this.config = config;
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Export the issues of the query, resuming a previous interrupted run of the same export
+   * @param customJQL query, without ORDER BY
+   * @param projects projects filter, null for all
+   * @return throughput summary
+   * @throws IOException
+   */
+  public ExportReport export(String customJQL, Set<String> projects) throws IOException {
+    final long start = System.currentTimeMillis();
+    final String jql = JiraExpandRestClient.buildJqlBetween(customJQL, projects, null, null) + STABLE_ORDER;
+    Files.createDirectories(config.getDirectory());
+    try (ExportCheckpoint checkpoint = new ExportCheckpoint(file(CHECKPOINT_EXTENSION), jql + " | " + config.getPageSize());
+        PageWriter writer = new PageWriter(checkpoint)) {
+      final int resumedPages = checkpoint.getCompletedPages().size();
+      if (resumedPages > 0) {
+        log.info("export(...) resuming {} : {} pages already written", config.getName(), resumedPages);
+      }
+      final InternPool pool = new InternPool();
+      final Map<String, FieldKind> fieldKinds = new ConcurrentHashMap<>();
+      final AtomicInteger pages = new AtomicInteger();
+      final LongAdder issues = new LongAdder();
+
+      CompactPage firstPage = PromiseUtils.join(client.searchCompactAsync(jql, config.getPageSize(), 0, config.getFields(), pool));
+      // Jira may cap maxResults below the requested page size
+      final int pageSize = firstPage.getMaxResults() > 0 ? firstPage.getMaxResults() : config.getPageSize();
+      if (!checkpoint.getCompletedPages().contains(0)) {
+        issues.add(writer.write(0, firstPage, pool, fieldKinds));
+        pages.incrementAndGet();
+      }
+      List<Integer> startAts = new ArrayList<>();
+      for (int startAt = pageSize; startAt < firstPage.getTotal(); startAt += pageSize) {
+        if (!checkpoint.getCompletedPages().contains(startAt)) {
+          startAts.add(startAt);
+        }
+      }
+      final Set<CompletableFuture<Integer>> pagesInFlight = ConcurrentHashMap.newKeySet();
+      try {
+        PromiseUtils.join(BoundedAsyncRunner.runAll(startAts, config.getMaxInFlight(), (Integer startAt) -> {
+          CompletableFuture<CompactPage> fetch = client.searchCompactAsync(jql, pageSize, startAt, config.getFields(), pool);
+          CompletableFuture<Integer> written = PromiseUtils.propagateCancellation(fetch.thenApply(page -> {
+            issues.add(writer.write(startAt, page, pool, fieldKinds));
+            return pages.incrementAndGet();
+          }), fetch);
+          pagesInFlight.add(written);
+          written.whenComplete((count, error) -> pagesInFlight.remove(written));
+          return written;
+        }));
+      } catch (RuntimeException e) {
+        // the failure does not stop the other pages : cancel their fetches before the files are closed
+        log.warn("export(...) {} failed, cancelling {} pages in flight", config.getName(), pagesInFlight.size());
+        pagesInFlight.forEach(page -> page.cancel(true));
+        throw e;
+      }
+
+      ExportReport report = new ExportReport(firstPage.getTotal(), pages.get(), resumedPages, issues.sum(), writer.getBytesWritten(),
+          System.currentTimeMillis() - start);
+      log.info("export(...) {} done : {}", config.getName(), report);
+      return report;
+    }
+  }
+
+  private Path file(String extension) {
+    return config.getDirectory().resolve(config.getName() + extension);
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  /**
+   * appends encoded pages to the export files, then records them in the checkpoint
+   */
+  private class PageWriter implements AutoCloseable {
+
+    private final ExportCheckpoint checkpoint;
+    private final FileChannel ndjson;
+    private final FileChannel columnar;
+    private final LongAdder bytesWritten = new LongAdder();
+    private boolean closed;
+
+    PageWriter(final ExportCheckpoint checkpoint) throws IOException {
+      this.checkpoint = checkpoint;
+      this.ndjson = config.isNdjson() ? open(file(NDJSON_EXTENSION), checkpoint.getNdjsonEnd()) : null;
+      this.columnar = config.isColumnar() ? open(file(COLUMNAR_EXTENSION), checkpoint.getColumnarEnd()) : null;
+    }
+
+    /**
+     * @return number of issues written
+     * @throws CancellationException if the writer is closed, the page is left to the next run
+     */
+    int write(int startAt, CompactPage page, InternPool pool, Map<String, FieldKind> fieldKinds) {
+      CompactIssueTable table = new CompactIssueTable(pool, fieldKinds);
+      table.append(page);
+      try {
+        // encoding and compression run on the calling thread, only appends are serialized
+        byte[] ndjsonBytes = ndjson != null ? NdjsonPageEncoder.encode(table) : null;
+        byte[] columnarBytes = columnar != null ? ColumnarPageEncoder.encode(table) : null;
+        synchronized (this) {
+          if (closed) {
+            throw new CancellationException("export closed, page at " + startAt + " not written");
+          }
+          long ndjsonEnd = append(ndjson, ndjsonBytes);
+          long columnarEnd = append(columnar, columnarBytes);
+          checkpoint.record(startAt, ndjsonEnd, columnarEnd);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("could not write page at " + startAt, e);
+      }
+      return page.size();
+    }
+
+    long getBytesWritten() {
+      return bytesWritten.sum();
+    }
+
+    /**
+     * Close the files once the append in progress, if any, is done
+     */
+    @Override
+    public synchronized void close() throws IOException {
+      closed = true;
+      if (ndjson != null) {
+        ndjson.close();
+      }
+      if (columnar != null) {
+        columnar.close();
+      }
+    }
+
+    private long append(FileChannel channel, byte[] bytes) throws IOException {
+      if (channel == null) {
+        return 0L;
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      // data must be durable before the checkpoint refers to it
+      channel.force(false);
+      bytesWritten.add(bytes.length);
+      return channel.position();
+    }
+
+    /**
+     * Open an export file, dropping anything written after the last checkpointed page
+     */
+    private FileChannel open(Path file, long validLength) throws IOException {
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      if (channel.size() > validLength) {
+        log.info("open(...) truncating {} from {} to {} bytes", file, channel.size(), validLength);
+        channel.truncate(validLength);
+      }
+      channel.position(validLength);
+      return channel;
+    }
+  }
+}
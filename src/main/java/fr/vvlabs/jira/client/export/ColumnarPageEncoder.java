@@ -0,0 +1,152 @@
+package fr.vvlabs.jira.client.export;
+
+import fr.vvlabs.jira.client.compact.CompactIssue;
+import fr.vvlabs.jira.client.compact.CompactIssueTable;
+import fr.vvlabs.jira.client.compact.FieldColumn;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * one page of issues as a self-describing columnar row group, row groups being appended to a single file.
+ * <pre>
+ * row group : magic "JCOL" (int), version (byte), rows (int), columns (short), column*
+ * column    : name (string), kind (byte), presence bitmap (ceil(rows / 8) bytes, bit r set if row r has a value), values
+ * values    : NUMBER (0) a double per present row, DATE (1) epoch millis long per present row, LONG (3) a long per present row,
+ *             TEXT (2) dictionary size (int), dictionary strings, then a dictionary index (int) per present row
+ * string    : UTF-8 length (int) then UTF-8 bytes
+ * </pre>
+ * Big endian, as written by {@link DataOutputStream}. Values not matching the kind of their field column
+ * ({@link FieldColumn#isMismatch(int)}) are absent here, the NDJSON export keeps their text.
+ */
+final class ColumnarPageEncoder {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  static final int MAGIC = 0x4A434F4C;
+  static final byte VERSION = 1;
+  static final byte NUMBER = 0;
+  static final byte DATE = 1;
+  static final byte TEXT = 2;
+  static final byte LONG = 3;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private ColumnarPageEncoder() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  static byte[] encode(CompactIssueTable page) throws IOException {
+    final int rows = page.size();
+    final CompactIssue[] issues = new CompactIssue[rows];
+    for (int row = 0; row < rows; row++) {
+      issues[row] = page.get(row);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows * 256 + 64);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(rows);
+      out.writeShort(10 + page.fieldIds().size());
+      writeLongs(out, "id", LONG, rows, row -> true, row -> issues[row].getId());
+      writeTexts(out, "key", rows, row -> issues[row].getKey());
+      writeTexts(out, "project", rows, row -> issues[row].getProject() != null ? issues[row].getProject().getKey() : null);
+      writeTexts(out, "status", rows, row -> issues[row].getStatus() != null ? issues[row].getStatus().getName() : null);
+      writeTexts(out, "issuetype", rows, row -> issues[row].getIssueType());
+      writeTexts(out, "summary", rows, row -> issues[row].getSummary());
+      writeTexts(out, "assignee", rows, row -> issues[row].getAssignee() != null ? issues[row].getAssignee().getName() : null);
+      writeTexts(out, "reporter", rows, row -> issues[row].getReporter() != null ? issues[row].getReporter().getName() : null);
+      writeLongs(out, "created", DATE, rows, row -> issues[row].getCreated() != Long.MIN_VALUE, row -> issues[row].getCreated());
+      writeLongs(out, "updated", DATE, rows, row -> issues[row].getUpdated() != Long.MIN_VALUE, row -> issues[row].getUpdated());
+      for (String fieldId : page.fieldIds()) {
+        FieldColumn column = page.column(fieldId);
+        switch (column.getKind()) {
+          case NUMBER:
+            writeDoubles(out, fieldId, rows, row -> column.isPresent(row) && !column.isMismatch(row), column::getNumber);
+            break;
+          case DATE:
+            writeLongs(out, fieldId, DATE, rows, row -> column.isPresent(row) && !column.isMismatch(row), column::getDate);
+            break;
+          default:
+            writeTexts(out, fieldId, rows, column::getText);
+        }
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeLongs(DataOutputStream out, String name, byte kind, int rows, IntPredicate present, IntToLongFunction values)
+      throws IOException {
+    writeHeader(out, name, kind, rows, present);
+    for (int row = 0; row < rows; row++) {
+      if (present.test(row)) {
+        out.writeLong(values.applyAsLong(row));
+      }
+    }
+  }
+
+  private static void writeDoubles(DataOutputStream out, String name, int rows, IntPredicate present, IntToDoubleFunction values)
+      throws IOException {
+    writeHeader(out, name, NUMBER, rows, present);
+    for (int row = 0; row < rows; row++) {
+      if (present.test(row)) {
+        out.writeDouble(values.applyAsDouble(row));
+      }
+    }
+  }
+
+  private static void writeTexts(DataOutputStream out, String name, int rows, IntFunction<String> values) throws IOException {
+    String[] texts = new String[rows];
+    for (int row = 0; row < rows; row++) {
+      texts[row] = values.apply(row);
+    }
+    writeHeader(out, name, TEXT, rows, row -> texts[row] != null);
+    Map<String, Integer> dictionary = new LinkedHashMap<>();
+    for (String text : texts) {
+      if (text != null) {
+        dictionary.putIfAbsent(text, dictionary.size());
+      }
+    }
+    out.writeInt(dictionary.size());
+    for (String text : dictionary.keySet()) {
+      writeString(out, text);
+    }
+    for (String text : texts) {
+      if (text != null) {
+        out.writeInt(dictionary.get(text));
+      }
+    }
+  }
+
+  private static void writeHeader(DataOutputStream out, String name, byte kind, int rows, IntPredicate present) throws IOException {
+    writeString(out, name);
+    out.writeByte(kind);
+    byte[] bitmap = new byte[(rows + 7) / 8];
+    for (int row = 0; row < rows; row++) {
+      if (present.test(row)) {
+        bitmap[row >> 3] |= (byte) (1 << (row & 7));
+      }
+    }
+    out.write(bitmap);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+}
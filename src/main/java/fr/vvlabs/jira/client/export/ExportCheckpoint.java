@@ -0,0 +1,107 @@
+package fr.vvlabs.jira.client.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * append-only log of written pages : "page startAt ndjsonEnd columnarEnd", after a "query ..." header line.
+ * A line is appended and synced once both files hold the page, so the last line gives the valid length of the files.
+ */
+final class ExportCheckpoint implements Closeable {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String QUERY_LINE = "query ";
+  private static final String PAGE_LINE = "page ";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final FileChannel channel;
+  @Getter
+  private final Set<Integer> completedPages = new HashSet<>();
+  @Getter
+  private long ndjsonEnd;
+  @Getter
+  private long columnarEnd;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Open a checkpoint, resuming a previous run of the same query
+   * @param file
+   * @param query query and page size, a checkpoint of another query is rejected
+   * @throws IOException
+   */
+  ExportCheckpoint(final Path file, final String query) throws IOException {
+    String header = QUERY_LINE + query.replace('\n', ' ');
+    if (Files.exists(file)) {
+      List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+      String firstLine = lines.stream().filter(StringUtils::isNotBlank).findFirst().orElse(header);
+      if (!firstLine.equals(header)) {
+        throw new IllegalStateException("checkpoint " + file + " belongs to another export : " + firstLine);
+      }
+      for (String line : lines) {
+        String[] values = StringUtils.split(line, ' ');
+        // an interrupted append leaves an incomplete last line
+        if (line.startsWith(PAGE_LINE) && values.length == 4) {
+          completedPages.add(Integer.valueOf(values[1]));
+          ndjsonEnd = Long.parseLong(values[2]);
+          columnarEnd = Long.parseLong(values[3]);
+        }
+      }
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    if (channel.size() == 0) {
+      append(header);
+    }
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Record a page as written, the files being valid up to the given lengths
+   */
+  void record(int startAt, long ndjsonEnd, long columnarEnd) throws IOException {
+    append(PAGE_LINE + startAt + " " + ndjsonEnd + " " + columnarEnd);
+    completedPages.add(startAt);
+    this.ndjsonEnd = ndjsonEnd;
+    this.columnarEnd = columnarEnd;
+  }
+
+  private void append(String line) throws IOException {
+    // a line left incomplete by a crash is terminated by the next one
+    ByteBuffer buffer = ByteBuffer.wrap(("\n" + line + "\n").getBytes(StandardCharsets.UTF_8));
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    channel.force(false);
+  }
+}
@@ -0,0 +1,42 @@
+package fr.vvlabs.jira.client.export;
+
+import java.nio.file.Path;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * bulk export settings
+ */
+@Getter
+@Builder
+public class ExportConfig {
+
+  /** directory of the export files and checkpoint, created if missing */
+  @NonNull
+  private final Path directory;
+
+  /** export files base name : name.ndjson.gz, name.jcol, name.checkpoint */
+  @Builder.Default
+  private final String name = "issues";
+
+  /** issues per search page, Jira may cap it */
+  @Builder.Default
+  private final int pageSize = 100;
+
+  /** concurrent search requests */
+  @Builder.Default
+  private final int maxInFlight = 4;
+
+  /** exported fields, null for navigable fields */
+  private final Set<String> fields;
+
+  /** write gzip compressed NDJSON, one issue per line */
+  @Builder.Default
+  private final boolean ndjson = true;
+
+  /** write columnar row groups, one per page, see ColumnarPageEncoder */
+  @Builder.Default
+  private final boolean columnar = true;
+}
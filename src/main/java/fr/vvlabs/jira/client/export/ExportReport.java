@@ -0,0 +1,43 @@
+package fr.vvlabs.jira.client.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * outcome and throughput of a bulk export
+ */
+@Getter
+@AllArgsConstructor
+public class ExportReport {
+
+  /** issues matching the query when the export started */
+  private final int total;
+
+  /** pages written by this run */
+  private final int pages;
+
+  /** pages already written by a previous run, skipped */
+  private final int resumedPages;
+
+  /** issues written by this run */
+  private final long issues;
+
+  /** bytes written by this run, all files */
+  private final long bytes;
+
+  private final long elapsedMillis;
+
+  public double getIssuesPerSecond() {
+    return elapsedMillis > 0 ? issues * 1000d / elapsedMillis : 0d;
+  }
+
+  public double getMegabytesPerSecond() {
+    return elapsedMillis > 0 ? bytes * 1000d / elapsedMillis / (1024 * 1024) : 0d;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ExportReport(total=%d, pages=%d, resumedPages=%d, issues=%d, bytes=%d, elapsed=%dms, %.1f issues/s, %.2f MB/s)",
+        total, pages, resumedPages, issues, bytes, elapsedMillis, getIssuesPerSecond(), getMegabytesPerSecond());
+  }
+}
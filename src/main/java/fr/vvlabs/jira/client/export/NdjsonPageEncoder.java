@@ -0,0 +1,105 @@
+package fr.vvlabs.jira.client.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import fr.vvlabs.jira.client.compact.CompactIssue;
+import fr.vvlabs.jira.client.compact.CompactIssueTable;
+import fr.vvlabs.jira.client.compact.FieldColumn;
+import fr.vvlabs.jira.client.compact.UserRef;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * one page of issues as a gzip member of NDJSON lines : members appended to a file make a valid gzip file
+ */
+final class NdjsonPageEncoder {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private NdjsonPageEncoder() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  static byte[] encode(CompactIssueTable page) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(new GZIPOutputStream(bytes, BUFFER_SIZE))) {
+      for (int row = 0; row < page.size(); row++) {
+        writeIssue(generator, page, page.get(row));
+        generator.writeRaw('\n');
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeIssue(JsonGenerator generator, CompactIssueTable page, CompactIssue issue) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("id", issue.getId());
+    writeString(generator, "key", issue.getKey());
+    writeString(generator, "project", issue.getProject() != null ? issue.getProject().getKey() : null);
+    writeString(generator, "status", issue.getStatus() != null ? issue.getStatus().getName() : null);
+    writeString(generator, "issuetype", issue.getIssueType());
+    writeString(generator, "summary", issue.getSummary());
+    writeString(generator, "assignee", nameOf(issue.getAssignee()));
+    writeString(generator, "reporter", nameOf(issue.getReporter()));
+    writeDate(generator, "created", issue.getCreated());
+    writeDate(generator, "updated", issue.getUpdated());
+    generator.writeObjectFieldStart("fields");
+    for (String fieldId : page.fieldIds()) {
+      FieldColumn column = page.column(fieldId);
+      if (!column.isPresent(issue.getRow())) {
+        continue;
+      }
+      if (column.isMismatch(issue.getRow())) {
+        generator.writeStringField(fieldId, column.getText(issue.getRow()));
+        continue;
+      }
+      switch (column.getKind()) {
+        case NUMBER:
+          double number = column.getNumber(issue.getRow());
+          if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+            generator.writeNumberField(fieldId, (long) number);
+          } else {
+            generator.writeNumberField(fieldId, number);
+          }
+          break;
+        case DATE:
+          writeDate(generator, fieldId, column.getDate(issue.getRow()));
+          break;
+        default:
+          generator.writeStringField(fieldId, column.getText(issue.getRow()));
+      }
+    }
+    generator.writeEndObject();
+    generator.writeEndObject();
+  }
+
+  private static void writeString(JsonGenerator generator, String name, String value) throws IOException {
+    if (value != null) {
+      generator.writeStringField(name, value);
+    }
+  }
+
+  private static void writeDate(JsonGenerator generator, String name, long millis) throws IOException {
+    if (millis != Long.MIN_VALUE) {
+      generator.writeStringField(name, Instant.ofEpochMilli(millis).toString());
+    }
+  }
+
+  private static String nameOf(UserRef user) {
+    return user != null ? user.getName() : null;
+  }
+}
@@ -0,0 +1,115 @@
+package fr.vvlabs.jira.client.metrics;
+
+import fr.vvlabs.jira.client.JiraOperation;
+import fr.vvlabs.jira.client.retry.RestErrors;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * listener keeping counters and latency histograms in memory, per operation
+ */
+public class InMemoryMetricsReporter implements JiraClientListener {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final Map<JiraOperation, Recorder> recorders = new EnumMap<>(JiraOperation.class);
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  public InMemoryMetricsReporter() {
+    for (JiraOperation operation : JiraOperation.values()) {
+      recorders.put(operation, new Recorder());
+    }
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void onCallSucceeded(JiraOperation operation, long latencyNanos) {
+    Recorder recorder = recorders.get(operation);
+    recorder.calls.increment();
+    recorder.latency.record(latencyNanos);
+  }
+
+  @Override
+  public void onCallFailed(JiraOperation operation, long latencyNanos, Throwable error) {
+    Recorder recorder = recorders.get(operation);
+    recorder.calls.increment();
+    recorder.failures.increment();
+    recorder.latency.record(latencyNanos);
+    recorder.errors.computeIfAbsent(errorClassOf(error), key -> new LongAdder()).increment();
+  }
+
+  @Override
+  public void onRetry(JiraOperation operation, int attempt, long delayMillis, Throwable error) {
+    recorders.get(operation).retries.increment();
+  }
+
+  @Override
+  public void onPageParsed(JiraOperation operation, int issues, long bytes, long parseNanos) {
+    Recorder recorder = recorders.get(operation);
+    recorder.pages.increment();
+    recorder.issues.add(issues);
+    if (bytes > 0) {
+      recorder.bytes.add(bytes);
+    }
+    recorder.parse.record(parseNanos);
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return metrics of every operation called at least once
+   */
+  public Map<JiraOperation, OperationMetrics> snapshot() {
+    Map<JiraOperation, OperationMetrics> snapshot = new EnumMap<>(JiraOperation.class);
+    recorders.forEach((operation, recorder) -> {
+      if (recorder.calls.sum() > 0) {
+        snapshot.put(operation, recorder.snapshot());
+      }
+    });
+    return snapshot;
+  }
+
+  private static String errorClassOf(Throwable error) {
+    Integer statusCode = RestErrors.statusCodeOf(error);
+    return statusCode != null ? "HTTP " + statusCode : error.getClass().getSimpleName();
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  private static class Recorder {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder issues = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private OperationMetrics snapshot() {
+      Map<String, Long> errorCounts = new TreeMap<>();
+      errors.forEach((errorClass, count) -> errorCounts.put(errorClass, count.sum()));
+      return new OperationMetrics(calls.sum(), failures.sum(), retries.sum(),
+          latency.percentileMillis(0.5), latency.percentileMillis(0.99),
+          pages.sum(), issues.sum(), bytes.sum(),
+          parse.percentileMillis(0.5), parse.percentileMillis(0.99), errorCounts);
+    }
+  }
+}
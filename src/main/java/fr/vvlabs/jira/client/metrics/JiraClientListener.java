@@ -0,0 +1,50 @@
+package fr.vvlabs.jira.client.metrics;
+
+import fr.vvlabs.jira.client.JiraOperation;
+
+/**
+ * instrumentation SPI of the Jira client, called on the hot path : implementations must be cheap and thread safe
+ */
+public interface JiraClientListener {
+
+  /** listener ignoring every event */
+  JiraClientListener NO_OP = new JiraClientListener() {
+  };
+
+  /**
+   * A call attempt succeeded
+   * @param operation
+   * @param latencyNanos request, response and parsing time
+   */
+  default void onCallSucceeded(JiraOperation operation, long latencyNanos) {
+  }
+
+  /**
+   * A call attempt failed
+   * @param operation
+   * @param latencyNanos
+   * @param error
+   */
+  default void onCallFailed(JiraOperation operation, long latencyNanos, Throwable error) {
+  }
+
+  /**
+   * A failed attempt is going to be retried
+   * @param operation
+   * @param attempt number of the failed attempt, starting at 1
+   * @param delayMillis delay before the next attempt
+   * @param error
+   */
+  default void onRetry(JiraOperation operation, int attempt, long delayMillis, Throwable error) {
+  }
+
+  /**
+   * A search response was parsed
+   * @param operation
+   * @param issues issues in the page
+   * @param bytes response body size, -1 if unknown
+   * @param parseNanos
+   */
+  default void onPageParsed(JiraOperation operation, int issues, long bytes, long parseNanos) {
+  }
+}
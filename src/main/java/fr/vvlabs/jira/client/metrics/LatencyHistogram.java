@@ -0,0 +1,72 @@
+package fr.vvlabs.jira.client.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock-free histogram with power of two buckets in microseconds : recording is one array increment
+ */
+public class LatencyHistogram {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int BUCKETS = 64;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @param nanos
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    // bucket i holds values in [2^(i-1), 2^i) microseconds, bucket 0 holds 0
+    counts.incrementAndGet(Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(micros)));
+  }
+
+  /**
+   * @return recorded values
+   */
+  public long count() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * @param quantile between 0 and 1
+   * @return upper bound of the bucket holding the quantile, in milliseconds
+   */
+  public double percentileMillis(double quantile) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    // quantile 0 is the smallest value, not an empty bucket below it
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long cumulated = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      cumulated += snapshot[i];
+      if (cumulated >= rank) {
+        return (i == 0 ? 1 : Math.pow(2, i)) / 1000.0;
+      }
+    }
+    return Math.pow(2, BUCKETS - 1) / 1000.0;
+  }
+}
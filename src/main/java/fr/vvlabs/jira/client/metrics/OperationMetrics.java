@@ -0,0 +1,28 @@
+package fr.vvlabs.jira.client.metrics;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * snapshot of the metrics of one operation
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OperationMetrics {
+
+  private final long calls;
+  private final long failures;
+  private final long retries;
+  private final double latencyP50Millis;
+  private final double latencyP99Millis;
+  private final long pages;
+  private final long issues;
+  private final long bytesReceived;
+  private final double parseP50Millis;
+  private final double parseP99Millis;
+  /** failures by error class : HTTP status code, or exception class name */
+  private final Map<String, Long> errors;
+}
@@ -0,0 +1,173 @@
+package fr.vvlabs.jira.client.project;
+
+import com.atlassian.jira.rest.client.api.ProjectRestClient;
+import com.atlassian.jira.rest.client.api.domain.BasicProject;
+import com.atlassian.jira.rest.client.api.domain.Project;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import io.atlassian.util.concurrent.Promise;
+import java.io.Closeable;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * project client with a bounded, expiring cache in front of the delegate.
+ * The cache holds the futures of the delegate calls : concurrent misses on the same key share a single call,
+ * stale entries are refreshed in background, no thread waits for Jira.
+ */
+@Slf4j
+public class CachingProjectRestClient implements ProjectRestClient, Closeable {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String ALL_PROJECTS_KEY = "*";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final ProjectRestClient delegate;
+  private final LoadingCache<String, CompletableFuture<Project>> projectCache;
+  private final LoadingCache<String, CompletableFuture<Iterable<BasicProject>>> allProjectsCache;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new caching project client
+   * @param delegate
+   * @param config
+   */
+  public CachingProjectRestClient(final ProjectRestClient delegate, final ProjectCacheConfig config) {
+    this.delegate = delegate;
+    this.projectCache = newCacheBuilder(config).maximumSize(config.getMaximumSize())
+        .build(new FutureLoader<>(projectKey -> {
+          log.debug("Load project {}", projectKey);
+          return delegate.getProject(projectKey);
+        }));
+    this.allProjectsCache = newCacheBuilder(config).maximumSize(1)
+        .build(new FutureLoader<>(key -> {
+          log.debug("Load all projects");
+          return delegate.getAllProjects();
+        }));
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public Promise<Project> getProject(String key) {
+    return getCached(projectCache, key);
+  }
+
+  @Override
+  public Promise<Project> getProject(URI projectUri) {
+    return delegate.getProject(projectUri);
+  }
+
+  @Override
+  public Promise<Iterable<BasicProject>> getAllProjects() {
+    return getCached(allProjectsCache, ALL_PROJECTS_KEY);
+  }
+
+  @Override
+  public void close() {
+    invalidateAll();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return project cache hit / miss / eviction counters
+   */
+  public CacheStats getProjectStats() {
+    return projectCache.stats();
+  }
+
+  /**
+   * @return all projects list cache hit / miss / eviction counters
+   */
+  public CacheStats getAllProjectsStats() {
+    return allProjectsCache.stats();
+  }
+
+  /**
+   * Drop all cached entries
+   */
+  public void invalidateAll() {
+    projectCache.invalidateAll();
+    allProjectsCache.invalidateAll();
+  }
+
+  private static CacheBuilder<Object, Object> newCacheBuilder(ProjectCacheConfig config) {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(config.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS)
+        .refreshAfterWrite(config.getRefreshAfterWrite().toMillis(), TimeUnit.MILLISECONDS)
+        .recordStats();
+  }
+
+  private static <V> Promise<V> getCached(LoadingCache<String, CompletableFuture<V>> cache, String key) {
+    // a hit triggers a background refresh when due, a miss starts the call : both return without waiting
+    CompletableFuture<V> shared = cache.getUnchecked(key);
+    if (shared.isCompletedExceptionally()) {
+      // failures are not cached, the read after the one seeing it calls again
+      cache.asMap().remove(key, shared);
+    }
+    // each caller gets its own stage : cancelling it leaves the shared call to the other readers
+    return PromiseUtils.toPromise(shared.thenApply(Function.identity()));
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  /**
+   * loads an entry as the future of a delegate call, a reload replaces the entry only once the new value is there
+   * @param <V>
+   */
+  private static class FutureLoader<V> extends CacheLoader<String, CompletableFuture<V>> {
+
+    private final Function<String, Promise<V>> call;
+
+    private FutureLoader(final Function<String, Promise<V>> call) {
+      this.call = call;
+    }
+
+    @Override
+    public CompletableFuture<V> load(String key) {
+      return start(key);
+    }
+
+    @Override
+    public ListenableFuture<CompletableFuture<V>> reload(String key, CompletableFuture<V> oldValue) {
+      SettableFuture<CompletableFuture<V>> reloaded = SettableFuture.create();
+      // on failure the cache keeps the current value until it expires
+      start(key).whenComplete((value, error) -> {
+        if (error != null) {
+          reloaded.setException(PromiseUtils.unwrap(error));
+        } else {
+          reloaded.set(CompletableFuture.completedFuture(value));
+        }
+      });
+      return reloaded;
+    }
+
+    private CompletableFuture<V> start(String key) {
+      return PromiseUtils.toCompletableFuture(() -> call.apply(key));
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package fr.vvlabs.jira.client.project;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * project metadata cache settings
+ */
+@Getter
+@Builder
+public class ProjectCacheConfig {
+
+  /** maximum number of cached projects */
+  @Builder.Default
+  private final long maximumSize = 2000;
+
+  /** entries older than this are discarded and loaded again on next read */
+  @Builder.Default
+  private final Duration expireAfterWrite = Duration.ofHours(24);
+
+  /** entries older than this are refreshed in background, readers keep getting the current value */
+  @Builder.Default
+  private final Duration refreshAfterWrite = Duration.ofHours(1);
+}
@@ -0,0 +1,33 @@
+package fr.vvlabs.jira.client.project;
+
+import com.atlassian.jira.rest.client.api.domain.Project;
+import java.util.Map;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * result of a concurrent project loading : loaded projects, and failures by project key
+ */
+@Getter
+@AllArgsConstructor
+public class ProjectLoadResult {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final Set<Project> projects;
+  private final Map<String, Throwable> failures;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return true if at least one project could not be loaded
+   */
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+}
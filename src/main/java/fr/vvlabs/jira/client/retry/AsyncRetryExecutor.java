@@ -0,0 +1,187 @@
+package fr.vvlabs.jira.client.retry;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.vvlabs.jira.client.JiraOperation;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.metrics.JiraClientListener;
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * non blocking retry of async calls : failed attempts are rescheduled on a timer, no thread waits between attempts.
+ * Each attempt is bounded by the time left before the deadline.
+ */
+@Slf4j
+public class AsyncRetryExecutor implements Closeable {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final RetryPolicy policy;
+  private final JiraClientListener listener;
+  private final ScheduledExecutorService scheduler;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new retry executor
+   * @param policy
+   */
+  public AsyncRetryExecutor(final RetryPolicy policy) {
+    this(policy, JiraClientListener.NO_OP);
+  }
+
+  /**
+   * Build a new retry executor, reporting retries to the listener
+   * @param policy
+   * @param listener
+   */
+  public AsyncRetryExecutor(final RetryPolicy policy, final JiraClientListener listener) {
+    this.policy = policy;
+    this.listener = listener;
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("jira-retry-%d").build());
+    // attempt timeouts are cancelled on completion, do not keep them queued until the deadline
+    executor.setRemoveOnCancelPolicy(true);
+    this.scheduler = executor;
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Execute call, retrying retryable failures according to the policy
+   * @param operation
+   * @param call
+   * @param <T>
+   * @return
+   */
+  public <T> CompletableFuture<T> execute(JiraOperation operation, Supplier<? extends CompletionStage<T>> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    long deadlineNanos = System.nanoTime() + policy.getDeadline().toNanos();
+    attempt(operation, call, 1, deadlineNanos, result);
+    return result;
+  }
+
+  /**
+   * Execute a blocking call on the caller thread, retrying retryable failures according to the policy.
+   * The caller thread waits between attempts, the retry scheduler is not used
+   * @param operation
+   * @param call
+   * @param <T>
+   * @return
+   */
+  public <T> T executeBlocking(JiraOperation operation, Supplier<T> call) {
+    long deadlineNanos = System.nanoTime() + policy.getDeadline().toNanos();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return call.get();
+      } catch (RuntimeException e) {
+        Throwable cause = PromiseUtils.unwrap(e);
+        if (attempt >= policy.getMaxAttempts() || !policy.isRetryable(cause)) {
+          throw e;
+        }
+        long delayMillis = policy.computeDelayMillis(attempt, cause);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) > deadlineNanos) {
+          log.warn("{} failed (attempt {}), retry deadline reached : {}", operation, attempt, cause.getMessage());
+          throw e;
+        }
+        log.warn("{} failed (attempt {}/{}), retry in {} ms : {}", operation, attempt, policy.getMaxAttempts(), delayMillis, cause.getMessage());
+        listener.onRetry(operation, attempt, delayMillis, cause);
+        try {
+          Thread.sleep(delayMillis);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private <T> void attempt(JiraOperation operation, Supplier<? extends CompletionStage<T>> call, int attempt, long deadlineNanos, CompletableFuture<T> result) {
+    if (result.isDone()) {
+      // cancelled by the caller
+      return;
+    }
+    CompletableFuture<T> started = PromiseUtils.invoke(call);
+    PromiseUtils.propagateCancellation(result, started);
+    withDeadline(started, operation, deadlineNanos).whenComplete((value, error) -> {
+      if (result.isDone()) {
+        return;
+      }
+      if (error == null) {
+        result.complete(value);
+        return;
+      }
+      Throwable cause = PromiseUtils.unwrap(error);
+      if (attempt >= policy.getMaxAttempts() || !policy.isRetryable(cause)) {
+        result.completeExceptionally(cause);
+        return;
+      }
+      long delayMillis = policy.computeDelayMillis(attempt, cause);
+      if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) > deadlineNanos) {
+        log.warn("{} failed (attempt {}), retry deadline reached : {}", operation, attempt, cause.getMessage());
+        result.completeExceptionally(cause);
+        return;
+      }
+      log.warn("{} failed (attempt {}/{}), retry in {} ms : {}", operation, attempt, policy.getMaxAttempts(), delayMillis, cause.getMessage());
+      listener.onRetry(operation, attempt, delayMillis, cause);
+      try {
+        scheduler.schedule(() -> attempt(operation, call, attempt + 1, deadlineNanos, result), delayMillis, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // executor closed
+        result.completeExceptionally(cause);
+      }
+    });
+  }
+
+  /**
+   * Bound an attempt by the remaining deadline : past it, the attempt fails with a TimeoutException
+   * (the call itself is left to the transport timeouts)
+   */
+  private <T> CompletableFuture<T> withDeadline(CompletableFuture<T> call, JiraOperation operation, long deadlineNanos) {
+    if (call.isDone()) {
+      return call;
+    }
+    CompletableFuture<T> bounded = new CompletableFuture<>();
+    ScheduledFuture<?> timeout;
+    try {
+      timeout = scheduler.schedule(() -> bounded.completeExceptionally(new TimeoutException(operation + " retry deadline reached")),
+          Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // executor closed
+      return call;
+    }
+    call.whenComplete((value, error) -> {
+      timeout.cancel(false);
+      if (error == null) {
+        bounded.complete(value);
+      } else {
+        bounded.completeExceptionally(error);
+      }
+    });
+    return bounded;
+  }
+}
@@ -0,0 +1,102 @@
+package fr.vvlabs.jira.client.retry;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.util.ErrorCollection;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * helpers to classify errors returned by the Jira REST client
+ */
+public final class RestErrors {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  public static final int TOO_MANY_REQUESTS = 429;
+  public static final int SERVICE_UNAVAILABLE = 503;
+  // "Issue does not exist or you do not have permission to see it."
+  private static final String ISSUE_NOT_FOUND_MESSAGE = "does not exist";
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private RestErrors() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @param throwable
+   * @return HTTP status code of a RestClientException, null if none
+   */
+  public static Integer statusCodeOf(Throwable throwable) {
+    if (throwable instanceof RestClientException && ((RestClientException) throwable).getStatusCode().isPresent()) {
+      return ((RestClientException) throwable).getStatusCode().get();
+    }
+    return null;
+  }
+
+  /**
+   * @param throwable
+   * @return true if Jira says the requested issue does not exist, or is not visible to the user
+   */
+  public static boolean isIssueNotFound(Throwable throwable) {
+    if (!(throwable instanceof RestClientException)) {
+      return false;
+    }
+    for (ErrorCollection errors : ((RestClientException) throwable).getErrorCollections()) {
+      for (String message : errors.getErrorMessages()) {
+        if (message != null && message.toLowerCase(Locale.ROOT).contains(ISSUE_NOT_FOUND_MESSAGE)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param throwable
+   * @return true if Jira asked us to slow down (429 / 503)
+   */
+  public static boolean isThrottled(Throwable throwable) {
+    Integer statusCode = statusCodeOf(throwable);
+    return statusCode != null && (statusCode == TOO_MANY_REQUESTS || statusCode == SERVICE_UNAVAILABLE);
+  }
+
+  /**
+   * @param throwable
+   * @return true if the call timed out (connection, socket or request timeout)
+   */
+  public static boolean isTimeout(Throwable throwable) {
+    Throwable current = throwable;
+    while (current != null) {
+      if (current instanceof SocketTimeoutException || current instanceof TimeoutException) {
+        return true;
+      }
+      current = current.getCause();
+    }
+    return false;
+  }
+
+  /**
+   * @param throwable
+   * @return true if the error comes from the transport (connection refused, reset, timeout...)
+   */
+  public static boolean isTransportError(Throwable throwable) {
+    Throwable current = throwable;
+    while (current != null) {
+      if (current instanceof IOException || current instanceof TimeoutException) {
+        return true;
+      }
+      current = current.getCause();
+    }
+    return false;
+  }
+}
@@ -0,0 +1,27 @@
+package fr.vvlabs.jira.client.retry;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.util.ErrorCollection;
+import java.util.Collections;
+import lombok.Getter;
+
+/**
+ * throttling response (429 / 503) carrying the delay Jira asked for in its Retry-After header
+ */
+@Getter
+public class RetryAfterException extends RestClientException {
+
+  /** delay asked by Jira, in milliseconds */
+  private final long retryAfterMillis;
+
+  /**
+   * Build a new exception
+   * @param statusCode
+   * @param retryAfterMillis
+   */
+  public RetryAfterException(final int statusCode, final long retryAfterMillis) {
+    super(Collections.singletonList(new ErrorCollection(statusCode,
+        Collections.singletonList("Jira asked to retry after " + retryAfterMillis + " ms"), Collections.emptyMap())), statusCode);
+    this.retryAfterMillis = retryAfterMillis;
+  }
+}
@@ -0,0 +1,102 @@
+package fr.vvlabs.jira.client.retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * retry settings : exponential backoff with jitter, or the Retry-After delay asked by Jira, bounded by a total deadline
+ */
+@Getter
+@Builder
+public class RetryPolicy {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  /** total attempts, including the first one */
+  @Builder.Default
+  private final int maxAttempts = 3;
+
+  /** delay before the first retry */
+  @Builder.Default
+  private final Duration initialDelay = Duration.ofMillis(500);
+
+  /** upper bound of a single delay */
+  @Builder.Default
+  private final Duration maxDelay = Duration.ofSeconds(30);
+
+  /** delay growth factor between attempts */
+  @Builder.Default
+  private final double multiplier = 2.0;
+
+  /** random part of each delay, from 0 (none) to 1 (full jitter) */
+  @Builder.Default
+  private final double jitter = 0.5;
+
+  /** minimum delay when Jira throttles us (429 / 503) without a Retry-After header */
+  @Builder.Default
+  private final Duration throttledDelay = Duration.ofSeconds(5);
+
+  /** no retry is scheduled past this delay after the first attempt */
+  @Builder.Default
+  private final Duration deadline = Duration.ofMinutes(2);
+
+  /** HTTP status codes worth retrying, other statuses are fatal */
+  @Builder.Default
+  private final Set<Integer> retryableStatusCodes = new HashSet<>(Arrays.asList(408, 429, 500, 502, 503, 504));
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return default policy : 3 attempts, 500ms initial delay, 2 minutes deadline
+   */
+  public static RetryPolicy defaults() {
+    return RetryPolicy.builder().build();
+  }
+
+  /**
+   * @return policy without any retry
+   */
+  public static RetryPolicy none() {
+    return RetryPolicy.builder().maxAttempts(1).build();
+  }
+
+  /**
+   * @param throwable
+   * @return true if the call may succeed when attempted again
+   */
+  public boolean isRetryable(Throwable throwable) {
+    Integer statusCode = RestErrors.statusCodeOf(throwable);
+    if (statusCode != null) {
+      return retryableStatusCodes.contains(statusCode);
+    }
+    return RestErrors.isTransportError(throwable);
+  }
+
+  /**
+   * @param attempt number of the failed attempt, starting at 1
+   * @param throwable failure of this attempt
+   * @return delay in milliseconds before the next attempt
+   */
+  public long computeDelayMillis(int attempt, Throwable throwable) {
+    if (throwable instanceof RetryAfterException) {
+      // Jira said when, the deadline still applies
+      return ((RetryAfterException) throwable).getRetryAfterMillis();
+    }
+    double exponential = initialDelay.toMillis() * Math.pow(multiplier, attempt - 1);
+    long capped = (long) Math.min(exponential, maxDelay.toMillis());
+    long jittered = capped - (long) (capped * jitter * ThreadLocalRandom.current().nextDouble());
+    if (RestErrors.isThrottled(throwable)) {
+      return Math.max(jittered, throttledDelay.toMillis());
+    }
+    return jittered;
+  }
+}
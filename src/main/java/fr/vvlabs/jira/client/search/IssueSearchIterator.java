@@ -0,0 +1,143 @@
+package fr.vvlabs.jira.client.search;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * lazy iterator over a JQL search : pages are requested on demand, and the next pages are prefetched
+ * while the current one is consumed. At most prefetchPages pages are buffered, so memory does not grow
+ * with the number of matching issues. Cancel the iterator when it is abandoned before the end,
+ * so that prefetched pages do not keep running ; a failed page cancels it too.
+ */
+@Slf4j
+public class IssueSearchIterator implements Iterator<Issue> {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final PageFetcher pageFetcher;
+  private final int prefetchPages;
+  private final Deque<CompletableFuture<SearchResult>> pendingPages = new ArrayDeque<>();
+
+  private int pageSize;
+  private int nextStartAt = 0;
+  private int total = -1;
+  private Iterator<Issue> currentPage = Collections.emptyIterator();
+  private boolean cancelled;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new lazy search iterator
+   * @param pageFetcher async search of one page
+   * @param pageSize
+   * @param prefetchPages number of pages requested ahead of the consumer, at least 1
+   */
+  public IssueSearchIterator(final PageFetcher pageFetcher, final int pageSize, final int prefetchPages) {
+    this.pageFetcher = pageFetcher;
+    this.pageSize = pageSize;
+    this.prefetchPages = Math.max(1, prefetchPages);
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public boolean hasNext() {
+    if (cancelled) {
+      return false;
+    }
+    while (!currentPage.hasNext()) {
+      if (total < 0 && pendingPages.isEmpty()) {
+        // first page : total and effective page size are unknown until it returns
+        requestPage();
+      } else {
+        prefetch();
+      }
+      if (pendingPages.isEmpty()) {
+        return false;
+      }
+      SearchResult page;
+      try {
+        page = PromiseUtils.join(pendingPages.poll());
+      } catch (RuntimeException e) {
+        // the search cannot go on : do not leave the pages requested after the failed one running
+        cancel();
+        throw e;
+      }
+      if (total < 0) {
+        // Jira may cap maxResults below the requested page size
+        pageSize = page.getMaxResults() > 0 ? page.getMaxResults() : pageSize;
+        nextStartAt = pageSize;
+      }
+      total = page.getTotal();
+      currentPage = page.getIssues().iterator();
+      // keep the pipeline full while the consumer reads this page
+      prefetch();
+    }
+    return true;
+  }
+
+  @Override
+  public Issue next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return currentPage.next();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Stop the iteration and cancel the pages requested ahead of the consumer, from the consuming thread
+   * (closing the stream of issues does it)
+   */
+  public void cancel() {
+    cancelled = true;
+    currentPage = Collections.emptyIterator();
+    CompletableFuture<SearchResult> pending;
+    while ((pending = pendingPages.poll()) != null) {
+      pending.cancel(true);
+    }
+    log.debug("Search cancelled at startAt={}", nextStartAt);
+  }
+
+  private void prefetch() {
+    while (total >= 0 && pendingPages.size() < prefetchPages && nextStartAt < total) {
+      requestPage();
+    }
+  }
+
+  private void requestPage() {
+    log.debug("Request page startAt={}", nextStartAt);
+    pendingPages.add(pageFetcher.fetch(nextStartAt, pageSize));
+    nextStartAt += pageSize;
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  /**
+   * async search of one page
+   */
+  @FunctionalInterface
+  public interface PageFetcher {
+
+    CompletableFuture<SearchResult> fetch(int startAt, int maxResults);
+  }
+}
@@ -0,0 +1,22 @@
+package fr.vvlabs.jira.client.search;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import java.util.Map;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * result of a batch issue fetch : issues by key, and requested keys which were not found
+ */
+@Getter
+@AllArgsConstructor
+public class IssuesByKeysResult {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final Map<String, Issue> issues;
+  private final Set<String> missingKeys;
+}
@@ -0,0 +1,29 @@
+package fr.vvlabs.jira.client.search;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * time-window partitioned extraction settings
+ */
+@Getter
+@Builder
+public class PartitionConfig {
+
+  /** partitions matching more issues than this are split */
+  @Builder.Default
+  private final int maxPartitionSize = 2000;
+
+  /** partitions shorter than this are never split */
+  @Builder.Default
+  private final Duration minWindow = Duration.ofMinutes(1);
+
+  /** issues per search page */
+  @Builder.Default
+  private final int pageSize = 100;
+
+  /** partitions read concurrently */
+  @Builder.Default
+  private final int parallelism = 4;
+}
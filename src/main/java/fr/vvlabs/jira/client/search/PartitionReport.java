@@ -0,0 +1,18 @@
+package fr.vvlabs.jira.client.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * outcome of a partitioned extraction
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PartitionReport {
+
+  private final int partitions;
+  private final int pages;
+  private final long issues;
+}
@@ -0,0 +1,218 @@
+package fr.vvlabs.jira.client.search;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import fr.vvlabs.jira.client.JiraExpandRestClient;
+import fr.vvlabs.jira.client.async.BoundedAsyncRunner;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * extraction of very large JQL result sets : the "updated" range is split into partitions small enough
+ * to keep pagination shallow, sized from each partition total, and partitions are read concurrently.
+ * A partition is read in created order, each page resuming after the last created timestamp read rather than at
+ * an offset : an issue updated during the extraction leaves its partition without shifting the pages still to read.
+ * Such an issue is read in the partition it moves to when it is not read yet, or not at all when updated after
+ * the range : read the issues updated since the extraction started to catch them.
+ */
+@Slf4j
+public class PartitionedExtractor {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  // key breaks created ties, so that issues created in the same millisecond are paged by offset
+  private static final String PARTITION_ORDER = " ORDER BY created ASC, key ASC";
+  private static final String CREATED_FIELD = "created";
+  private static final Set<String> PROBE_FIELDS = Collections.singleton("updated");
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final JiraExpandRestClient client;
+  private final PartitionConfig config;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new partitioned extractor
+   * @param client
+   * @param config
+   */
+  public PartitionedExtractor(final JiraExpandRestClient client, final PartitionConfig config) {
+    this.client = client;
+    this.config = config;
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Extract every issue updated in [from, to), with projects filter, custom fields and expandable properties
+   * @param customJQL filter, without ORDER BY clause
+   * @param projects
+   * @param fields "created" is always read
+   * @param expandos
+   * @param from inclusive
+   * @param to exclusive
+   * @param pageConsumer receives pages, one call at a time, partitions are not ordered
+   * @return
+   */
+  public PartitionReport extract(String customJQL, Set<String> projects, Set<String> fields, Set<String> expandos,
+      @NonNull LocalDateTime from, @NonNull LocalDateTime to, @NonNull Consumer<List<Issue>> pageConsumer) {
+    long fromMillis = toMillis(from);
+    long toMillis = toMillis(to);
+    List<Partition> partitions = plan(customJQL, projects, fromMillis, toMillis);
+    final Set<String> pageFields = withCreated(fields);
+    log.debug("{} partitions planned for JQL : {}, {} issues", partitions.size(), customJQL,
+        partitions.stream().mapToLong(partition -> partition.total).sum());
+
+    final AtomicInteger pages = new AtomicInteger();
+    final AtomicLong issues = new AtomicLong();
+    final Consumer<List<Issue>> serializedConsumer = page -> {
+      synchronized (pageConsumer) {
+        pageConsumer.accept(page);
+      }
+      pages.incrementAndGet();
+      issues.addAndGet(page.size());
+    };
+    PromiseUtils.join(BoundedAsyncRunner.runAll(partitions, config.getParallelism(),
+        (Partition partition) -> readPartition(partition, pageFields, expandos, null, serializedConsumer)));
+    return new PartitionReport(partitions.size(), pages.get(), issues.get());
+  }
+
+  /**
+   * Split [from, to) until each partition holds at most maxPartitionSize issues.
+   * Windows are probed level by level, at most parallelism probes at a time
+   */
+  private List<Partition> plan(String customJQL, Set<String> projects, long fromMillis, long toMillis) {
+    List<Partition> partitions = new ArrayList<>();
+    List<Window> windows = Collections.singletonList(new Window(fromMillis, toMillis));
+    while (!windows.isEmpty()) {
+      List<Partition> probes = PromiseUtils.join(BoundedAsyncRunner.runAll(windows, config.getParallelism(), (Window window) -> {
+        String jql = jqlOf(customJQL, projects, window.from, window.to);
+        return client.searchJqlAsync(jql, 0, 0, PROBE_FIELDS, null).thenApply(probe -> new Partition(window, jql, probe.getTotal()));
+      }));
+      List<Window> next = new ArrayList<>();
+      for (Partition probe : probes) {
+        long window = probe.window.to - probe.window.from;
+        if (probe.total == 0) {
+          continue;
+        }
+        if (probe.total <= config.getMaxPartitionSize() || window <= config.getMinWindow().toMillis()) {
+          partitions.add(probe);
+          continue;
+        }
+        // split evenly in time, sized from the partition total
+        int splits = (int) Math.min(window / Math.max(1, config.getMinWindow().toMillis()),
+            (probe.total + config.getMaxPartitionSize() - 1) / config.getMaxPartitionSize());
+        splits = Math.max(2, splits);
+        for (int i = 0; i < splits; i++) {
+          long childFrom = probe.window.from + window * i / splits;
+          long childTo = i == splits - 1 ? probe.window.to : probe.window.from + window * (i + 1) / splits;
+          next.add(new Window(childFrom, childTo));
+        }
+      }
+      windows = next;
+    }
+    partitions.sort(Comparator.comparingLong(partition -> partition.window.from));
+    return partitions;
+  }
+
+  /**
+   * Read partition pages one after the other, the partition is small so pagination stays shallow.
+   * Each page is queried from the created timestamp of the last issue read, skipping the issues of that timestamp already read
+   */
+  private CompletableFuture<Boolean> readPartition(Partition partition, Set<String> fields, Set<String> expandos, Cursor cursor,
+      Consumer<List<Issue>> pageConsumer) {
+    String jql = cursor != null ? partition.jql + " AND " + CREATED_FIELD + " >= " + cursor.created + PARTITION_ORDER
+        : partition.jql + PARTITION_ORDER;
+    int startAt = cursor != null ? cursor.readAtCreated : 0;
+    return client.searchJqlAsync(jql, config.getPageSize(), startAt, fields, expandos).thenCompose(page -> {
+      List<Issue> issues = new ArrayList<>();
+      page.getIssues().forEach(issues::add);
+      if (!issues.isEmpty()) {
+        pageConsumer.accept(issues);
+      }
+      if (issues.isEmpty() || startAt + issues.size() >= page.getTotal()) {
+        return CompletableFuture.completedFuture(Boolean.TRUE);
+      }
+      Cursor next = cursor;
+      for (Issue issue : issues) {
+        if (issue.getCreationDate() == null) {
+          throw new IllegalStateException("issue " + issue.getKey() + " read without its created date");
+        }
+        long created = issue.getCreationDate().getMillis();
+        next = next != null && next.created == created ? new Cursor(created, next.readAtCreated + 1) : new Cursor(created, 1);
+      }
+      return readPartition(partition, fields, expandos, next, pageConsumer);
+    });
+  }
+
+  private static String jqlOf(String customJQL, Set<String> projects, long fromMillis, long toMillis) {
+    // parentheses keep an OR of the custom filter inside the partition bounds
+    String filter = StringUtils.isNotBlank(customJQL) ? "(" + customJQL + ")" : customJQL;
+    // buildJql filters are exclusive : start one millisecond earlier so [from, to) partitions do not lose boundary issues
+    return JiraExpandRestClient.buildJqlBetween(filter, projects, fromMillis - 1, toMillis);
+  }
+
+  private static Set<String> withCreated(Set<String> fields) {
+    if (fields == null || fields.contains(CREATED_FIELD)) {
+      return fields;
+    }
+    Set<String> withCreated = new LinkedHashSet<>(fields);
+    withCreated.add(CREATED_FIELD);
+    return withCreated;
+  }
+
+  private static long toMillis(LocalDateTime dateTime) {
+    return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  @AllArgsConstructor
+  private static class Window {
+
+    private final long from;
+    private final long to;
+  }
+
+  @AllArgsConstructor
+  private static class Cursor {
+
+    /** created timestamp of the last issue read */
+    private final long created;
+    /** issues read with that created timestamp */
+    private final int readAtCreated;
+  }
+
+  @AllArgsConstructor
+  private static class Partition {
+
+    private final Window window;
+    private final String jql;
+    private final int total;
+  }
+}
@@ -0,0 +1,231 @@
+package fr.vvlabs.jira.client.search;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.atlassian.jira.rest.client.internal.json.IssueJsonParser;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * token based search response parser : the body is read as a stream and only one issue at a time is held as a tree,
+ * fields outside the requested set are skipped without being materialized.
+ * Jira sends the field names and schema after the issues : issues are only emitted as they are read when the names
+ * are not waited for (search without the names and schema expand, custom fields then have no name).
+ * Otherwise they are kept until the names are read, at the end of the response.
+ */
+public class StreamingSearchResultParser {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String START_AT = "startAt";
+  private static final String MAX_RESULTS = "maxResults";
+  private static final String TOTAL = "total";
+  private static final String ISSUES = "issues";
+  private static final String NAMES = "names";
+  private static final String SCHEMA = "schema";
+  private static final String FIELDS = "fields";
+  private static final String WILDCARD_PREFIX = "*";
+  private static final String EXCLUSION_PREFIX = "-";
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Parse a search response body
+   * @param body
+   * @param fields requested fields, in Jira syntax : other fields are skipped, wildcards (*all, *navigable) keep every field
+   *               but the excluded ones (-field). Null keeps every field
+   * @param waitForNames true to resolve custom field names and schema from the response, issues are then held
+   *                     until they are read. False to emit each issue as soon as it is read
+   * @param issueConsumer receives issues as they are parsed, null to collect them in the result
+   * @return search result, without issues when a consumer is given
+   * @throws IOException
+   * @throws JSONException
+   */
+  public SearchResult parse(InputStream body, @Nullable Set<String> fields, boolean waitForNames, @Nullable Consumer<Issue> issueConsumer)
+      throws IOException, JSONException {
+    final FieldFilter fieldFilter = FieldFilter.of(fields);
+    final List<Issue> issues = new ArrayList<>();
+    final Consumer<Issue> sink = issueConsumer != null ? issueConsumer : issues::add;
+    final List<JSONObject> pendingIssues = new ArrayList<>();
+    int startAt = 0;
+    int maxResults = 0;
+    int total = 0;
+    JSONObject names = null;
+    JSONObject schema = null;
+
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JSONException("search response is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        switch (name) {
+          case START_AT:
+            startAt = parser.getIntValue();
+            break;
+          case MAX_RESULTS:
+            maxResults = parser.getIntValue();
+            break;
+          case TOTAL:
+            total = parser.getIntValue();
+            break;
+          case ISSUES:
+            IssueJsonParser issueParser = names != null && schema != null || !waitForNames
+                ? new IssueJsonParser(names != null ? names : new JSONObject(), schema != null ? schema : new JSONObject())
+                : null;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              JSONObject issueJson = readIssue(parser, fieldFilter);
+              if (issueParser != null) {
+                sink.accept(issueParser.parse(issueJson));
+              } else {
+                pendingIssues.add(issueJson);
+              }
+            }
+            break;
+          case NAMES:
+            names = (JSONObject) readValue(parser);
+            break;
+          case SCHEMA:
+            schema = (JSONObject) readValue(parser);
+            break;
+          default:
+            parser.skipChildren();
+        }
+      }
+    }
+
+    if (!pendingIssues.isEmpty()) {
+      IssueJsonParser issueParser = new IssueJsonParser(names != null ? names : new JSONObject(),
+          schema != null ? schema : new JSONObject());
+      for (JSONObject issueJson : pendingIssues) {
+        sink.accept(issueParser.parse(issueJson));
+      }
+    }
+    return new SearchResult(startAt, maxResults, total, issueConsumer != null ? Collections.<Issue>emptyList() : issues);
+  }
+
+  /**
+   * Read one issue, skipping fields outside the filter
+   */
+  private static JSONObject readIssue(JsonParser parser, @Nullable FieldFilter fieldFilter) throws IOException, JSONException {
+    JSONObject issueJson = new JSONObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (FIELDS.equals(name) && token == JsonToken.START_OBJECT && fieldFilter != null) {
+        JSONObject fieldsJson = new JSONObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String fieldName = parser.getCurrentName();
+          parser.nextToken();
+          if (fieldFilter.keeps(fieldName)) {
+            fieldsJson.put(fieldName, readValue(parser));
+          } else {
+            parser.skipChildren();
+          }
+        }
+        issueJson.put(name, fieldsJson);
+      } else {
+        issueJson.put(name, readValue(parser));
+      }
+    }
+    return issueJson;
+  }
+
+  /**
+   * Read the value at the current token as a Jettison value, as expected by the Jira client parsers
+   */
+  private static Object readValue(JsonParser parser) throws IOException, JSONException {
+    switch (parser.getCurrentToken()) {
+      case START_OBJECT:
+        JSONObject object = new JSONObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          parser.nextToken();
+          object.put(name, readValue(parser));
+        }
+        return object;
+      case START_ARRAY:
+        JSONArray array = new JSONArray();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          array.put(readValue(parser));
+        }
+        return array;
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NULL:
+        return JSONObject.NULL;
+      default:
+        throw new JSONException("unexpected token " + parser.getCurrentToken());
+    }
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  /**
+   * requested fields, in Jira syntax : field ids, *all / *navigable wildcards, -field exclusions
+   */
+  private static final class FieldFilter {
+
+    private final Set<String> included = new HashSet<>();
+    private final Set<String> excluded = new HashSet<>();
+    private boolean wildcard;
+
+    /**
+     * @return filter, null if every field is kept
+     */
+    @Nullable
+    private static FieldFilter of(@Nullable Set<String> fields) {
+      if (fields == null || fields.isEmpty()) {
+        return null;
+      }
+      FieldFilter filter = new FieldFilter();
+      for (String field : fields) {
+        if (field.startsWith(WILDCARD_PREFIX)) {
+          filter.wildcard = true;
+        } else if (field.startsWith(EXCLUSION_PREFIX)) {
+          filter.excluded.add(field.substring(EXCLUSION_PREFIX.length()));
+        } else {
+          filter.included.add(field);
+        }
+      }
+      // only exclusions : Jira default fields but the excluded ones
+      if (filter.included.isEmpty()) {
+        filter.wildcard = true;
+      }
+      return filter.wildcard && filter.excluded.isEmpty() ? null : filter;
+    }
+
+    private boolean keeps(String field) {
+      return !excluded.contains(field) && (wildcard || included.contains(field));
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package fr.vvlabs.jira.client.store;
+
+import java.util.Map;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+/**
+ * local issue store query, every criterion is optional and they are combined with AND
+ */
+@Getter
+@Builder
+public class IssueQuery {
+
+  /** project keys, any of */
+  @Singular
+  private final Set<String> projects;
+
+  /** status names, any of */
+  @Singular
+  private final Set<String> statuses;
+
+  /** updated at or after, epoch millis */
+  private final Long updatedFrom;
+
+  /** updated strictly before, epoch millis */
+  private final Long updatedTo;
+
+  /** indexed custom field values, all of */
+  @Singular
+  private final Map<String, String> fieldValues;
+
+  /** maximum number of issues, most recently updated first */
+  @Builder.Default
+  private final int limit = Integer.MAX_VALUE;
+}
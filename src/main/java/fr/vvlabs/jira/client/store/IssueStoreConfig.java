@@ -0,0 +1,32 @@
+package fr.vvlabs.jira.client.store;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * local issue store settings
+ */
+@Getter
+@Builder
+public class IssueStoreConfig {
+
+  /** directory holding the segment files */
+  @NonNull
+  private final Path directory;
+
+  /** custom fields ids (customfield_10001...) stored and indexed, besides project, status and update date */
+  @Builder.Default
+  private final Set<String> indexedFields = Collections.emptySet();
+
+  /** a segment is sealed and memory-mapped once it reaches this size */
+  @Builder.Default
+  private final int segmentSize = 64 * 1024 * 1024;
+
+  /** segments are compacted when this ratio of their records is obsolete */
+  @Builder.Default
+  private final double compactionRatio = 0.5;
+}
@@ -0,0 +1,650 @@
+package fr.vvlabs.jira.client.store;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * local store of issues fetched from Jira, for reads that can live with recently synced data.
+ * Issues are appended to segment files, sealed segments are memory-mapped ; project, status, update date
+ * and selected custom fields are indexed in memory, indexes are rebuilt from the segments on open.
+ * Queries are resolved on the indexes, only the returned records are read and decoded.
+ * Writes are serialized on one writer thread, which syncs the disk once per group of queued batches.
+ */
+@Slf4j
+public class LocalIssueStore implements Closeable {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int MIN_OBSOLETE_RECORDS_TO_COMPACT = 1024;
+  private static final int CLOSE_TIMEOUT_SECONDS = 30;
+  private static final String FIELD_SUMMARY = "summary";
+  private static final String FIELD_ISSUE_TYPE = "issuetype";
+  private static final String FIELD_PROJECT = "project";
+  private static final String FIELD_STATUS = "status";
+  private static final String FIELD_ASSIGNEE = "assignee";
+  private static final String FIELD_CREATED = "created";
+  private static final String FIELD_UPDATED = "updated";
+  private static final List<String> STORED_FIELDS =
+      Arrays.asList(FIELD_SUMMARY, FIELD_ISSUE_TYPE, FIELD_PROJECT, FIELD_STATUS, FIELD_ASSIGNEE, FIELD_CREATED, FIELD_UPDATED);
+  private static final String ALL_FIELDS = "*all";
+  private static final String NAVIGABLE_FIELDS = "*navigable";
+  private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.dat");
+  private static final Comparator<Map.Entry<String, Location>> MOST_RECENT_FIRST =
+      Comparator.comparingLong((Map.Entry<String, Location> entry) -> entry.getValue().updated).reversed()
+          .thenComparing(Map.Entry::getKey);
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final IssueStoreConfig config;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+  private final Map<String, Location> byKey = new HashMap<>();
+  private final Map<String, Set<String>> byProject = new HashMap<>();
+  private final Map<String, Set<String>> byStatus = new HashMap<>();
+  private final NavigableMap<Long, Set<String>> byUpdated = new TreeMap<>();
+  private final Map<String, Map<String, Set<String>>> byField = new HashMap<>();
+  private final Queue<PendingWrite> pending = new ConcurrentLinkedQueue<>();
+  // single writer : callers never wait for the write lock nor for disk syncs
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("jira-store-%d").build());
+  private Segment active;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Open the store, creating its directory if needed
+   * @param config
+   * @throws IOException
+   */
+  public LocalIssueStore(final IssueStoreConfig config) throws IOException {
+    this.config = config;
+    config.getIndexedFields().forEach(field -> byField.put(field, new HashMap<>()));
+    Files.createDirectories(config.getDirectory());
+    load();
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        log.warn("close() pending writes to {} not completed", config.getDirectory());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    lock.writeLock().lock();
+    try {
+      for (Segment segment : segments.values()) {
+        segment.close();
+      }
+      segments.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Insert or replace issues fetched with every stored field, waiting until they are on disk
+   * @param issues
+   */
+  public void upsert(Iterable<Issue> issues) {
+    upsert(issues, null);
+  }
+
+  /**
+   * Insert or replace issues fetched with the given fields, waiting until they are on disk, see {@link #upsertAsync(Iterable, Set)}
+   * @param issues
+   * @param fetchedFields fields requested to Jira, null or empty for Jira defaults
+   */
+  public void upsert(Iterable<Issue> issues, Set<String> fetchedFields) {
+    PromiseUtils.join(upsertAsync(issues, fetchedFields));
+  }
+
+  /**
+   * Insert or replace issues fetched with the given fields : records of partially fetched issues are merged into
+   * the stored ones, and issues older than the stored ones are ignored.
+   * Issues are converted and written by the store writer thread, batches queued meanwhile share one disk sync.
+   * @param issues
+   * @param fetchedFields fields requested to Jira, null or empty for Jira defaults
+   * @return completed once the issues are on disk
+   */
+  public CompletableFuture<Void> upsertAsync(Iterable<Issue> issues, Set<String> fetchedFields) {
+    return submit(new PendingWrite(() -> {
+      List<StoredIssue> storedIssues = new ArrayList<>();
+      for (Issue issue : issues) {
+        if (issue.getKey() != null) {
+          storedIssues.add(StoredIssueCodec.fromIssue(issue, config.getIndexedFields()));
+        }
+      }
+      return storedIssues;
+    }, fetchedFields));
+  }
+
+  /**
+   * Insert or replace complete stored issues, older than the stored ones are ignored
+   * @param issues
+   */
+  public void upsertAll(Collection<StoredIssue> issues) {
+    upsertAll(issues, null);
+  }
+
+  /**
+   * Insert or replace stored issues, waiting until they are on disk, see {@link #upsertAsync(Iterable, Set)}
+   * @param issues
+   * @param fetchedFields fields requested to Jira, null or empty for Jira defaults
+   */
+  public void upsertAll(Collection<StoredIssue> issues, Set<String> fetchedFields) {
+    if (!issues.isEmpty()) {
+      PromiseUtils.join(submit(new PendingWrite(() -> issues, fetchedFields)));
+    }
+  }
+
+  /**
+   * @param key
+   * @return stored issue, null if unknown
+   */
+  public StoredIssue get(String key) {
+    lock.readLock().lock();
+    try {
+      Location location = byKey.get(key);
+      return location != null ? read(location) : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Find issues matching every criterion of the query, most recently updated first
+   * @param query
+   * @return
+   */
+  public List<StoredIssue> query(IssueQuery query) {
+    List<byte[]> records = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      List<Set<String>> criteria = criteria(query);
+      List<Map.Entry<String, Location>> matches = new ArrayList<>();
+      for (String key : candidates(query, criteria)) {
+        Location location = byKey.get(key);
+        if (matches(key, location, query, criteria)) {
+          matches.add(new AbstractMap.SimpleImmutableEntry<>(key, location));
+        }
+      }
+      matches.sort(MOST_RECENT_FIRST);
+      for (Map.Entry<String, Location> match : matches.subList(0, Math.min(matches.size(), query.getLimit()))) {
+        records.add(segments.get(match.getValue().segmentId).read(match.getValue().offset));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.readLock().unlock();
+    }
+    // records are copies, decoded without holding the lock
+    List<StoredIssue> issues = new ArrayList<>(records.size());
+    for (byte[] record : records) {
+      issues.add(decode(record));
+    }
+    return issues;
+  }
+
+  /**
+   * @return latest update date stored, epoch millis, null if the store is empty
+   */
+  public Long getLastUpdated() {
+    lock.readLock().lock();
+    try {
+      return byUpdated.isEmpty() ? null : byUpdated.lastKey();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return number of stored issues
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return byKey.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Rewrite live records into new segments, dropping replaced ones
+   */
+  public void compact() {
+    lock.writeLock().lock();
+    try {
+      List<Segment> previous = new ArrayList<>(segments.values());
+      List<StoredIssue> live = new ArrayList<>(byKey.size());
+      for (Location location : byKey.values()) {
+        live.add(read(location));
+      }
+      clearIndexes();
+      active = newSegment();
+      for (StoredIssue issue : live) {
+        write(issue);
+      }
+      active.flush();
+      for (Segment segment : previous) {
+        segments.remove(segment.getId());
+        segment.delete();
+      }
+      log.debug("compact() {} issues kept, {} segments dropped", live.size(), previous.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private CompletableFuture<Void> submit(PendingWrite write) {
+    pending.add(write);
+    try {
+      writer.execute(this::drain);
+    } catch (RejectedExecutionException e) {
+      pending.remove(write);
+      write.done.completeExceptionally(new IllegalStateException("issue store " + config.getDirectory() + " is closed"));
+    }
+    return write.done;
+  }
+
+  /**
+   * Write every queued batch, then sync the disk once for all of them
+   */
+  private void drain() {
+    List<PendingWrite> group = new ArrayList<>();
+    for (PendingWrite write = pending.poll(); write != null; write = pending.poll()) {
+      group.add(write);
+    }
+    if (group.isEmpty()) {
+      return;
+    }
+    List<PendingWrite> written = new ArrayList<>(group.size());
+    lock.writeLock().lock();
+    try {
+      for (PendingWrite write : group) {
+        try {
+          writeAll(write.records.get(), write.fetchedFields);
+          written.add(write);
+        } catch (IOException | RuntimeException e) {
+          write.done.completeExceptionally(e);
+        }
+      }
+      active.flush();
+      compactIfNeeded();
+      written.forEach(write -> write.done.complete(null));
+    } catch (IOException | RuntimeException e) {
+      written.forEach(write -> write.done.completeExceptionally(e));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Write a batch, all or nothing : records are encoded before anything is written, appended in one write
+   * to a single segment, and indexed once appended
+   */
+  private void writeAll(Collection<StoredIssue> issues, Set<String> fetchedFields) throws IOException {
+    Map<String, StoredIssue> staged = new LinkedHashMap<>();
+    for (StoredIssue issue : issues) {
+      StoredIssue previous = staged.get(issue.getKey());
+      if (previous == null) {
+        Location location = byKey.get(issue.getKey());
+        previous = location != null ? read(location) : null;
+      }
+      StoredIssue merged = merge(issue, previous, fetchedFields);
+      if (merged != null) {
+        staged.put(merged.getKey(), merged);
+      }
+    }
+    if (staged.size() < issues.size()) {
+      log.debug("writeAll(...) {} of {} issues ignored, stale, partial or repeated", issues.size() - staged.size(), issues.size());
+    }
+    if (staged.isEmpty()) {
+      return;
+    }
+    List<StoredIssue> batch = new ArrayList<>(staged.values());
+    List<byte[]> records = new ArrayList<>(batch.size());
+    long batchSize = 0;
+    for (StoredIssue issue : batch) {
+      byte[] record = StoredIssueCodec.encode(issue);
+      records.add(record);
+      batchSize += Segment.LENGTH_BYTES + record.length;
+    }
+    rollIfFull(batchSize);
+    long[] offsets = active.appendAll(records);
+    for (int i = 0; i < batch.size(); i++) {
+      index(batch.get(i), active.getId(), offsets[i]);
+    }
+  }
+
+  private void load() throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(config.getDirectory(), "segment-*.dat")) {
+      for (Path file : files) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          ids.add(Integer.valueOf(matcher.group(1)));
+        }
+      }
+    }
+    Collections.sort(ids);
+    for (Integer id : ids) {
+      Segment segment = new Segment(id, segmentPath(id));
+      segments.put(id, segment);
+      // later segments win, replaced records are marked obsolete
+      segment.scan((offset, record) -> index(StoredIssueCodec.decode(record), segment.getId(), offset));
+    }
+    for (Segment segment : segments.values()) {
+      if (segment.getSize() >= config.getSegmentSize() || segment != segments.lastEntry().getValue()) {
+        segment.seal();
+      }
+    }
+    active = segments.isEmpty() || segments.lastEntry().getValue().isSealed() ? newSegment() : segments.lastEntry().getValue();
+    log.debug("load() {} issues in {} segments from {}", byKey.size(), segments.size(), config.getDirectory());
+  }
+
+  private void write(StoredIssue issue) throws IOException {
+    byte[] record = StoredIssueCodec.encode(issue);
+    rollIfFull(Segment.LENGTH_BYTES + record.length);
+    long offset = active.append(record);
+    index(issue, active.getId(), offset);
+  }
+
+  /**
+   * Seal the active segment and start a new one if appending bytes, length prefixes included, would exceed the segment size
+   */
+  private void rollIfFull(long bytes) throws IOException {
+    if (active.getSize() > 0 && active.getSize() + bytes > config.getSegmentSize()) {
+      active.seal();
+      active = newSegment();
+    }
+  }
+
+  /**
+   * Record to write for an incoming issue, null if there is none : the stored record is more recent,
+   * or the incoming one is partial and there is nothing stored to complete it with
+   */
+  private StoredIssue merge(StoredIssue incoming, StoredIssue stored, Set<String> fetchedFields) {
+    if (stored != null && stored.getUpdated() > incoming.getUpdated()) {
+      return null;
+    }
+    if (isComplete(fetchedFields)) {
+      return incoming;
+    }
+    if (stored == null || !covers(fetchedFields, FIELD_UPDATED) || stored.getUpdated() == incoming.getUpdated()) {
+      return null;
+    }
+    Map<String, String> fields = new LinkedHashMap<>(stored.getFields());
+    for (String fieldId : config.getIndexedFields()) {
+      if (covers(fetchedFields, fieldId)) {
+        String value = incoming.getFields().get(fieldId);
+        if (value != null) {
+          fields.put(fieldId, value);
+        } else {
+          fields.remove(fieldId);
+        }
+      }
+    }
+    return new StoredIssue(stored.getId(), stored.getKey(),
+        covers(fetchedFields, FIELD_PROJECT) ? incoming.getProjectKey() : stored.getProjectKey(),
+        covers(fetchedFields, FIELD_STATUS) ? incoming.getStatus() : stored.getStatus(),
+        covers(fetchedFields, FIELD_ISSUE_TYPE) ? incoming.getIssueType() : stored.getIssueType(),
+        covers(fetchedFields, FIELD_SUMMARY) ? incoming.getSummary() : stored.getSummary(),
+        covers(fetchedFields, FIELD_ASSIGNEE) ? incoming.getAssignee() : stored.getAssignee(),
+        covers(fetchedFields, FIELD_CREATED) ? incoming.getCreated() : stored.getCreated(),
+        incoming.getUpdated(),
+        fields);
+  }
+
+  /**
+   * @return true if every stored field was fetched
+   */
+  private boolean isComplete(Set<String> fetchedFields) {
+    if (fetchedFields == null || fetchedFields.isEmpty()) {
+      return true;
+    }
+    for (String field : STORED_FIELDS) {
+      if (!covers(fetchedFields, field)) {
+        return false;
+      }
+    }
+    for (String field : config.getIndexedFields()) {
+      if (!covers(fetchedFields, field)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the field was fetched, following Jira fields syntax : *all, *navigable, -excluded
+   */
+  private static boolean covers(Set<String> fetchedFields, String field) {
+    if (fetchedFields == null || fetchedFields.isEmpty()) {
+      return true;
+    }
+    if (fetchedFields.contains("-" + field)) {
+      return false;
+    }
+    return fetchedFields.contains(field) || fetchedFields.contains(ALL_FIELDS) || fetchedFields.contains(NAVIGABLE_FIELDS);
+  }
+
+  private void index(StoredIssue issue, int segmentId, long offset) {
+    Location previous = byKey.put(issue.getKey(), new Location(segmentId, offset, issue.getUpdated()));
+    if (previous != null) {
+      segments.get(previous.segmentId).markObsolete();
+      unindex(read(previous));
+    }
+    postings(byProject, issue.getProjectKey()).add(issue.getKey());
+    postings(byStatus, issue.getStatus()).add(issue.getKey());
+    byUpdated.computeIfAbsent(issue.getUpdated(), updated -> new HashSet<>()).add(issue.getKey());
+    for (Map.Entry<String, Map<String, Set<String>>> field : byField.entrySet()) {
+      String value = issue.getFields().get(field.getKey());
+      if (value != null) {
+        postings(field.getValue(), value).add(issue.getKey());
+      }
+    }
+  }
+
+  private void unindex(StoredIssue issue) {
+    remove(byProject, issue.getProjectKey(), issue.getKey());
+    remove(byStatus, issue.getStatus(), issue.getKey());
+    remove(byUpdated, issue.getUpdated(), issue.getKey());
+    for (Map.Entry<String, Map<String, Set<String>>> field : byField.entrySet()) {
+      remove(field.getValue(), issue.getFields().get(field.getKey()), issue.getKey());
+    }
+  }
+
+  private void clearIndexes() {
+    byKey.clear();
+    byProject.clear();
+    byStatus.clear();
+    byUpdated.clear();
+    byField.values().forEach(Map::clear);
+  }
+
+  /**
+   * Keys matching each set criterion of the query : projects, statuses, custom field values
+   */
+  private List<Set<String>> criteria(IssueQuery query) {
+    List<Set<String>> criteria = new ArrayList<>();
+    if (!query.getProjects().isEmpty()) {
+      criteria.add(union(byProject, query.getProjects()));
+    }
+    if (!query.getStatuses().isEmpty()) {
+      criteria.add(union(byStatus, query.getStatuses()));
+    }
+    for (Map.Entry<String, String> fieldValue : query.getFieldValues().entrySet()) {
+      Map<String, Set<String>> index = byField.get(fieldValue.getKey());
+      if (index == null) {
+        throw new IllegalArgumentException("field " + fieldValue.getKey() + " is not indexed");
+      }
+      criteria.add(index.getOrDefault(fieldValue.getValue(), Collections.emptySet()));
+    }
+    return criteria;
+  }
+
+  /**
+   * Smallest set of keys which may match, from the most selective index
+   */
+  private Collection<String> candidates(IssueQuery query, List<Set<String>> criteria) {
+    List<Collection<String>> sets = new ArrayList<>(criteria);
+    if (query.getUpdatedFrom() != null || query.getUpdatedTo() != null) {
+      NavigableMap<Long, Set<String>> range = byUpdated.subMap(
+          query.getUpdatedFrom() != null ? query.getUpdatedFrom() : Long.MIN_VALUE, true,
+          query.getUpdatedTo() != null ? query.getUpdatedTo() : Long.MAX_VALUE, false);
+      List<String> keys = new ArrayList<>();
+      range.values().forEach(keys::addAll);
+      sets.add(keys);
+    }
+    return sets.stream().min(Comparator.comparingInt(Collection::size)).orElse(byKey.keySet());
+  }
+
+  private static boolean matches(String key, Location location, IssueQuery query, List<Set<String>> criteria) {
+    if (query.getUpdatedFrom() != null && location.updated < query.getUpdatedFrom()) {
+      return false;
+    }
+    if (query.getUpdatedTo() != null && location.updated >= query.getUpdatedTo()) {
+      return false;
+    }
+    for (Set<String> keys : criteria) {
+      if (!keys.contains(key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void compactIfNeeded() {
+    int records = 0;
+    int obsolete = 0;
+    for (Segment segment : segments.values()) {
+      records += segment.getRecords();
+      obsolete += segment.getObsoleteRecords();
+    }
+    if (obsolete >= MIN_OBSOLETE_RECORDS_TO_COMPACT && obsolete >= records * config.getCompactionRatio()) {
+      compact();
+    }
+  }
+
+  private StoredIssue read(Location location) {
+    try {
+      return StoredIssueCodec.decode(segments.get(location.segmentId).read(location.offset));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static StoredIssue decode(byte[] record) {
+    try {
+      return StoredIssueCodec.decode(record);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Segment newSegment() throws IOException {
+    int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+    Segment segment = new Segment(id, segmentPath(id));
+    segments.put(id, segment);
+    return segment;
+  }
+
+  private Path segmentPath(int id) {
+    return config.getDirectory().resolve(String.format("segment-%06d.dat", id));
+  }
+
+  private static <K> Set<String> postings(Map<K, Set<String>> index, K value) {
+    return index.computeIfAbsent(value, v -> new HashSet<>());
+  }
+
+  private static <K> void remove(Map<K, Set<String>> index, K value, String key) {
+    Set<String> keys = index.get(value);
+    if (keys != null && keys.remove(key) && keys.isEmpty()) {
+      index.remove(value);
+    }
+  }
+
+  private static Set<String> union(Map<String, Set<String>> index, Set<String> values) {
+    Set<String> keys = new HashSet<>();
+    values.forEach(value -> keys.addAll(index.getOrDefault(value, Collections.emptySet())));
+    return keys;
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  @AllArgsConstructor
+  private static class PendingWrite {
+
+    private final Supplier<Collection<StoredIssue>> records;
+    private final Set<String> fetchedFields;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+  }
+
+  /**
+   * record position, with the update date to sort query results without reading records
+   */
+  @AllArgsConstructor
+  private static class Location {
+
+    private final int segmentId;
+    private final long offset;
+    private final long updated;
+  }
+}
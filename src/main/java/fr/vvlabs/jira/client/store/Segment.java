@@ -0,0 +1,245 @@
+package fr.vvlabs.jira.client.store;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * append-only file of length prefixed records, memory-mapped once sealed.
+ * The mapping is released on close, callers must not read a segment while closing it.
+ */
+@Slf4j
+final class Segment implements Closeable {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  static final int LENGTH_BYTES = Integer.BYTES;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Getter
+  private final int id;
+  @Getter
+  private final Path path;
+  private final FileChannel channel;
+  private MappedByteBuffer mapped;
+  @Getter
+  private long size;
+  @Getter
+  private int records;
+  @Getter
+  private int obsoleteRecords;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  Segment(final int id, final Path path) throws IOException {
+    this.id = id;
+    this.path = path;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.size = channel.size();
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void close() throws IOException {
+    if (mapped == null) {
+      channel.force(false);
+    } else {
+      unmap(mapped);
+      mapped = null;
+    }
+    channel.close();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Append a record
+   * @return record offset
+   */
+  long append(byte[] record) throws IOException {
+    if (mapped != null) {
+      throw new IllegalStateException("segment " + id + " is sealed");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(LENGTH_BYTES + record.length);
+    buffer.putInt(record.length).put(record).flip();
+    long offset = size;
+    long position = offset;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+    size = position;
+    records++;
+    return offset;
+  }
+
+  /**
+   * Append records in one write, none of them if the write fails
+   * @return records offsets
+   */
+  long[] appendAll(List<byte[]> batch) throws IOException {
+    if (mapped != null) {
+      throw new IllegalStateException("segment " + id + " is sealed");
+    }
+    int length = 0;
+    for (byte[] record : batch) {
+      length = Math.addExact(length, LENGTH_BYTES + record.length);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    long[] offsets = new long[batch.size()];
+    for (int i = 0; i < batch.size(); i++) {
+      offsets[i] = size + buffer.position();
+      buffer.putInt(batch.get(i).length).put(batch.get(i));
+    }
+    buffer.flip();
+    long position = size;
+    try {
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+    } catch (IOException e) {
+      // drop the partly written batch
+      channel.truncate(size);
+      throw e;
+    }
+    size = position;
+    records += batch.size();
+    return offsets;
+  }
+
+  /**
+   * Read the record at offset
+   */
+  byte[] read(long offset) throws IOException {
+    if (mapped != null) {
+      ByteBuffer view = mapped.duplicate();
+      view.position((int) offset);
+      byte[] record = new byte[view.getInt()];
+      view.get(record);
+      return record;
+    }
+    ByteBuffer length = readFully(offset, LENGTH_BYTES);
+    return readFully(offset + LENGTH_BYTES, length.getInt()).array();
+  }
+
+  /**
+   * Visit every record, in file order. An incomplete trailing record, left by an interrupted write, is truncated.
+   */
+  void scan(RecordVisitor visitor) throws IOException {
+    long offset = 0;
+    while (offset + LENGTH_BYTES <= size) {
+      int length = readFully(offset, LENGTH_BYTES).getInt();
+      if (length < 0 || offset + LENGTH_BYTES + length > size) {
+        break;
+      }
+      visitor.visit(offset, readFully(offset + LENGTH_BYTES, length).array());
+      records++;
+      offset += LENGTH_BYTES + length;
+    }
+    if (offset < size) {
+      log.warn("scan() truncating {} bytes of incomplete record in {}", size - offset, path);
+      channel.truncate(offset);
+      size = offset;
+    }
+  }
+
+  /**
+   * Stop appending, map the file for reads
+   */
+  void seal() throws IOException {
+    if (mapped == null) {
+      channel.force(false);
+      mapped = channel.map(MapMode.READ_ONLY, 0, size);
+    }
+  }
+
+  boolean isSealed() {
+    return mapped != null;
+  }
+
+  void markObsolete() {
+    obsoleteRecords++;
+  }
+
+  void flush() throws IOException {
+    if (mapped == null) {
+      channel.force(false);
+    }
+  }
+
+  void delete() throws IOException {
+    close();
+    Files.deleteIfExists(path);
+  }
+
+  /**
+   * Release a mapping now rather than when the buffer is garbage collected : until then the file stays mapped,
+   * and a deleted segment keeps its disk space. No JDK API does it, the cleaner is called as Lucene or Netty do.
+   */
+  private void unmap(MappedByteBuffer buffer) {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      try {
+        // Java 9+
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      } catch (NoSuchMethodException e) {
+        // Java 8
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("unmap() {} left to garbage collection : {}", path, e.toString());
+    }
+  }
+
+  private ByteBuffer readFully(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    long current = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, current);
+      if (read < 0) {
+        throw new EOFException("unexpected end of " + path);
+      }
+      current += read;
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  interface RecordVisitor {
+
+    void visit(long offset, byte[] record) throws IOException;
+  }
+}
@@ -0,0 +1,30 @@
+package fr.vvlabs.jira.client.store;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * compact projection of an issue, as kept by {@link LocalIssueStore}
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StoredIssue {
+
+  private final long id;
+  private final String key;
+  private final String projectKey;
+  private final String status;
+  private final String issueType;
+  private final String summary;
+  /** assignee name, null if unassigned */
+  private final String assignee;
+  /** epoch millis */
+  private final long created;
+  /** epoch millis */
+  private final long updated;
+  /** values of indexed custom fields, as text */
+  private final Map<String, String> fields;
+}
@@ -0,0 +1,158 @@
+package fr.vvlabs.jira.client.store;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.IssueField;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * binary layout of a {@link StoredIssue} record
+ */
+final class StoredIssueCodec {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final byte VERSION = 1;
+  private static final int NULL_LENGTH = -1;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private StoredIssueCodec() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Project an issue, keeping indexed custom fields only
+   */
+  static StoredIssue fromIssue(Issue issue, Set<String> indexedFields) {
+    Map<String, String> fields = new LinkedHashMap<>();
+    for (String fieldId : indexedFields) {
+      IssueField field = issue.getField(fieldId);
+      String value = field != null ? toText(field.getValue()) : null;
+      if (value != null) {
+        fields.put(fieldId, value);
+      }
+    }
+    return new StoredIssue(
+        issue.getId() != null ? issue.getId() : -1L,
+        issue.getKey(),
+        issue.getProject() != null ? issue.getProject().getKey() : null,
+        issue.getStatus() != null ? issue.getStatus().getName() : null,
+        issue.getIssueType() != null ? issue.getIssueType().getName() : null,
+        issue.getSummary(),
+        issue.getAssignee() != null ? issue.getAssignee().getName() : null,
+        issue.getCreationDate() != null ? issue.getCreationDate().getMillis() : 0L,
+        issue.getUpdateDate() != null ? issue.getUpdateDate().getMillis() : 0L,
+        fields);
+  }
+
+  static byte[] encode(StoredIssue issue) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      out.writeLong(issue.getId());
+      writeString(out, issue.getKey());
+      writeString(out, issue.getProjectKey());
+      writeString(out, issue.getStatus());
+      writeString(out, issue.getIssueType());
+      writeString(out, issue.getSummary());
+      writeString(out, issue.getAssignee());
+      out.writeLong(issue.getCreated());
+      out.writeLong(issue.getUpdated());
+      out.writeShort(issue.getFields().size());
+      for (Map.Entry<String, String> field : issue.getFields().entrySet()) {
+        writeString(out, field.getKey());
+        writeString(out, field.getValue());
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  static StoredIssue decode(byte[] record) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      byte version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("unsupported record version " + version);
+      }
+      long id = in.readLong();
+      String key = readString(in);
+      String projectKey = readString(in);
+      String status = readString(in);
+      String issueType = readString(in);
+      String summary = readString(in);
+      String assignee = readString(in);
+      long created = in.readLong();
+      long updated = in.readLong();
+      int fieldCount = in.readUnsignedShort();
+      Map<String, String> fields = new LinkedHashMap<>(fieldCount * 2);
+      for (int i = 0; i < fieldCount; i++) {
+        fields.put(readString(in), readString(in));
+      }
+      return new StoredIssue(id, key, projectKey, status, issueType, summary, assignee, created, updated, fields);
+    }
+  }
+
+  /**
+   * Length prefixed UTF-8 bytes, -1 for null
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(NULL_LENGTH);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Text of a field value : option value or name for objects, comma separated for arrays
+   */
+  private static String toText(Object value) {
+    if (value == null || JSONObject.NULL.equals(value)) {
+      return null;
+    }
+    if (value instanceof JSONObject) {
+      JSONObject object = (JSONObject) value;
+      return object.has("value") ? object.optString("value") : object.optString("name", object.toString());
+    }
+    if (value instanceof JSONArray) {
+      JSONArray array = (JSONArray) value;
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < array.length(); i++) {
+        String item = toText(array.opt(i));
+        if (item != null) {
+          text.append(text.length() > 0 ? "," : "").append(item);
+        }
+      }
+      return text.toString();
+    }
+    return value.toString();
+  }
+}
@@ -0,0 +1,98 @@
+package fr.vvlabs.jira.client.sync;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * watermark store writing one properties file per query in a local directory.
+ * Files are written to a temporary file then moved, so a crash never leaves a partial watermark.
+ */
+public class FileWatermarkStore implements WatermarkStore {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String UPDATED_PROPERTY = "updated";
+  private static final String DELIVERED_PROPERTY = "delivered";
+  private static final String FILE_EXTENSION = ".watermark";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final Path directory;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new file watermark store
+   * @param directory created if missing
+   */
+  public FileWatermarkStore(final Path directory) {
+    this.directory = directory;
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public Watermark load(String queryId) {
+    Path file = fileOf(queryId);
+    if (!Files.exists(file)) {
+      return Watermark.initial();
+    }
+    Properties properties = new Properties();
+    try (InputStream in = Files.newInputStream(file)) {
+      properties.load(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    Map<Long, Long> delivered = new HashMap<>();
+    for (String entry : StringUtils.split(properties.getProperty(DELIVERED_PROPERTY, ""), ',')) {
+      String[] idAndUpdated = StringUtils.split(entry, ':');
+      delivered.put(Long.parseLong(idAndUpdated[0]), Long.parseLong(idAndUpdated[1]));
+    }
+    return new Watermark(Long.parseLong(properties.getProperty(UPDATED_PROPERTY, "0")), delivered);
+  }
+
+  @Override
+  public synchronized void save(String queryId, Watermark watermark) {
+    Properties properties = new Properties();
+    properties.setProperty(UPDATED_PROPERTY, Long.toString(watermark.getUpdatedMillis()));
+    properties.setProperty(DELIVERED_PROPERTY, watermark.getDeliveredIssues().entrySet().stream()
+        .map(entry -> entry.getKey() + ":" + entry.getValue()).collect(Collectors.joining(",")));
+    Path file = fileOf(queryId);
+    try {
+      Files.createDirectories(directory);
+      Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        properties.store(out, "incremental sync watermark of " + queryId);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  private Path fileOf(String queryId) {
+    return directory.resolve(queryId.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_EXTENSION);
+  }
+}
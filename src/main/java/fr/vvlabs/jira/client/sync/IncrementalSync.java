@@ -0,0 +1,124 @@
+package fr.vvlabs.jira.client.sync;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import fr.vvlabs.jira.client.JiraExpandRestClient;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * incremental sync of a JQL query, driven by a persisted watermark.
+ * Issues are read by "updated" ascending, each page is handed to the consumer then the watermark is committed,
+ * so a crashed run resumes from the last committed page. Issues updated inside the overlap window are queried again
+ * and issues already delivered (same id and updated timestamp) are skipped.
+ */
+@Slf4j
+public class IncrementalSync {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final JiraExpandRestClient client;
+  private final WatermarkStore watermarkStore;
+  private final IncrementalSyncConfig config;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new incremental sync
+   * @param client
+   * @param watermarkStore
+   * @param config
+   */
+  public IncrementalSync(final JiraExpandRestClient client, final WatermarkStore watermarkStore, final IncrementalSyncConfig config) {
+    this.client = client;
+    this.watermarkStore = watermarkStore;
+    this.config = config;
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Deliver every issue updated since the last run of this query
+   * @param queryId identifies the watermark of this query
+   * @param customJQL filter, without ORDER BY clause
+   * @param projects
+   * @param fields must include "updated" when set
+   * @param expandos
+   * @param pageConsumer receives new or updated issues, page by page, in updated order
+   * @return
+   */
+  public SyncReport sync(String queryId, String customJQL, Set<String> projects, Set<String> fields, Set<String> expandos,
+      Consumer<List<Issue>> pageConsumer) {
+    final String baseJql = JiraExpandRestClient.buildJqlBetween(customJQL, projects, null, null);
+    final long overlapMillis = config.getOverlap().toMillis();
+    Watermark watermark = watermarkStore.load(queryId);
+    log.debug("Incremental sync {} from watermark {}", queryId, watermark);
+
+    long lowerBound = Math.max(0, watermark.getUpdatedMillis() - overlapMillis);
+    int startAt = 0;
+    int pages = 0;
+    int delivered = 0;
+    int skipped = 0;
+    while (true) {
+      SearchResult page = PromiseUtils.join(client.searchJqlAsync(jqlFrom(baseJql, lowerBound), config.getPageSize(), startAt, fields, expandos));
+      pages++;
+      List<Issue> issues = new ArrayList<>();
+      page.getIssues().forEach(issues::add);
+
+      List<Issue> fresh = new ArrayList<>();
+      Map<Long, Long> deliveries = new HashMap<>();
+      long maxUpdated = lowerBound;
+      for (Issue issue : issues) {
+        long updated = issue.getUpdateDate() != null ? issue.getUpdateDate().getMillis() : 0L;
+        maxUpdated = Math.max(maxUpdated, updated);
+        if (watermark.isDelivered(issue.getId(), updated)) {
+          skipped++;
+        } else {
+          fresh.add(issue);
+          deliveries.put(issue.getId(), updated);
+        }
+      }
+      if (!fresh.isEmpty()) {
+        pageConsumer.accept(fresh);
+        delivered += fresh.size();
+        // commit only once the consumer has handled the page
+        watermark = watermark.advance(deliveries, overlapMillis);
+        watermarkStore.save(queryId, watermark);
+      }
+
+      int effectivePageSize = page.getMaxResults() > 0 ? page.getMaxResults() : config.getPageSize();
+      if (issues.size() < effectivePageSize || startAt + issues.size() >= page.getTotal()) {
+        break;
+      }
+      // keyset pagination : query again from the last timestamp, issues moving to the end while we read are not skipped
+      if (maxUpdated == lowerBound) {
+        // more issues share this timestamp than a page holds
+        startAt += issues.size();
+      } else {
+        lowerBound = maxUpdated;
+        startAt = 0;
+      }
+    }
+    log.info("Incremental sync {} : {} issues delivered, {} duplicates skipped, {} pages", queryId, delivered, skipped, pages);
+    return new SyncReport(pages, delivered, skipped, watermark);
+  }
+
+  private static String jqlFrom(String baseJql, long lowerBoundMillis) {
+    String updatedFilter = "updated >= " + lowerBoundMillis;
+    String filter = StringUtils.isNotBlank(baseJql) ? "(" + baseJql + ") AND " + updatedFilter : updatedFilter;
+    return filter + " ORDER BY updated ASC, id ASC";
+  }
+}
@@ -0,0 +1,21 @@
+package fr.vvlabs.jira.client.sync;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * incremental sync settings
+ */
+@Getter
+@Builder
+public class IncrementalSyncConfig {
+
+  /** issues updated this long before the watermark are queried again, to catch late index updates */
+  @Builder.Default
+  private final Duration overlap = Duration.ofMinutes(2);
+
+  /** issues per search page */
+  @Builder.Default
+  private final int pageSize = 100;
+}
@@ -0,0 +1,19 @@
+package fr.vvlabs.jira.client.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * outcome of an incremental sync run
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SyncReport {
+
+  private final int pages;
+  private final int deliveredIssues;
+  private final int skippedDuplicates;
+  private final Watermark watermark;
+}
@@ -0,0 +1,63 @@
+package fr.vvlabs.jira.client.sync;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * high-water mark of an incremental sync : last committed "updated" timestamp,
+ * and issues already delivered inside the overlap window (issue id -> updated millis)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class Watermark {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final long updatedMillis;
+  private final Map<Long, Long> deliveredIssues;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return watermark of a query never synced
+   */
+  public static Watermark initial() {
+    return new Watermark(0L, Collections.emptyMap());
+  }
+
+  /**
+   * @param issueId
+   * @param updatedMillis
+   * @return true if this version of the issue was already delivered
+   */
+  public boolean isDelivered(long issueId, long updatedMillis) {
+    Long delivered = deliveredIssues.get(issueId);
+    return delivered != null && delivered >= updatedMillis;
+  }
+
+  /**
+   * @param newDeliveries issue id -> updated millis
+   * @param overlapMillis
+   * @return watermark moved after the new deliveries, forgetting issues older than the overlap window
+   */
+  public Watermark advance(Map<Long, Long> newDeliveries, long overlapMillis) {
+    long newUpdatedMillis = updatedMillis;
+    Map<Long, Long> delivered = new HashMap<>(deliveredIssues);
+    for (Map.Entry<Long, Long> entry : newDeliveries.entrySet()) {
+      delivered.merge(entry.getKey(), entry.getValue(), Math::max);
+      newUpdatedMillis = Math.max(newUpdatedMillis, entry.getValue());
+    }
+    final long oldest = newUpdatedMillis - overlapMillis;
+    delivered.values().removeIf(updated -> updated < oldest);
+    return new Watermark(newUpdatedMillis, delivered);
+  }
+}
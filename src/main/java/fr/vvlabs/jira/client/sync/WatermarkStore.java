@@ -0,0 +1,20 @@
+package fr.vvlabs.jira.client.sync;
+
+/**
+ * persistence of incremental sync watermarks, by query id
+ */
+public interface WatermarkStore {
+
+  /**
+   * @param queryId
+   * @return stored watermark, initial watermark if the query was never synced
+   */
+  Watermark load(String queryId);
+
+  /**
+   * Store watermark, replacing the previous one atomically
+   * @param queryId
+   * @param watermark
+   */
+  void save(String queryId, Watermark watermark);
+}
@@ -0,0 +1,106 @@
+package fr.vvlabs.jira.client.throttle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AIMD concurrency limit : grows by about one per round of successful calls at normal latency,
+ * shrinks multiplicatively when Jira throttles us, and slowly when latency rises above the best observed one
+ */
+class AdaptiveConcurrencyLimiter {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  /** best latency is forgotten regularly, to follow changes of the server baseline */
+  private static final int MIN_LATENCY_WINDOW = 1000;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final ThrottleConfig config;
+  private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+  private long minLatencyNanos = Long.MAX_VALUE;
+  private int samples;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  AdaptiveConcurrencyLimiter(final ThrottleConfig config) {
+    this.config = config;
+    this.limit = Math.max(config.getMinConcurrency(), Math.min(config.getMaxConcurrency(), config.getInitialConcurrency()));
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return future completed when a slot is available
+   */
+  synchronized CompletableFuture<Void> acquire() {
+    if (inFlight < (int) limit) {
+      inFlight++;
+      return CompletableFuture.completedFuture(null);
+    }
+    CompletableFuture<Void> waiter = new CompletableFuture<>();
+    waiters.add(waiter);
+    return waiter;
+  }
+
+  /**
+   * Release a slot and adjust the limit
+   * @param latencyNanos latency of the call, negative if the call was not made
+   * @param overloaded true if Jira throttled us or the call timed out
+   */
+  void release(long latencyNanos, boolean overloaded) {
+    List<CompletableFuture<Void>> granted = new ArrayList<>();
+    synchronized (this) {
+      inFlight--;
+      if (overloaded) {
+        limit = Math.max(config.getMinConcurrency(), limit * config.getBackoffRatio());
+      } else if (latencyNanos >= 0) {
+        onSuccess(latencyNanos);
+      }
+      while (inFlight < (int) limit && !waiters.isEmpty()) {
+        inFlight++;
+        granted.add(waiters.poll());
+      }
+    }
+    // complete outside the lock, continuations start the waiting calls
+    granted.forEach(waiter -> waiter.complete(null));
+  }
+
+  private void onSuccess(long latencyNanos) {
+    if (++samples >= MIN_LATENCY_WINDOW) {
+      samples = 0;
+      minLatencyNanos = latencyNanos;
+    }
+    minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+    if (latencyNanos <= minLatencyNanos * config.getLatencyTolerance()) {
+      limit = Math.min(config.getMaxConcurrency(), limit + 1.0 / limit);
+    } else {
+      limit = Math.max(config.getMinConcurrency(), limit - 1.0 / limit);
+    }
+  }
+
+  synchronized double getLimit() {
+    return limit;
+  }
+
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  synchronized int getQueueDepth() {
+    return waiters.size();
+  }
+}
@@ -0,0 +1,177 @@
+package fr.vvlabs.jira.client.throttle;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.retry.RestErrors;
+import java.io.Closeable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * sits in front of every Jira call : a call first waits for a slot of the adaptive concurrency limit,
+ * then for a token of the rate limiter. Waiting never blocks a thread.
+ */
+@Slf4j
+public class JiraThrottle implements Closeable {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final TokenBucket tokenBucket;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final ScheduledExecutorService scheduler;
+  private final LongAdder startedCalls = new LongAdder();
+  private final LongAdder throttledCalls = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new throttle
+   * @param config
+   */
+  public JiraThrottle(final ThrottleConfig config) {
+    this.tokenBucket = new TokenBucket(config.getPermitsPerSecond(), config.getBurst());
+    this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(config);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("jira-throttle-%d").build());
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Execute call once a concurrency slot and a rate limit token are available
+   * @param call
+   * @param <T>
+   * @return
+   */
+  public <T> CompletableFuture<T> execute(Supplier<? extends CompletionStage<T>> call) {
+    final long enqueuedAt = System.nanoTime();
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    concurrencyLimiter.acquire().thenRun(() -> {
+      if (result.isDone()) {
+        // cancelled while waiting for a slot
+        concurrencyLimiter.release(-1, false);
+        return;
+      }
+      long waitNanos = tokenBucket.reserve();
+      if (waitNanos == 0) {
+        start(call, enqueuedAt, result);
+        return;
+      }
+      try {
+        scheduler.schedule(() -> start(call, enqueuedAt, result), waitNanos, TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        // throttle closed
+        concurrencyLimiter.release(-1, false);
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Execute a blocking call on the caller thread once a concurrency slot and a rate limit token are available,
+   * the caller thread waits for both
+   * @param call
+   * @param <T>
+   * @return call result
+   * @throws CancellationException if the caller thread is interrupted while waiting
+   */
+  public <T> T executeBlocking(Supplier<T> call) {
+    final long enqueuedAt = System.nanoTime();
+    final CompletableFuture<Void> slot = concurrencyLimiter.acquire();
+    try {
+      slot.get();
+      long waitNanos = tokenBucket.reserve();
+      if (waitNanos > 0) {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      // the slot is given back once granted
+      slot.thenRun(() -> concurrencyLimiter.release(-1, false));
+      throw new CancellationException("interrupted while waiting for the Jira throttle");
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("concurrency slot not granted", e.getCause());
+    }
+    final long startedAt = System.nanoTime();
+    startedCalls.increment();
+    totalWaitNanos.add(startedAt - enqueuedAt);
+    boolean overloaded = false;
+    try {
+      return call.get();
+    } catch (RuntimeException e) {
+      overloaded = isOverload(PromiseUtils.unwrap(e));
+      if (overloaded) {
+        throttledCalls.increment();
+        log.debug("Jira is overloaded, concurrency limit reduced : {}", concurrencyLimiter.getLimit());
+      }
+      throw e;
+    } finally {
+      concurrencyLimiter.release(System.nanoTime() - startedAt, overloaded);
+    }
+  }
+
+  /**
+   * @return current limit, queue depth and wait time
+   */
+  public ThrottleMetrics getMetrics() {
+    return new ThrottleMetrics(concurrencyLimiter.getLimit(), concurrencyLimiter.getInFlight(), concurrencyLimiter.getQueueDepth(),
+        startedCalls.sum(), throttledCalls.sum(), TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()));
+  }
+
+  private <T> void start(Supplier<? extends CompletionStage<T>> call, long enqueuedAt, CompletableFuture<T> result) {
+    if (result.isDone()) {
+      // cancelled while waiting for a token
+      concurrencyLimiter.release(-1, false);
+      return;
+    }
+    final long startedAt = System.nanoTime();
+    startedCalls.increment();
+    totalWaitNanos.add(startedAt - enqueuedAt);
+    CompletableFuture<T> started = PromiseUtils.invoke(call);
+    PromiseUtils.propagateCancellation(result, started);
+    started.whenComplete((value, error) -> {
+      boolean overloaded = error != null && isOverload(PromiseUtils.unwrap(error));
+      if (overloaded) {
+        throttledCalls.increment();
+        log.debug("Jira is overloaded, concurrency limit reduced : {}", concurrencyLimiter.getLimit());
+      }
+      // a cancelled call gives no latency sample
+      concurrencyLimiter.release(result.isCancelled() ? -1 : System.nanoTime() - startedAt, overloaded);
+      if (error != null) {
+        result.completeExceptionally(PromiseUtils.unwrap(error));
+      } else {
+        result.complete(value);
+      }
+    });
+  }
+
+  private static boolean isOverload(Throwable cause) {
+    return RestErrors.isThrottled(cause) || RestErrors.isTimeout(cause);
+  }
+}
@@ -0,0 +1,40 @@
+package fr.vvlabs.jira.client.throttle;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * client side rate limit and adaptive concurrency settings
+ */
+@Getter
+@Builder
+public class ThrottleConfig {
+
+  /** sustained request rate */
+  @Builder.Default
+  private final double permitsPerSecond = 20;
+
+  /** requests allowed in a burst above the sustained rate */
+  @Builder.Default
+  private final int burst = 20;
+
+  /** concurrency limit at startup */
+  @Builder.Default
+  private final int initialConcurrency = 8;
+
+  /** concurrency limit lower bound */
+  @Builder.Default
+  private final int minConcurrency = 1;
+
+  /** concurrency limit upper bound */
+  @Builder.Default
+  private final int maxConcurrency = 64;
+
+  /** limit is multiplied by this factor when Jira throttles us (429 / 503) or a call times out */
+  @Builder.Default
+  private final double backoffRatio = 0.7;
+
+  /** calls slower than this factor of the best observed latency shrink the limit */
+  @Builder.Default
+  private final double latencyTolerance = 2.0;
+}
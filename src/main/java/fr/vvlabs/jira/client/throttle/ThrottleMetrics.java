@@ -0,0 +1,39 @@
+package fr.vvlabs.jira.client.throttle;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * snapshot of the throttle state
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ThrottleMetrics {
+
+  /** current adaptive concurrency limit */
+  private final double concurrencyLimit;
+
+  /** calls currently running */
+  private final int inFlight;
+
+  /** calls waiting for a concurrency slot */
+  private final int queueDepth;
+
+  /** calls started since creation */
+  private final long startedCalls;
+
+  /** calls answered with 429 / 503 or timed out */
+  private final long throttledCalls;
+
+  /** cumulated wait (concurrency slot + rate limit) before calls started, in milliseconds */
+  private final long totalWaitMillis;
+
+  /**
+   * @return average wait before a call started, in milliseconds
+   */
+  public double getAverageWaitMillis() {
+    return startedCalls == 0 ? 0 : (double) totalWaitMillis / startedCalls;
+  }
+}
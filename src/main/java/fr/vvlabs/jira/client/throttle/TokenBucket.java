@@ -0,0 +1,45 @@
+package fr.vvlabs.jira.client.throttle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * token bucket with reservations : callers get the delay to wait instead of being blocked
+ */
+class TokenBucket {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final double permitsPerNano;
+  private final double burst;
+  private double tokens;
+  private long lastRefillNanos;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  TokenBucket(final double permitsPerSecond, final int burst) {
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.burst = Math.max(1, burst);
+    this.tokens = this.burst;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Reserve one permit. Tokens may go negative : later callers then wait for the debt to be refilled.
+   * @return nanoseconds to wait before using the permit, 0 if available now
+   */
+  synchronized long reserve() {
+    long now = System.nanoTime();
+    tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+    lastRefillNanos = now;
+    tokens -= 1;
+    return tokens >= 0 ? 0 : (long) (-tokens / permitsPerNano);
+  }
+}
@@ -0,0 +1,59 @@
+package fr.vvlabs.jira.client.transport;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * HTTP transport settings : connection pool, connection lifetime, timeouts and IO threads
+ */
+@Getter
+@Builder
+public class HttpTransportConfig {
+
+  /** pooled connections, all hosts */
+  @Builder.Default
+  private final int maxTotalConnections = 64;
+
+  /** pooled connections per host, the ceiling of concurrent calls to one Jira */
+  @Builder.Default
+  private final int maxConnectionsPerHost = 64;
+
+  /**
+   * maximum lifetime of a pooled connection, idle or not. Connections closed by Jira while idle are dropped
+   * by the IO reactor, this bounds the ones silently lost on the network
+   */
+  @Builder.Default
+  private final Duration connectionTimeToLive = Duration.ofMinutes(5);
+
+  /** TCP connect timeout */
+  @Builder.Default
+  private final Duration connectionTimeout = Duration.ofSeconds(5);
+
+  /** inactivity timeout while reading a response */
+  @Builder.Default
+  private final Duration socketTimeout = Duration.ofSeconds(30);
+
+  /** whole request timeout */
+  @Builder.Default
+  private final Duration requestTimeout = Duration.ofSeconds(90);
+
+  /** IO reactor threads */
+  @Builder.Default
+  private final int ioThreads = Runtime.getRuntime().availableProcessors();
+
+  /** threads running response callbacks (parsing) */
+  @Builder.Default
+  private final int callbackThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  /** transport thread names prefix */
+  @Builder.Default
+  private final String threadPrefix = "jira-http";
+
+  /**
+   * @return default settings
+   */
+  public static HttpTransportConfig defaults() {
+    return HttpTransportConfig.builder().build();
+  }
+}
@@ -0,0 +1,271 @@
+package fr.vvlabs.jira.client.transport;
+
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.factory.HttpClientOptions;
+import com.atlassian.httpclient.apache.httpcomponents.DefaultHttpClientFactory;
+import com.atlassian.jira.rest.client.api.AuthenticationHandler;
+import com.atlassian.jira.rest.client.internal.async.AtlassianHttpClientDecorator;
+import com.atlassian.jira.rest.client.internal.async.DisposableHttpClient;
+import com.atlassian.sal.api.ApplicationProperties;
+import com.atlassian.sal.api.UrlMode;
+import com.atlassian.sal.api.executor.ThreadLocalContextManager;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * pooled HTTP transport, shared by every client created on it : each client keeps its own authentication,
+ * connections are pooled once. Throttling responses fail with a {@link fr.vvlabs.jira.client.retry.RetryAfterException}
+ * carrying their Retry-After delay. Based on JRJC AsynchronousHttpClientFactory, with configurable options.
+ */
+@Slf4j
+public class JiraHttpTransport implements Closeable {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String JRJC_POM_PROPERTIES = "/META-INF/maven/com.atlassian.jira/jira-rest-java-client-api/pom.properties";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Getter
+  private final HttpTransportConfig config;
+  private final DefaultHttpClientFactory<Object> httpClientFactory;
+  private final HttpClient pooledHttpClient;
+  private final HttpClient httpClient;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new transport
+   * @param config
+   */
+  public JiraHttpTransport(final HttpTransportConfig config) {
+    this.config = config;
+    this.httpClientFactory = new DefaultHttpClientFactory<>(new NoOpEventPublisher(), new TransportApplicationProperties(),
+        new NoOpThreadLocalContextManager());
+    this.pooledHttpClient = httpClientFactory.create(toHttpClientOptions(config));
+    this.httpClient = new RetryAfterHttpClient(pooledHttpClient);
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void close() {
+    try {
+      httpClientFactory.dispose(pooledHttpClient);
+    } catch (Exception e) {
+      log.warn("close() could not dispose HTTP client : {}", e.getMessage());
+    }
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * Build a client view of the pooled transport, destroying it leaves the pool open
+   * @param authenticationHandler
+   * @return
+   */
+  public DisposableHttpClient createClient(AuthenticationHandler authenticationHandler) {
+    return new AtlassianHttpClientDecorator(httpClient, authenticationHandler) {
+      @Override
+      public void destroy() {
+        // the pool belongs to the transport, closed with it
+      }
+    };
+  }
+
+  /**
+   * Expose the Retry-After delay of throttling responses on a client not created by a transport
+   * @param httpClient
+   * @return client failing throttling responses with a {@link fr.vvlabs.jira.client.retry.RetryAfterException}
+   */
+  public static HttpClient withRetryAfter(HttpClient httpClient) {
+    return new RetryAfterHttpClient(httpClient);
+  }
+
+  /**
+   * Expose the Retry-After delay of throttling responses on a client not created by a transport
+   * @param httpClient client to wrap, destroyed with the returned one
+   * @param authenticationHandler authentication of httpClient, applied to the requests of the returned client
+   * @return client failing throttling responses with a {@link fr.vvlabs.jira.client.retry.RetryAfterException}
+   */
+  public static DisposableHttpClient withRetryAfter(DisposableHttpClient httpClient, AuthenticationHandler authenticationHandler) {
+    return new AtlassianHttpClientDecorator(new RetryAfterHttpClient(httpClient), authenticationHandler) {
+      @Override
+      public void destroy() throws Exception {
+        httpClient.destroy();
+      }
+    };
+  }
+
+  private static HttpClientOptions toHttpClientOptions(HttpTransportConfig config) {
+    HttpClientOptions options = new HttpClientOptions();
+    options.setMaxTotalConnections(config.getMaxTotalConnections());
+    options.setMaxConnectionsPerHost(config.getMaxConnectionsPerHost());
+    options.setConnectionPoolTimeToLive(config.getConnectionTimeToLive().toMillis(), TimeUnit.MILLISECONDS);
+    options.setConnectionTimeout(config.getConnectionTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    options.setSocketTimeout(config.getSocketTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    options.setRequestTimeout(config.getRequestTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    options.setIoThreadCount(config.getIoThreads());
+    options.setMaxCallbackThreadPoolSize(config.getCallbackThreads());
+    options.setThreadPrefix(config.getThreadPrefix());
+    return options;
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  private static class NoOpEventPublisher implements EventPublisher {
+
+    @Override
+    public void publish(Object o) {
+    }
+
+    @Override
+    public void register(Object o) {
+    }
+
+    @Override
+    public void unregister(Object o) {
+    }
+
+    @Override
+    public void unregisterAll() {
+    }
+  }
+
+  private static class NoOpThreadLocalContextManager implements ThreadLocalContextManager<Object> {
+
+    @Override
+    public Object getThreadLocalContext() {
+      return null;
+    }
+
+    @Override
+    public void setThreadLocalContext(Object context) {
+    }
+
+    @Override
+    public void clearThreadLocalContext() {
+    }
+  }
+
+  /**
+   * application the transport runs in, as JRJC describes itself : the user agent carries the JRJC version
+   */
+  @SuppressWarnings("deprecation")
+  private static class TransportApplicationProperties implements ApplicationProperties {
+
+    private static final String BASE_URL = "";
+    private static final String UNKNOWN_VERSION = "unknown";
+
+    private final String version = readJrjcVersion();
+
+    @Override
+    public String getBaseUrl() {
+      return BASE_URL;
+    }
+
+    @Nonnull
+    @Override
+    public String getBaseUrl(UrlMode urlMode) {
+      return BASE_URL;
+    }
+
+    @Nonnull
+    @Override
+    public String getDisplayName() {
+      return "Atlassian JIRA Rest Java Client";
+    }
+
+    @Nonnull
+    @Override
+    public String getPlatformId() {
+      return ApplicationProperties.PLATFORM_JIRA;
+    }
+
+    @Nonnull
+    @Override
+    public String getVersion() {
+      return version;
+    }
+
+    @Nonnull
+    @Override
+    public Date getBuildDate() {
+      // not known outside of a Jira instance, as in JRJC
+      throw new UnsupportedOperationException();
+    }
+
+    @Nonnull
+    @Override
+    public String getBuildNumber() {
+      return String.valueOf(0);
+    }
+
+    @Override
+    public File getHomeDirectory() {
+      return new File(".");
+    }
+
+    @Override
+    public String getPropertyValue(String key) {
+      // no application properties outside of a Jira instance
+      return null;
+    }
+
+    @Nonnull
+    @Override
+    public String getApplicationFileEncoding() {
+      return StandardCharsets.UTF_8.name();
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Path> getLocalHomeDirectory() {
+      return Optional.of(getHomeDirectory().toPath());
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Path> getSharedHomeDirectory() {
+      return getLocalHomeDirectory();
+    }
+
+    private static String readJrjcVersion() {
+      try (InputStream in = JiraHttpTransport.class.getResourceAsStream(JRJC_POM_PROPERTIES)) {
+        if (in == null) {
+          return UNKNOWN_VERSION;
+        }
+        Properties properties = new Properties();
+        properties.load(in);
+        return properties.getProperty("version", UNKNOWN_VERSION);
+      } catch (IOException e) {
+        log.debug("readJrjcVersion() could not read JRJC version : {}", e.getMessage());
+        return UNKNOWN_VERSION;
+      }
+    }
+  }
+}
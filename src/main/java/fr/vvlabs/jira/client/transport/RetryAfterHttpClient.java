@@ -0,0 +1,129 @@
+package fr.vvlabs.jira.client.transport;
+
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.atlassian.httpclient.api.ResponseTransformation;
+import fr.vvlabs.jira.client.retry.RestErrors;
+import fr.vvlabs.jira.client.retry.RetryAfterException;
+import io.atlassian.util.concurrent.Promises;
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP client exposing the Retry-After header of throttling responses : a 429 / 503 with that header fails
+ * with a {@link RetryAfterException}, which JRJC response handlers would otherwise drop
+ */
+class RetryAfterHttpClient implements HttpClient {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final HttpClient delegate;
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  RetryAfterHttpClient(final HttpClient delegate) {
+    this.delegate = delegate;
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public Request.Builder newRequest() {
+    return delegate.newRequest();
+  }
+
+  @Override
+  public Request.Builder newRequest(URI uri) {
+    return delegate.newRequest(uri);
+  }
+
+  @Override
+  public Request.Builder newRequest(URI uri, String contentType, String entity) {
+    return delegate.newRequest(uri, contentType, entity);
+  }
+
+  @Override
+  public Request.Builder newRequest(String uri) {
+    return delegate.newRequest(uri);
+  }
+
+  @Override
+  public Request.Builder newRequest(String uri, String contentType, String entity) {
+    return delegate.newRequest(uri, contentType, entity);
+  }
+
+  @Override
+  public void flushCacheByUriPattern(Pattern urlPattern) {
+    delegate.flushCacheByUriPattern(urlPattern);
+  }
+
+  @Override
+  public <A> ResponseTransformation.Builder<A> transformation() {
+    return delegate.transformation();
+  }
+
+  @Override
+  public ResponsePromise execute(Request request) {
+    return ResponsePromises.toResponsePromise(delegate.execute(request).flatMap(response -> {
+      Long retryAfterMillis = retryAfterMillis(response);
+      return retryAfterMillis != null
+          ? Promises.<Response>rejected(new RetryAfterException(response.getStatusCode(), retryAfterMillis))
+          : Promises.promise(response);
+    }));
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @return delay asked by a throttling response, null if none
+   */
+  static Long retryAfterMillis(Response response) {
+    int statusCode = response.getStatusCode();
+    if (statusCode != RestErrors.TOO_MANY_REQUESTS && statusCode != RestErrors.SERVICE_UNAVAILABLE) {
+      return null;
+    }
+    return parseRetryAfter(response.getHeader(RETRY_AFTER_HEADER));
+  }
+
+  /**
+   * @param value delay in seconds, or HTTP date
+   * @return delay in milliseconds, null if missing or invalid
+   */
+  static Long parseRetryAfter(String value) {
+    if (value == null || value.trim().isEmpty()) {
+      return null;
+    }
+    try {
+      return Math.max(0, Long.parseLong(value.trim())) * 1000;
+    } catch (NumberFormatException e) {
+      // HTTP date
+    }
+    try {
+      ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
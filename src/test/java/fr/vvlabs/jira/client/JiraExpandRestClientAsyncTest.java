@@ -0,0 +1,93 @@
+package fr.vvlabs.jira.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * CompletableFuture API of {@link JiraExpandRestClient} against {@link JiraStubServer}, and the executor owned by the client
+ */
+public class JiraExpandRestClientAsyncTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClientFactory factory;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    if (factory != null) {
+      factory.close();
+    }
+    if (stub != null) {
+      stub.close();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void projectsAreLoadedAsynchronously() throws IOException {
+    start(ExecutionMode.DEFAULT);
+
+    CompletableFuture<Integer> all = client.getAllProjectsAsync().thenApply(projects -> projects.size());
+    CompletableFuture<Integer> byKeys = client.getProjectsByKeysAsync(new HashSet<>(Arrays.asList("PRJ1", "PRJ2")))
+        .thenApply(projects -> projects.size());
+
+    assertEquals(Integer.valueOf(10), PromiseUtils.join(all));
+    assertEquals(Integer.valueOf(2), PromiseUtils.join(byKeys));
+  }
+
+  @Test(timeout = 60_000)
+  public void blockingCallsRunOnClientExecutor() throws IOException {
+    start(ExecutionMode.DEFAULT);
+
+    String thread = PromiseUtils.join(client.supplyAsync(jira -> {
+      jira.getIssueByKey(stub.issueKey(1));
+      return Thread.currentThread().getName();
+    }));
+
+    assertTrue(thread, thread.startsWith("jira-async-"));
+  }
+
+  @Test(timeout = 60_000)
+  public void virtualThreadModeRunsBlockingCalls() throws IOException {
+    start(ExecutionMode.VIRTUAL_THREADS);
+
+    String key = PromiseUtils.join(client.supplyAsync(jira -> jira.getIssueByKey(stub.issueKey(1)).getKey()));
+    String thenKey = PromiseUtils.join(client.getIssueByKeyAsync(stub.issueKey(2))
+        .thenApplyAsync(issue -> issue.getKey(), client.getAsyncExecutor()));
+
+    assertEquals(stub.issueKey(1), key);
+    assertEquals(stub.issueKey(2), thenKey);
+  }
+
+  private void start(ExecutionMode executionMode) throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(50)
+        .latencyMillis(0)
+        .latencyJitterMillis(0)
+        .build()).start();
+    factory = JiraExpandRestClientFactory.builder()
+        .options(JiraExpandRestClientOptions.builder().executionMode(executionMode).build())
+        .build();
+    client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+}
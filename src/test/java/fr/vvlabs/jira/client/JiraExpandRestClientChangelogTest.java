@@ -0,0 +1,103 @@
+package fr.vvlabs.jira.client;
+
+import static org.junit.Assert.assertEquals;
+
+import com.atlassian.jira.rest.client.api.domain.ChangelogGroup;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.retry.RetryPolicy;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * changelog paging against {@link JiraStubServer}, with and without the paged changelog resource
+ */
+public class JiraExpandRestClientChangelogTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClientFactory factory;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    if (factory != null) {
+      factory.close();
+    }
+    if (stub != null) {
+      stub.close();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void changelogIsReadPageByPage() throws IOException {
+    start(stubConfig().changelogGroups(250).maxChangelogPageSize(100), JiraExpandRestClientOptions.builder());
+    long requestsBefore = stub.getRequestCount();
+
+    List<ChangelogGroup> history = client.streamChangelog(stub.issueKey(3), null).collect(Collectors.toList());
+
+    assertEquals(250, history.size());
+    assertEquals(250, history.stream().map(ChangelogGroup::getCreated).collect(Collectors.toSet()).size());
+    assertEquals(3, stub.getRequestCount() - requestsBefore);
+    assertEquals(250, PromiseUtils.join(client.getChangelogAsync(stub.issueKey(3), null)).size());
+  }
+
+  @Test(timeout = 60_000)
+  public void expandedChangelogEndsWhenPagedChangelogIsMissing() throws IOException {
+    // older Jira : no paged changelog resource, the history comes with the issue in a single page
+    start(stubConfig().changelogGroups(40).pagedChangelog(false), JiraExpandRestClientOptions.builder());
+
+    List<ChangelogGroup> history = client.streamChangelog(stub.issueKey(3), null).collect(Collectors.toList());
+    List<ChangelogGroup> secondIssue = client.streamChangelog(stub.issueKey(4), null).collect(Collectors.toList());
+
+    assertEquals(40, history.size());
+    assertEquals(40, secondIssue.size());
+    assertEquals(40, PromiseUtils.join(client.getChangelogAsync(stub.issueKey(5), null)).size());
+  }
+
+  @Test(timeout = 60_000)
+  public void unknownIssueKeepsPagedChangelog() throws IOException {
+    start(stubConfig().changelogGroups(150).maxChangelogPageSize(100), JiraExpandRestClientOptions.builder()
+        .retryPolicy(RetryPolicy.none()));
+    try {
+      client.streamChangelog("PRJ1-999999", null).count();
+    } catch (RuntimeException expected) {
+      // issue does not exist
+    }
+    long requestsBefore = stub.getRequestCount();
+
+    assertEquals(150, client.streamChangelog(stub.issueKey(3), null).count());
+    // still paged : 2 pages, no expanded issue read
+    assertEquals(2, stub.getRequestCount() - requestsBefore);
+  }
+
+  private static JiraStubConfig.JiraStubConfigBuilder stubConfig() {
+    return JiraStubConfig.builder()
+        .issueCount(200)
+        .latencyMillis(0)
+        .latencyJitterMillis(0);
+  }
+
+  private void start(JiraStubConfig.JiraStubConfigBuilder stubConfig, JiraExpandRestClientOptions.JiraExpandRestClientOptionsBuilder options)
+      throws IOException {
+    stub = new JiraStubServer(stubConfig.build()).start();
+    factory = JiraExpandRestClientFactory.builder()
+        .options(options.build())
+        .build();
+    client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+}
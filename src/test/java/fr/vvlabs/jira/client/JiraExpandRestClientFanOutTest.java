@@ -0,0 +1,93 @@
+package fr.vvlabs.jira.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import fr.vvlabs.jira.client.retry.RetryPolicy;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * page fan-out of getAllIssues against {@link JiraStubServer} : search order, capped page size, in-flight bound, failed page
+ */
+public class JiraExpandRestClientFanOutTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int ISSUE_COUNT = 1030;
+  private static final int MAX_PAGE_SIZE = 100;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClientFactory factory;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    if (factory != null) {
+      factory.close();
+    }
+    if (stub != null) {
+      stub.close();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void pagesAreFetchedConcurrentlyAndKeptInOrder() throws IOException {
+    start(JiraStubConfig.builder().latencyMillis(50), RetryPolicy.builder().build());
+
+    List<Issue> issues = client.getAllIssues("", 500, 3, null, null, null, null, null);
+
+    assertEquals(ISSUE_COUNT, issues.size());
+    for (int index = 0; index < ISSUE_COUNT; index++) {
+      assertEquals(stub.issueKey(index), issues.get(index).getKey());
+    }
+    // the stub caps pages at 100 : first page then 10 pages at the capped size
+    assertEquals(11, stub.getRequestCount());
+    assertEquals(3, stub.getMaxConcurrentRequests());
+  }
+
+  @Test(timeout = 60_000)
+  public void failedPageFailsTheWholeSearch() throws IOException {
+    start(JiraStubConfig.builder().latencyMillis(20).failedSearchStartAt(5 * MAX_PAGE_SIZE), RetryPolicy.none());
+
+    try {
+      client.getAllIssues("", MAX_PAGE_SIZE, 2, null, null, null, null, null);
+      fail("page at " + 5 * MAX_PAGE_SIZE + " should fail the search");
+    } catch (RuntimeException expected) {
+      // page answered with 500
+    }
+    // pages after the failed one are not dispatched
+    assertTrue(stub.getRequestCount() < 11);
+  }
+
+  private void start(JiraStubConfig.JiraStubConfigBuilder config, RetryPolicy retryPolicy) throws IOException {
+    stub = new JiraStubServer(config
+        .issueCount(ISSUE_COUNT)
+        .maxPageSize(MAX_PAGE_SIZE)
+        .latencyJitterMillis(0)
+        .build()).start();
+    factory = JiraExpandRestClientFactory.builder()
+        .options(JiraExpandRestClientOptions.builder().retryPolicy(retryPolicy).build())
+        .build();
+    client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+}
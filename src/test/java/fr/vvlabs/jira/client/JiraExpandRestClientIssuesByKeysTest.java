@@ -0,0 +1,96 @@
+package fr.vvlabs.jira.client;
+
+import static org.junit.Assert.assertEquals;
+
+import fr.vvlabs.jira.client.search.IssuesByKeysResult;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * batch fetch by keys against {@link JiraStubServer} : unknown keys, key case, old keys of moved issues
+ */
+public class JiraExpandRestClientIssuesByKeysTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClientFactory factory;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Before
+  public void setUp() throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(200)
+        .latencyMillis(0)
+        .latencyJitterMillis(0)
+        .build()).start();
+    factory = new JiraExpandRestClientFactory();
+    client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    factory.close();
+    stub.close();
+  }
+
+  @Test(timeout = 60_000)
+  public void unknownKeysAreReportedWithoutSplittingBatches() {
+    List<String> keys = new ArrayList<>();
+    for (int index = 0; index < 30; index++) {
+      keys.add(stub.issueKey(index));
+    }
+    keys.add(5, "PRJ1-999999");
+    keys.add("PRJ2-888888");
+    long requestsBefore = stub.getRequestCount();
+
+    IssuesByKeysResult result = client.getIssuesByKeys(keys, null, null);
+
+    assertEquals(30, result.getIssues().size());
+    assertEquals(new HashSet<>(Arrays.asList("PRJ1-999999", "PRJ2-888888")), result.getMissingKeys());
+    assertEquals(stub.issueKey(7), result.getIssues().get(stub.issueKey(7)).getKey());
+    // a single search validated in warn mode, no issue lookups
+    assertEquals(1, stub.getRequestCount() - requestsBefore);
+  }
+
+  @Test(timeout = 60_000)
+  public void keysMatchWhateverTheirCase() {
+    String lowerCaseKey = stub.issueKey(12).toLowerCase(Locale.ROOT);
+
+    IssuesByKeysResult result = client.getIssuesByKeys(Arrays.asList(lowerCaseKey, stub.issueKey(12), stub.issueKey(13)), null, null);
+
+    assertEquals(stub.issueKey(12), result.getIssues().get(lowerCaseKey).getKey());
+    assertEquals(stub.issueKey(13), result.getIssues().get(stub.issueKey(13)).getKey());
+    assertEquals(Collections.emptySet(), result.getMissingKeys());
+  }
+
+  @Test(timeout = 60_000)
+  public void oldKeysOfMovedIssuesMatchTheirCurrentKey() {
+    // issues of PRJn answer to their old OLDn keys
+    String oldKey = "OLD" + stub.issueKey(13).substring("PRJ".length());
+
+    IssuesByKeysResult result = client.getIssuesByKeys(Arrays.asList(oldKey, "OLD3-999999", stub.issueKey(14)), null, null);
+
+    assertEquals(stub.issueKey(13), result.getIssues().get(oldKey).getKey());
+    assertEquals(stub.issueKey(14), result.getIssues().get(stub.issueKey(14)).getKey());
+    assertEquals(Collections.singleton("OLD3-999999"), result.getMissingKeys());
+    assertEquals(2, result.getIssues().size());
+  }
+}
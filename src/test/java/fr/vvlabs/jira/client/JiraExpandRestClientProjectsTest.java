@@ -0,0 +1,93 @@
+package fr.vvlabs.jira.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.Project;
+import fr.vvlabs.jira.client.project.ProjectLoadResult;
+import fr.vvlabs.jira.client.retry.RestErrors;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * concurrent project loading against {@link JiraStubServer} : parallelism bound and failures reported per key
+ */
+public class JiraExpandRestClientProjectsTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int PROJECT_COUNT = 12;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClientFactory factory;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Before
+  public void setUp() throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .projectCount(PROJECT_COUNT)
+        .latencyMillis(50)
+        .latencyJitterMillis(0)
+        .build()).start();
+    factory = new JiraExpandRestClientFactory();
+    client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    factory.close();
+    stub.close();
+  }
+
+  @Test(timeout = 60_000)
+  public void allProjectsAreLoadedWithBoundedParallelism() {
+    ProjectLoadResult result = client.loadAllProjects(3);
+
+    assertFalse(result.hasFailures());
+    assertEquals(PROJECT_COUNT, result.getProjects().size());
+    assertEquals(3, stub.getMaxConcurrentRequests());
+  }
+
+  @Test(timeout = 60_000)
+  public void unknownProjectsAreReportedPerKey() {
+    ProjectLoadResult result = client.loadProjectsByKeys(new HashSet<>(Arrays.asList("PRJ0", "PRJ5", "NOPE", "PRJ99")), 2);
+
+    assertEquals(new HashSet<>(Arrays.asList("PRJ0", "PRJ5")), keys(result.getProjects()));
+    assertEquals(new HashSet<>(Arrays.asList("NOPE", "PRJ99")), result.getFailures().keySet());
+    assertTrue(result.getFailures().get("NOPE") instanceof RestClientException);
+    assertEquals(Integer.valueOf(404), RestErrors.statusCodeOf(result.getFailures().get("PRJ99")));
+  }
+
+  @Test(timeout = 60_000)
+  public void projectsByKeysSkipUnknownProjects() {
+    Set<Project> projects = client.getProjectsByKeysAsync(new HashSet<>(Arrays.asList("PRJ1", "NOPE"))).join();
+
+    assertEquals(new HashSet<>(Arrays.asList("PRJ1")), keys(projects));
+    assertTrue(client.getProjectsByKeys(new HashSet<>(Arrays.asList("NOPE"))).isEmpty());
+  }
+
+  private static Set<String> keys(Set<Project> projects) {
+    return projects.stream().map(Project::getKey).collect(Collectors.toSet());
+  }
+}
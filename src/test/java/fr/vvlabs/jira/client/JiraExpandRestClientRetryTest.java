@@ -0,0 +1,105 @@
+package fr.vvlabs.jira.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import fr.vvlabs.jira.client.metrics.JiraClientListener;
+import fr.vvlabs.jira.client.retry.RetryPolicy;
+import fr.vvlabs.jira.client.transport.HttpTransportConfig;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * retry of throttled calls against {@link JiraStubServer}, with the Retry-After delay on every factory path
+ */
+public class JiraExpandRestClientRetryTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClientFactory factory;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    if (factory != null) {
+      factory.close();
+    }
+    if (stub != null) {
+      stub.close();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void throttledCallsAreRetried() throws IOException {
+    start(0, new ConcurrentLinkedQueue<>(), HttpTransportConfig.builder().build());
+
+    for (int call = 0; call < 40; call++) {
+      assertEquals(10, client.getIssues("", (call % 20) * 10, 10).size());
+    }
+    assertTrue(stub.getThrottledCount() > 0);
+  }
+
+  @Test(timeout = 60_000)
+  public void retryAfterHeaderGivesRetryDelayWithTransport() throws IOException {
+    Queue<Long> retryDelays = new ConcurrentLinkedQueue<>();
+    start(1, retryDelays, HttpTransportConfig.builder().build());
+
+    assertEquals(Long.valueOf(1000L), firstRetryDelay(retryDelays));
+  }
+
+  @Test(timeout = 60_000)
+  public void retryAfterHeaderGivesRetryDelayWithoutTransport() throws IOException {
+    Queue<Long> retryDelays = new ConcurrentLinkedQueue<>();
+    start(1, retryDelays, null);
+
+    assertEquals(Long.valueOf(1000L), firstRetryDelay(retryDelays));
+  }
+
+  private Long firstRetryDelay(Queue<Long> retryDelays) {
+    for (int call = 0; call < 40 && retryDelays.isEmpty(); call++) {
+      client.getIssues("", 0, 10);
+    }
+    assertTrue(stub.getThrottledCount() > 0);
+    return retryDelays.peek();
+  }
+
+  private void start(int retryAfterSeconds, Queue<Long> retryDelays, HttpTransportConfig transportConfig) throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(200)
+        .latencyMillis(0)
+        .latencyJitterMillis(0)
+        .throttleRate(0.3)
+        .retryAfterSeconds(retryAfterSeconds)
+        .build()).start();
+    JiraClientListener listener = new JiraClientListener() {
+      @Override
+      public void onRetry(JiraOperation operation, int attempt, long delayMillis, Throwable error) {
+        retryDelays.add(delayMillis);
+      }
+    };
+    factory = JiraExpandRestClientFactory.builder()
+        .options(JiraExpandRestClientOptions.builder()
+            .listener(listener)
+            .retryPolicy(RetryPolicy.builder().maxAttempts(12).initialDelay(Duration.ofMillis(10)).build())
+            .build())
+        .transportConfig(transportConfig)
+        .build();
+    client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+}
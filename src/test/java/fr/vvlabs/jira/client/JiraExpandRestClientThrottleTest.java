@@ -0,0 +1,100 @@
+package fr.vvlabs.jira.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.throttle.ThrottleConfig;
+import fr.vvlabs.jira.client.throttle.ThrottleMetrics;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * client throttle against {@link JiraStubServer} : calls of the client, of its sub-clients and executeWithRetry share one limit
+ */
+public class JiraExpandRestClientThrottleTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClientFactory factory;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    if (factory != null) {
+      factory.close();
+    }
+    if (stub != null) {
+      stub.close();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void throttleSpacesCalls() throws IOException {
+    start();
+    long start = System.nanoTime();
+    List<CompletableFuture<List<Issue>>> calls = new ArrayList<>();
+    for (int call = 0; call < 11; call++) {
+      calls.add(client.getIssuesAsync("", call * 10, 10, null, null, null, null, null));
+    }
+    for (CompletableFuture<List<Issue>> call : calls) {
+      assertEquals(10, PromiseUtils.join(call).size());
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    // 1 call of burst, then 10 calls at 20 per second
+    assertTrue("elapsed " + elapsedMillis + " ms", elapsedMillis >= 400);
+    ThrottleMetrics metrics = client.getThrottleMetrics();
+    assertEquals(11, metrics.getStartedCalls());
+    assertTrue(metrics.getTotalWaitMillis() > 0);
+  }
+
+  @Test(timeout = 60_000)
+  public void subClientsAndExecuteWithRetryShareTheThrottle() throws IOException {
+    start();
+    long start = System.nanoTime();
+
+    for (int call = 0; call < 4; call++) {
+      assertEquals(10, client.getSearchClient().searchJql("", 10, call * 10, null).claim().getMaxResults());
+      assertEquals(stub.issueKey(call), client.getIssueClient().getIssue(stub.issueKey(call)).claim().getKey());
+    }
+    assertEquals("done", client.executeWithRetry(() -> "done"));
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertTrue(client.getSearchClient() == client.getSearchClient());
+    // 1 call of burst, then 8 calls at 20 per second
+    assertTrue("elapsed " + elapsedMillis + " ms", elapsedMillis >= 350);
+    assertEquals(9, client.getThrottleMetrics().getStartedCalls());
+  }
+
+  private void start() throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(200)
+        .latencyMillis(0)
+        .latencyJitterMillis(0)
+        .build()).start();
+    factory = JiraExpandRestClientFactory.builder()
+        .options(JiraExpandRestClientOptions.builder()
+            .throttle(ThrottleConfig.builder().permitsPerSecond(20).burst(1).build())
+            .build())
+        .build();
+    client = factory.createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+}
@@ -0,0 +1,87 @@
+package fr.vvlabs.jira.client.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.Test;
+
+/**
+ * bounded fan-out : in-flight limit, input order of results, first failure stops dispatching
+ */
+public class BoundedAsyncRunnerTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final List<CompletableFuture<String>> calls = new ArrayList<>();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void atMostMaxInFlightCallsAreStarted() {
+    CompletableFuture<List<String>> result = BoundedAsyncRunner.runAll(Arrays.asList(0, 1, 2, 3, 4), 2, this::call);
+    assertEquals(2, calls.size());
+
+    calls.get(1).complete("1");
+    assertEquals(3, calls.size());
+    calls.get(0).complete("0");
+    calls.get(2).complete("2");
+    assertEquals(5, calls.size());
+    assertFalse(result.isDone());
+    calls.get(4).complete("4");
+    calls.get(3).complete("3");
+
+    assertEquals(Arrays.asList("0", "1", "2", "3", "4"), result.join());
+  }
+
+  @Test
+  public void synchronousResultsDoNotRecurse() {
+    List<Integer> inputs = new ArrayList<>();
+    for (int input = 0; input < 100_000; input++) {
+      inputs.add(input);
+    }
+
+    List<Integer> results = BoundedAsyncRunner.runAll(inputs, 4, (Integer input) -> CompletableFuture.completedFuture(input)).join();
+
+    assertEquals(inputs, results);
+  }
+
+  @Test
+  public void firstFailureFailsResultAndStopsDispatching() {
+    CompletableFuture<List<String>> result = BoundedAsyncRunner.runAll(Arrays.asList(0, 1, 2, 3, 4), 2, this::call);
+    IllegalStateException failure = new IllegalStateException("page failed");
+
+    calls.get(0).completeExceptionally(failure);
+    calls.get(1).complete("1");
+
+    assertEquals(2, calls.size());
+    try {
+      result.join();
+      fail("the failure must fail the result");
+    } catch (CompletionException e) {
+      assertSame(failure, e.getCause());
+    }
+  }
+
+  @Test
+  public void noInputGivesEmptyResult() {
+    assertTrue(BoundedAsyncRunner.runAll(new ArrayList<Integer>(), 4, this::call).join().isEmpty());
+  }
+
+  private CompletableFuture<String> call(Integer input) {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    calls.add(call);
+    return call;
+  }
+}
@@ -0,0 +1,154 @@
+package fr.vvlabs.jira.client.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+/**
+ * response cache : fresh hits, single-flight loads and revalidations, independent callers, expiry
+ */
+public class ResponseCacheTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String KEY = "GET_ISSUE:PRJ-1";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private final AtomicInteger validations = new AtomicInteger();
+  private CompletableFuture<String> pendingLoad = new CompletableFuture<>();
+  private CompletableFuture<Boolean> pendingValidation = new CompletableFuture<>();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void freshValueIsServedWithoutCall() {
+    ResponseCache cache = cache(Duration.ofHours(1), Duration.ofHours(1));
+    CompletableFuture<String> first = cache.get(KEY, loader(), null);
+    pendingLoad.complete("v1");
+
+    assertEquals("v1", first.join());
+    assertEquals("v1", cache.get(KEY, loader(), null).join());
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getStats().getHits());
+    assertEquals(1, cache.getStats().getMisses());
+  }
+
+  @Test
+  public void concurrentMissesShareOneLoad() {
+    ResponseCache cache = cache(Duration.ofHours(1), Duration.ofHours(1));
+
+    CompletableFuture<String> first = cache.get(KEY, loader(), null);
+    CompletableFuture<String> second = cache.get(KEY, loader(), null);
+    pendingLoad.complete("v1");
+
+    assertEquals("v1", first.join());
+    assertEquals("v1", second.join());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void cancelledCallerLeavesSharedLoadToOthers() {
+    ResponseCache cache = cache(Duration.ofHours(1), Duration.ofHours(1));
+    CompletableFuture<String> first = cache.get(KEY, loader(), null);
+    CompletableFuture<String> second = cache.get(KEY, loader(), null);
+
+    first.cancel(true);
+    pendingLoad.complete("v1");
+
+    assertTrue(first.isCancelled());
+    assertFalse(pendingLoad.isCancelled());
+    assertEquals("v1", second.join());
+    // the load completed for the remaining caller and was cached
+    assertEquals("v1", cache.get(KEY, loader(), null).join());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void failedLoadIsNotCached() {
+    ResponseCache cache = cache(Duration.ofHours(1), Duration.ofHours(1));
+    CompletableFuture<String> failed = cache.get(KEY, loader(), null);
+    pendingLoad.completeExceptionally(new IllegalStateException("call failed"));
+    assertTrue(failed.isCompletedExceptionally());
+
+    pendingLoad = CompletableFuture.completedFuture("v1");
+
+    assertEquals("v1", cache.get(KEY, loader(), null).join());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void staleValueIsRevalidatedOnce() {
+    ResponseCache cache = cache(Duration.ZERO, Duration.ofHours(1));
+    pendingLoad = CompletableFuture.completedFuture("v1");
+    cache.get(KEY, loader(), validator()).join();
+
+    CompletableFuture<String> first = cache.get(KEY, loader(), validator());
+    CompletableFuture<String> second = cache.get(KEY, loader(), validator());
+    pendingValidation.complete(Boolean.TRUE);
+
+    assertEquals("v1", first.join());
+    assertEquals("v1", second.join());
+    assertEquals(1, validations.get());
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getStats().getRevalidated());
+  }
+
+  @Test
+  public void changedValueIsLoadedAgain() {
+    ResponseCache cache = cache(Duration.ZERO, Duration.ofHours(1));
+    pendingLoad = CompletableFuture.completedFuture("v1");
+    cache.get(KEY, loader(), validator()).join();
+    pendingLoad = CompletableFuture.completedFuture("v2");
+    pendingValidation.complete(Boolean.FALSE);
+
+    assertEquals("v2", cache.get(KEY, loader(), validator()).join());
+    assertEquals(1, validations.get());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void expiredValueIsLoadedWithoutRevalidation() throws InterruptedException {
+    ResponseCache cache = cache(Duration.ofMillis(10), Duration.ofMillis(20));
+    pendingLoad = CompletableFuture.completedFuture("v1");
+    cache.get(KEY, loader(), validator()).join();
+    Thread.sleep(100);
+    pendingLoad = CompletableFuture.completedFuture("v2");
+
+    assertEquals("v2", cache.get(KEY, loader(), validator()).join());
+    assertEquals(0, validations.get());
+    assertEquals(2, loads.get());
+  }
+
+  private static ResponseCache cache(Duration fresh, Duration maxStale) {
+    return new ResponseCache(ResponseCacheConfig.builder().fresh(fresh).maxStale(maxStale).build());
+  }
+
+  private Supplier<CompletableFuture<String>> loader() {
+    return () -> {
+      loads.incrementAndGet();
+      return pendingLoad;
+    };
+  }
+
+  private Function<String, CompletableFuture<Boolean>> validator() {
+    return value -> {
+      validations.incrementAndGet();
+      return pendingValidation;
+    };
+  }
+}
@@ -0,0 +1,106 @@
+package fr.vvlabs.jira.client.compact;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * field columns typed from the response schema, with values not matching their field kind
+ */
+public class CompactIssueTableTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final CompactSearchResultParser parser = new CompactSearchResultParser();
+  private final CompactIssueTable table = new CompactIssueTable();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void dateLikeTextStaysText() throws IOException {
+    append(response(", \"schema\":{\"customfield_1\":{\"type\":\"string\"}}", "\"2020-01-31\"", "\"n/a\"", "\"2021-02-01\""));
+
+    FieldColumn column = table.column("customfield_1");
+    assertEquals(FieldKind.TEXT, column.getKind());
+    assertEquals("2020-01-31", column.getText(0));
+    assertEquals("n/a", column.getText(1));
+    assertEquals("2021-02-01", column.getText(2));
+  }
+
+  @Test
+  public void textWithoutSchemaIsNotParsedAsDate() throws IOException {
+    append(response("", "\"2020-01-31\"", "\"2020-01-31T10:15:30.000+0100\""));
+
+    FieldColumn column = table.column("customfield_1");
+    assertEquals(FieldKind.TEXT, column.getKind());
+    assertEquals("2020-01-31T10:15:30.000+0100", column.getText(1));
+  }
+
+  @Test
+  public void dateFieldIsParsedFromSchema() throws IOException {
+    append(response(", \"schema\":{\"customfield_1\":{\"type\":\"datetime\"}}", "\"2020-01-31T10:15:30.000+0100\"", "null"));
+
+    FieldColumn column = table.column("customfield_1");
+    assertEquals(FieldKind.DATE, column.getKind());
+    assertEquals(OffsetDateTime.parse("2020-01-31T10:15:30+01:00").toInstant().toEpochMilli(), column.getDate(0));
+    assertEquals("2020-01-31T09:15:30Z", column.getText(0));
+    assertFalse(column.isPresent(1));
+    assertEquals(Long.MIN_VALUE, column.getDate(1));
+  }
+
+  @Test
+  public void mismatchedValuesKeepTheirText() throws IOException {
+    append(response(", \"schema\":{\"customfield_1\":{\"type\":\"number\"}}", "3", "\"unknown\"", "2.5"));
+
+    FieldColumn column = table.column("customfield_1");
+    assertEquals(FieldKind.NUMBER, column.getKind());
+    assertEquals(3d, column.getNumber(0), 0d);
+    assertTrue(column.isMismatch(1));
+    assertTrue(Double.isNaN(column.getNumber(1)));
+    assertEquals("unknown", column.getText(1));
+    assertEquals("2.5", column.getText(2));
+    assertEquals(3, column.count());
+    assertEquals(5.5d, column.numbers().sum(), 0d);
+  }
+
+  @Test
+  public void kindIsKeptAcrossPages() throws IOException {
+    append(response(", \"schema\":{\"customfield_1\":{\"type\":\"date\"}}", "\"2020-01-31\""));
+    // a later page without schema, holding text
+    append(response("", "\"soon\""));
+
+    FieldColumn column = table.column("customfield_1");
+    assertEquals(FieldKind.DATE, column.getKind());
+    assertEquals("2020-01-31T00:00:00Z", column.getText(0));
+    assertEquals("soon", column.getText(1));
+    assertEquals(1, column.dates().count());
+    assertEquals("2020-01-31T00:00:00Z,soon", column.texts().collect(Collectors.joining(",")));
+  }
+
+  private void append(String body) throws IOException {
+    table.append(parser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), table.getPool()));
+  }
+
+  /**
+   * Search response with one issue per value of customfield_1, schema after the issues as Jira sends it
+   */
+  private static String response(String schema, String... values) {
+    StringBuilder json = new StringBuilder("{\"startAt\":0,\"maxResults\":50,\"total\":").append(values.length).append(",\"issues\":[");
+    for (int index = 0; index < values.length; index++) {
+      json.append(index > 0 ? "," : "").append("{\"id\":\"").append(10000 + index).append("\",\"key\":\"PRJ-").append(index + 1)
+          .append("\",\"fields\":{\"summary\":\"issue ").append(index + 1).append("\",\"customfield_1\":").append(values[index]).append("}}");
+    }
+    return json.append(']').append(schema).append('}').toString();
+  }
+}
@@ -0,0 +1,341 @@
+package fr.vvlabs.jira.client.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import fr.vvlabs.jira.client.JiraExpandRestClient;
+import fr.vvlabs.jira.client.JiraExpandRestClientFactory;
+import fr.vvlabs.jira.client.JiraExpandRestClientOptions;
+import fr.vvlabs.jira.client.retry.RetryPolicy;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * bulk export against {@link JiraStubServer} : complete run, resume after a partial or failed run, checkpoint and files consistency,
+ * field kinds across pages
+ */
+public class BulkExporterTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int ISSUE_COUNT = 230;
+  private static final int PAGE_SIZE = 50;
+  private static final int PAGES = 5;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private JiraStubServer stub;
+  private JiraExpandRestClient client;
+  private ExportConfig config;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Before
+  public void setUp() throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(ISSUE_COUNT)
+        .maxPageSize(PAGE_SIZE)
+        .latencyMillis(0)
+        .latencyJitterMillis(0)
+        .build()).start();
+    client = new JiraExpandRestClientFactory().createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+    config = ExportConfig.builder()
+        .directory(folder.getRoot().toPath())
+        .name("export")
+        .pageSize(PAGE_SIZE)
+        .maxInFlight(3)
+        .build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    stub.close();
+  }
+
+  @Test
+  public void exportWritesEveryIssueOnceInBothFormats() throws Exception {
+    ExportReport report = new BulkExporter(client, config).export(null, null);
+
+    assertEquals(ISSUE_COUNT, report.getTotal());
+    assertEquals(PAGES, report.getPages());
+    assertEquals(0, report.getResumedPages());
+    assertEquals(ISSUE_COUNT, report.getIssues());
+    assertEquals(expectedKeys(), new HashSet<>(ndjsonKeys()));
+    assertEquals(ISSUE_COUNT, ndjsonKeys().size());
+    assertEquals(expectedKeys(), new HashSet<>(columnarKeys()));
+    assertEquals(ISSUE_COUNT, columnarKeys().size());
+  }
+
+  @Test
+  public void ndjsonLinesHoldIssueAttributes() throws Exception {
+    new BulkExporter(client, config).export(null, null);
+
+    try (BufferedReader reader = ndjsonReader()) {
+      JSONObject first = new JSONObject(reader.readLine());
+      String key = first.getString("key");
+      assertEquals("summary of " + key, first.getString("summary"));
+      assertEquals(key.substring(0, key.indexOf('-')), first.getString("project"));
+      assertTrue(first.has("created"));
+      assertTrue(first.has("fields"));
+    }
+  }
+
+  @Test
+  public void exportResumesAfterPartialRun() throws Exception {
+    new BulkExporter(client, config).export(null, null);
+    // crash after 2 recorded pages : later pages were appended but not recorded, the last one partially
+    keepCheckpointPages(2);
+    appendGarbage(file(".ndjson.gz"));
+    appendGarbage(file(".jcol"));
+    long requestsBefore = stub.getRequestCount();
+
+    ExportReport report = new BulkExporter(client, config).export(null, null);
+
+    assertEquals(2, report.getResumedPages());
+    assertEquals(PAGES - 2, report.getPages());
+    // the first page is always fetched, for the total
+    assertTrue(stub.getRequestCount() - requestsBefore <= PAGES - 2 + 1);
+    List<String> ndjsonKeys = ndjsonKeys();
+    List<String> columnarKeys = columnarKeys();
+    assertEquals(ISSUE_COUNT, ndjsonKeys.size());
+    assertEquals(expectedKeys(), new HashSet<>(ndjsonKeys));
+    assertEquals(ISSUE_COUNT, columnarKeys.size());
+    assertEquals(expectedKeys(), new HashSet<>(columnarKeys));
+  }
+
+  @Test
+  public void completedExportIsNotWrittenAgain() throws Exception {
+    new BulkExporter(client, config).export(null, null);
+    long ndjsonSize = Files.size(file(".ndjson.gz"));
+    long columnarSize = Files.size(file(".jcol"));
+
+    ExportReport report = new BulkExporter(client, config).export(null, null);
+
+    assertEquals(PAGES, report.getResumedPages());
+    assertEquals(0, report.getPages());
+    assertEquals(ndjsonSize, Files.size(file(".ndjson.gz")));
+    assertEquals(columnarSize, Files.size(file(".jcol")));
+  }
+
+  @Test
+  public void checkpointGivesFilesLength() throws Exception {
+    new BulkExporter(client, config).export(null, null);
+
+    String lastPage = null;
+    Set<Integer> startAts = new HashSet<>();
+    for (String line : Files.readAllLines(file(".checkpoint"), StandardCharsets.UTF_8)) {
+      if (line.startsWith("page ")) {
+        lastPage = line;
+        startAts.add(Integer.valueOf(line.split(" ")[1]));
+      }
+    }
+    String[] values = lastPage.split(" ");
+    assertEquals(PAGES, startAts.size());
+    assertEquals(Files.size(file(".ndjson.gz")), Long.parseLong(values[2]));
+    assertEquals(Files.size(file(".jcol")), Long.parseLong(values[3]));
+  }
+
+  @Test
+  public void fieldKindIsTheSameInEveryRowGroup() throws Exception {
+    new BulkExporter(client, config).export(null, null);
+
+    Map<String, Set<Byte>> kinds = new HashMap<>();
+    readColumnar(kinds);
+
+    kinds.values().forEach(fieldKinds -> assertEquals(1, fieldKinds.size()));
+    // the stub custom fields alternate select, number and date fields
+    assertEquals(Collections.singleton(ColumnarPageEncoder.TEXT), kinds.get("customfield_20000"));
+    assertEquals(Collections.singleton(ColumnarPageEncoder.NUMBER), kinds.get("customfield_20001"));
+    assertEquals(Collections.singleton(ColumnarPageEncoder.DATE), kinds.get("customfield_20002"));
+  }
+
+  @Test(timeout = 60_000)
+  public void failedPageStopsExportWithConsistentFiles() throws Exception {
+    try (JiraStubServer failingStub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(ISSUE_COUNT)
+        .maxPageSize(PAGE_SIZE)
+        .latencyMillis(50)
+        .latencyJitterMillis(50)
+        .failedSearchStartAt(2 * PAGE_SIZE)
+        .build()).start();
+        JiraExpandRestClientFactory factory = JiraExpandRestClientFactory.builder()
+            .options(JiraExpandRestClientOptions.builder().retryPolicy(RetryPolicy.none()).build())
+            .build();
+        JiraExpandRestClient failingClient = factory.createWithBasicHttpAuthentication(failingStub.getBaseUri(), "test", "test")) {
+      new BulkExporter(failingClient, config).export(null, null);
+      fail("page at " + 2 * PAGE_SIZE + " should fail the export");
+    } catch (RuntimeException expected) {
+      // page answered with 500
+    }
+
+    // nothing was appended after the last recorded page
+    String[] lastPage = lastCheckpointPage();
+    assertEquals(Files.size(file(".ndjson.gz")), lastPage != null ? Long.parseLong(lastPage[2]) : 0L);
+    assertEquals(Files.size(file(".jcol")), lastPage != null ? Long.parseLong(lastPage[3]) : 0L);
+
+    ExportReport report = new BulkExporter(client, config).export(null, null);
+
+    assertEquals(PAGES, report.getResumedPages() + report.getPages());
+    assertEquals(ISSUE_COUNT, ndjsonKeys().size());
+    assertEquals(expectedKeys(), new HashSet<>(ndjsonKeys()));
+    assertEquals(ISSUE_COUNT, columnarKeys().size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void checkpointOfAnotherQueryIsRejected() throws Exception {
+    new BulkExporter(client, config).export(null, null);
+
+    new BulkExporter(client, config).export("status = Done", null);
+  }
+
+  private Set<String> expectedKeys() {
+    Set<String> keys = new HashSet<>();
+    for (int index = 0; index < ISSUE_COUNT; index++) {
+      keys.add(stub.issueKey(index));
+    }
+    return keys;
+  }
+
+  private Path file(String extension) {
+    return folder.getRoot().toPath().resolve("export" + extension);
+  }
+
+  private void keepCheckpointPages(int pages) throws IOException {
+    List<String> kept = new ArrayList<>();
+    int pageLines = 0;
+    for (String line : Files.readAllLines(file(".checkpoint"), StandardCharsets.UTF_8)) {
+      if (line.startsWith("page ") && ++pageLines > pages) {
+        break;
+      }
+      kept.add(line);
+    }
+    // interrupted append of the next page line
+    kept.add("page 150 12");
+    Files.write(file(".checkpoint"), String.join("\n", kept).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String[] lastCheckpointPage() throws IOException {
+    String lastPage = null;
+    for (String line : Files.readAllLines(file(".checkpoint"), StandardCharsets.UTF_8)) {
+      if (line.startsWith("page ")) {
+        lastPage = line;
+      }
+    }
+    return lastPage != null ? lastPage.split(" ") : null;
+  }
+
+  private static void appendGarbage(Path file) throws IOException {
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+  }
+
+  private BufferedReader ndjsonReader() throws IOException {
+    return new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file(".ndjson.gz"))), StandardCharsets.UTF_8));
+  }
+
+  private List<String> ndjsonKeys() throws IOException, JSONException {
+    List<String> keys = new ArrayList<>();
+    try (BufferedReader reader = ndjsonReader()) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        keys.add(new JSONObject(line).getString("key"));
+      }
+    }
+    return keys;
+  }
+
+  private List<String> columnarKeys() throws IOException {
+    return readColumnar(new HashMap<>());
+  }
+
+  /**
+   * Read every row group, see {@link ColumnarPageEncoder} for the layout
+   * @param kinds filled with the kinds of each column, over all row groups
+   * @return values of the key column
+   */
+  private List<String> readColumnar(Map<String, Set<Byte>> kinds) throws IOException {
+    List<String> keys = new ArrayList<>();
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file(".jcol")))) {
+      while (true) {
+        int magic;
+        try {
+          magic = in.readInt();
+        } catch (EOFException e) {
+          return keys;
+        }
+        assertEquals(ColumnarPageEncoder.MAGIC, magic);
+        assertEquals(ColumnarPageEncoder.VERSION, in.readByte());
+        int rows = in.readInt();
+        int columns = in.readShort();
+        for (int column = 0; column < columns; column++) {
+          String name = readString(in);
+          byte kind = in.readByte();
+          kinds.computeIfAbsent(name, column -> new HashSet<>()).add(kind);
+          byte[] bitmap = new byte[(rows + 7) / 8];
+          in.readFully(bitmap);
+          int present = 0;
+          for (int row = 0; row < rows; row++) {
+            if ((bitmap[row >> 3] & (1 << (row & 7))) != 0) {
+              present++;
+            }
+          }
+          if (kind == ColumnarPageEncoder.TEXT) {
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+              dictionary[i] = readString(in);
+            }
+            for (int row = 0; row < present; row++) {
+              String text = dictionary[in.readInt()];
+              if ("key".equals(name)) {
+                keys.add(text);
+              }
+            }
+          } else {
+            // NUMBER, DATE and LONG values are 8 bytes each
+            in.readFully(new byte[8 * present]);
+          }
+        }
+      }
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] utf8 = new byte[in.readInt()];
+    in.readFully(utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,100 @@
+package fr.vvlabs.jira.client.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * latency histogram : bucket bounds, percentiles, out of range values and concurrent recording
+ */
+public class LatencyHistogramTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void emptyHistogramGivesZero() {
+    assertEquals(0, histogram.count());
+    assertEquals(0d, histogram.percentileMillis(0.99), 0d);
+  }
+
+  @Test
+  public void percentileIsUpperBoundOfItsBucket() {
+    for (int i = 0; i < 90; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    assertEquals(100, histogram.count());
+    // 1000 us are in [512, 1024) us, 100000 us in [65536, 131072) us
+    assertEquals(1.024d, histogram.percentileMillis(0.5), 0d);
+    assertEquals(1.024d, histogram.percentileMillis(0.9), 0d);
+    assertEquals(131.072d, histogram.percentileMillis(0.91), 0d);
+    assertEquals(131.072d, histogram.percentileMillis(0.99), 0d);
+    assertEquals(1.024d, histogram.percentileMillis(0), 0d);
+  }
+
+  @Test
+  public void percentileIsWithinTwiceTheRecordedValue() {
+    for (long micros = 1; micros < TimeUnit.MINUTES.toMicros(10); micros = micros * 3 + 1) {
+      LatencyHistogram single = new LatencyHistogram();
+      single.record(TimeUnit.MICROSECONDS.toNanos(micros));
+
+      double percentileMicros = single.percentileMillis(1) * 1000;
+      assertTrue(micros + " us gave " + percentileMicros, percentileMicros > micros && percentileMicros <= 2 * micros);
+    }
+  }
+
+  @Test
+  public void outOfRangeValuesAreKept() {
+    histogram.record(-5);
+    histogram.record(Long.MAX_VALUE);
+
+    assertEquals(2, histogram.count());
+    assertEquals(0.001d, histogram.percentileMillis(0.5), 0d);
+    assertTrue(histogram.percentileMillis(1) >= TimeUnit.NANOSECONDS.toMillis(Long.MAX_VALUE));
+  }
+
+  @Test(timeout = 30_000)
+  public void concurrentRecordsAreAllCounted() throws InterruptedException {
+    int threads = 4;
+    int recordsPerThread = 100_000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> recorders = new ArrayList<>();
+    for (int thread = 0; thread < threads; thread++) {
+      Thread recorder = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int i = 0; i < recordsPerThread; i++) {
+          histogram.record(i);
+        }
+      });
+      recorder.start();
+      recorders.add(recorder);
+    }
+    start.countDown();
+    for (Thread recorder : recorders) {
+      recorder.join();
+    }
+
+    assertEquals((long) threads * recordsPerThread, histogram.count());
+  }
+}
@@ -0,0 +1,144 @@
+package fr.vvlabs.jira.client.project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.atlassian.jira.rest.client.api.ProjectRestClient;
+import com.atlassian.jira.rest.client.api.domain.BasicProject;
+import com.atlassian.jira.rest.client.api.domain.Project;
+import fr.vvlabs.jira.client.async.PromiseUtils;
+import fr.vvlabs.jira.client.util.JiraMockUtil;
+import io.atlassian.util.concurrent.Promise;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * project cache : shared loads without blocking, caller cancellation, failures, background refresh
+ */
+public class CachingProjectRestClientTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final StubProjectRestClient delegate = new StubProjectRestClient();
+  private CachingProjectRestClient client = new CachingProjectRestClient(delegate, ProjectCacheConfig.builder().build());
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() {
+    client.close();
+  }
+
+  @Test(timeout = 10_000)
+  public void concurrentMissesShareOneCallWithoutWaiting() {
+    Promise<Project> first = client.getProject("PRJ");
+    Promise<Project> second = client.getProject("PRJ");
+
+    // both reads returned while the call is pending
+    assertFalse(first.isDone());
+    assertEquals(1, delegate.calls.size());
+
+    delegate.calls.get(0).complete(JiraMockUtil.createProject(1L, "PRJ"));
+
+    assertEquals("PRJ", first.claim().getKey());
+    assertSame(first.claim(), second.claim());
+    assertEquals("PRJ", client.getProject("PRJ").claim().getKey());
+    assertEquals(1, delegate.calls.size());
+    assertEquals(2, client.getProjectStats().hitCount());
+  }
+
+  @Test(timeout = 10_000)
+  public void cancelledCallerLeavesSharedCallToOthers() {
+    Promise<Project> cancelled = client.getProject("PRJ");
+    Promise<Project> other = client.getProject("PRJ");
+
+    cancelled.cancel(true);
+    delegate.calls.get(0).complete(JiraMockUtil.createProject(1L, "PRJ"));
+
+    assertFalse(delegate.calls.get(0).isCancelled());
+    assertEquals("PRJ", other.claim().getKey());
+    assertEquals("PRJ", client.getProject("PRJ").claim().getKey());
+    assertEquals(1, delegate.calls.size());
+  }
+
+  @Test(timeout = 10_000)
+  public void failureIsNotCached() {
+    Promise<Project> failed = client.getProject("PRJ");
+    delegate.calls.get(0).completeExceptionally(new IllegalStateException("Jira down"));
+    try {
+      failed.claim();
+    } catch (RuntimeException expected) {
+      // the read seeing the failure drops it
+    }
+    try {
+      client.getProject("PRJ").claim();
+    } catch (RuntimeException expected) {
+      // the failure is reported once more
+    }
+
+    Promise<Project> retried = client.getProject("PRJ");
+    delegate.calls.get(1).complete(JiraMockUtil.createProject(1L, "PRJ"));
+
+    assertEquals("PRJ", retried.claim().getKey());
+    assertEquals(2, delegate.calls.size());
+  }
+
+  @Test(timeout = 10_000)
+  public void staleEntryIsServedWhileRefreshing() throws InterruptedException {
+    client.close();
+    client = new CachingProjectRestClient(delegate, ProjectCacheConfig.builder().refreshAfterWrite(Duration.ofMillis(50)).build());
+    Promise<Project> loaded = client.getProject("PRJ");
+    delegate.calls.get(0).complete(JiraMockUtil.createProject(1L, "PRJ"));
+    loaded.claim();
+    Thread.sleep(100);
+
+    // the stale value is returned at once, the refresh call is pending
+    assertEquals(Long.valueOf(1L), client.getProject("PRJ").claim().getId());
+    assertEquals(2, delegate.calls.size());
+
+    delegate.calls.get(1).complete(JiraMockUtil.createProject(2L, "PRJ"));
+
+    assertEquals(Long.valueOf(2L), client.getProject("PRJ").claim().getId());
+    assertTrue(client.getProjectStats().loadCount() >= 2);
+  }
+
+  // ===========================================================
+  // Inner and Anonymous Classes
+  // ===========================================================
+
+  /**
+   * project client whose calls stay pending until the test completes them
+   */
+  private static class StubProjectRestClient implements ProjectRestClient {
+
+    private final List<CompletableFuture<Project>> calls = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Promise<Project> getProject(String key) {
+      CompletableFuture<Project> call = new CompletableFuture<>();
+      calls.add(call);
+      return PromiseUtils.toPromise(call);
+    }
+
+    @Override
+    public Promise<Project> getProject(URI projectUri) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Iterable<BasicProject>> getAllProjects() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
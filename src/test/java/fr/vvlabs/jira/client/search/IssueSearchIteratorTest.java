@@ -0,0 +1,117 @@
+package fr.vvlabs.jira.client.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import fr.vvlabs.jira.client.util.JiraMockUtil;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Test;
+
+/**
+ * lazy search iterator : bounded prefetch, search order, cancellation of pending pages on close and on failure
+ */
+public class IssueSearchIteratorTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int TOTAL = 10;
+  private static final int PAGE_SIZE = 2;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  /** pages requested, by startAt */
+  private final Map<Integer, CompletableFuture<SearchResult>> pages = new LinkedHashMap<>();
+  private final IssueSearchIterator iterator = new IssueSearchIterator(this::fetch, PAGE_SIZE, 3);
+  /** answer every page as soon as it is requested, else only the first one */
+  private boolean completeOnFetch;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void nextPagesArePrefetchedUpToTheLimit() {
+    assertTrue(iterator.hasNext());
+
+    assertEquals(Arrays.asList(0, 2, 4, 6), new ArrayList<>(pages.keySet()));
+    iterator.next();
+    iterator.next();
+    complete(2);
+    iterator.next();
+
+    assertEquals(Arrays.asList(0, 2, 4, 6, 8), new ArrayList<>(pages.keySet()));
+  }
+
+  @Test
+  public void issuesAreReadInSearchOrder() {
+    completeOnFetch = true;
+
+    List<String> keys = new ArrayList<>();
+    iterator.forEachRemaining(issue -> keys.add(issue.getKey()));
+
+    assertEquals(Arrays.asList("PRJ-0", "PRJ-1", "PRJ-2", "PRJ-3", "PRJ-4", "PRJ-5", "PRJ-6", "PRJ-7", "PRJ-8", "PRJ-9"), keys);
+  }
+
+  @Test
+  public void cancelStopsPrefetchedPages() {
+    assertTrue(iterator.hasNext());
+
+    iterator.cancel();
+
+    assertFalse(iterator.hasNext());
+    assertTrue(pages.get(2).isCancelled());
+    assertTrue(pages.get(6).isCancelled());
+  }
+
+  @Test
+  public void failedPageCancelsPagesRequestedAfterIt() {
+    assertTrue(iterator.hasNext());
+    IllegalStateException failure = new IllegalStateException("page failed");
+    pages.get(2).completeExceptionally(failure);
+    iterator.next();
+    iterator.next();
+
+    try {
+      iterator.hasNext();
+      fail("the failed page must stop the iteration");
+    } catch (IllegalStateException e) {
+      assertSame(failure, e);
+    }
+
+    assertTrue(pages.get(4).isCancelled());
+    assertTrue(pages.get(6).isCancelled());
+    assertEquals(4, pages.size());
+    assertFalse(iterator.hasNext());
+  }
+
+  private CompletableFuture<SearchResult> fetch(int startAt, int maxResults) {
+    CompletableFuture<SearchResult> page = new CompletableFuture<>();
+    pages.put(startAt, page);
+    if (startAt == 0 || completeOnFetch) {
+      complete(startAt);
+    }
+    return page;
+  }
+
+  private void complete(int startAt) {
+    List<Issue> issues = new ArrayList<>();
+    for (int index = startAt; index < Math.min(TOTAL, startAt + PAGE_SIZE); index++) {
+      issues.add(JiraMockUtil.createIssue(10000L + index, "PRJ-" + index));
+    }
+    pages.get(startAt).complete(new SearchResult(startAt, PAGE_SIZE, TOTAL, issues));
+  }
+}
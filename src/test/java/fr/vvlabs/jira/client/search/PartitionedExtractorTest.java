@@ -0,0 +1,117 @@
+package fr.vvlabs.jira.client.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import fr.vvlabs.jira.client.JiraExpandRestClient;
+import fr.vvlabs.jira.client.JiraExpandRestClientFactory;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * partitioned extraction against {@link JiraStubServer}, whose issue i is created at base + i minutes
+ * and updated at base + 2i minutes
+ */
+public class PartitionedExtractorTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final Instant BASE = Instant.parse("2018-01-01T00:00:00Z");
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+  private JiraExpandRestClient client;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    if (stub != null) {
+      stub.close();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void everyIssueIsReadOnceAcrossPartitions() throws IOException {
+    start(300);
+    List<String> keys = new ArrayList<>();
+
+    PartitionReport report = extractor(50).extract(null, null, null, null, at(0), at(600),
+        page -> page.forEach(issue -> keys.add(issue.getKey())));
+
+    assertEquals(300, keys.size());
+    assertEquals(300, new HashSet<>(keys).size());
+    assertEquals(300, report.getIssues());
+    assertTrue(report.getPartitions() >= 6);
+  }
+
+  @Test(timeout = 60_000)
+  public void issueUpdatedDuringExtractionDoesNotShiftPages() throws IOException {
+    start(100);
+    List<String> keys = new ArrayList<>();
+
+    extractor(1000).extract(null, null, null, null, at(0), at(200), page -> {
+      if (keys.isEmpty()) {
+        // the first issue read is edited : it leaves the partition being read
+        stub.touch(0, BASE.toEpochMilli() + TimeUnit.DAYS.toMillis(365));
+      }
+      page.forEach(issue -> keys.add(issue.getKey()));
+    });
+
+    assertEquals(100, new HashSet<>(keys).size());
+    assertEquals(100, keys.size());
+  }
+
+  @Test(timeout = 60_000)
+  public void customJqlStaysInsidePartitionBounds() throws IOException {
+    start(50);
+
+    extractor(20).extract("project = PRJ1 OR project = PRJ2", null, null, null, at(0), at(100), page -> { });
+
+    List<String> jqls = stub.getSearchJqls();
+    assertTrue(jqls.size() > 1);
+    for (String jql : jqls) {
+      assertTrue(jql, jql.startsWith("(project = PRJ1 OR project = PRJ2) AND updated > "));
+    }
+  }
+
+  private PartitionedExtractor extractor(int maxPartitionSize) {
+    return new PartitionedExtractor(client, PartitionConfig.builder().maxPartitionSize(maxPartitionSize).pageSize(20).build());
+  }
+
+  private void start(int issueCount) throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(issueCount)
+        .latencyMillis(0)
+        .latencyJitterMillis(0)
+        .build()).start();
+    client = new JiraExpandRestClientFactory().createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+  }
+
+  /**
+   * @return local date time minutes after the first issue update
+   */
+  private static LocalDateTime at(long minutes) {
+    return LocalDateTime.ofInstant(BASE.plusSeconds(minutes * 60), ZoneId.systemDefault());
+  }
+}
@@ -0,0 +1,122 @@
+package fr.vvlabs.jira.client.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.google.common.collect.Iterables;
+import com.google.common.io.CountingInputStream;
+import fr.vvlabs.jira.client.util.JiraMockUtil;
+import fr.vvlabs.jira.client.util.SearchResponseFixtures;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * streaming parser on search responses laid out as Jira sends them : names and schema after the issues
+ */
+public class StreamingSearchResultParserTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final StreamingSearchResultParser parser = new StreamingSearchResultParser();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void issuesReachConsumerBeforeBodyIsRead() throws Exception {
+    byte[] body = SearchResponseFixtures.searchResponse(500, 0).getBytes(StandardCharsets.UTF_8);
+    CountingInputStream stream = new CountingInputStream(new ByteArrayInputStream(body));
+    List<Long> readWhenConsumed = new ArrayList<>();
+
+    SearchResult result = parser.parse(stream, null, false, issue -> readWhenConsumed.add(stream.getCount()));
+
+    assertEquals(500, readWhenConsumed.size());
+    assertTrue(Iterables.isEmpty(result.getIssues()));
+    assertEquals(5000, result.getTotal());
+    // the first issue is handed over after a few buffers, not once the body is read
+    assertTrue("first issue after " + readWhenConsumed.get(0) + " of " + body.length + " bytes",
+        readWhenConsumed.get(0) < body.length / 10);
+  }
+
+  @Test
+  public void namesAreResolvedWhenWaitedFor() throws Exception {
+    SearchResult result = parse(SearchResponseFixtures.searchResponse(3, 0), true);
+
+    Issue issue = Iterables.get(result.getIssues(), 0);
+    assertEquals(JiraMockUtil.JIRA_FIELD_ESTIMATION_NAME, issue.getField(JiraMockUtil.JIRA_FIELD_ESTIMATION_ID).getName());
+  }
+
+  @Test
+  public void fieldValuesAreKeptWithoutNames() throws Exception {
+    SearchResult result = parse(SearchResponseFixtures.searchResponse(3, 0), false);
+
+    Issue issue = Iterables.get(result.getIssues(), 0);
+    assertEquals("LOOM-1", issue.getKey());
+    assertNotNull(issue.getField(JiraMockUtil.JIRA_FIELD_ESTIMATION_ID).getValue());
+  }
+
+  @Test
+  public void namesDoNotLeakToNextResponse() throws Exception {
+    parse(SearchResponseFixtures.searchResponse(3, 0), true);
+    JSONObject withoutNames = new JSONObject(SearchResponseFixtures.searchResponse(3, 0));
+    withoutNames.remove("names");
+    withoutNames.remove("schema");
+
+    SearchResult result = parse(withoutNames.toString(), true);
+
+    Issue issue = Iterables.get(result.getIssues(), 0);
+    assertNull(issue.getField(JiraMockUtil.JIRA_FIELD_ESTIMATION_ID).getName());
+  }
+
+  @Test
+  public void selectedFieldsAreKept() throws Exception {
+    Set<String> fields = new HashSet<>(Arrays.asList("summary", "issuetype", "project", "status", "created", "updated"));
+    SearchResult result = parse(SearchResponseFixtures.searchResponse(3, 0), fields);
+
+    Issue issue = Iterables.get(result.getIssues(), 0);
+    assertEquals("summary of LOOM-1", issue.getSummary());
+    assertNull(issue.getDescription());
+    assertNull(issue.getField(JiraMockUtil.JIRA_FIELD_ESTIMATION_ID));
+  }
+
+  @Test
+  public void excludedFieldsAreSkippedWithWildcard() throws Exception {
+    SearchResult result = parse(SearchResponseFixtures.searchResponse(3, 0), new HashSet<>(Arrays.asList("*all", "-description")));
+
+    Issue issue = Iterables.get(result.getIssues(), 0);
+    assertEquals("summary of LOOM-1", issue.getSummary());
+    assertNull(issue.getDescription());
+    assertNotNull(issue.getField(JiraMockUtil.JIRA_FIELD_ESTIMATION_ID));
+  }
+
+  @Test
+  public void exclusionsAloneKeepOtherFields() throws Exception {
+    SearchResult result = parse(SearchResponseFixtures.searchResponse(3, 0), new HashSet<>(Arrays.asList("-description")));
+
+    Issue issue = Iterables.get(result.getIssues(), 0);
+    assertEquals("summary of LOOM-1", issue.getSummary());
+    assertNull(issue.getDescription());
+  }
+
+  private SearchResult parse(String body, boolean waitForNames) throws Exception {
+    return parser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), null, waitForNames, null);
+  }
+
+  private SearchResult parse(String body, Set<String> fields) throws Exception {
+    return parser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), fields, false, null);
+  }
+}
@@ -0,0 +1,189 @@
+package fr.vvlabs.jira.client.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * local issue store : indexed queries, reopening, stale and partial upserts, segment roll and compaction
+ */
+public class LocalIssueStoreTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String TEAM_FIELD = "customfield_10001";
+  private static final long BASE_UPDATED = 1514764800000L;
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private LocalIssueStore store;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Before
+  public void setUp() throws IOException {
+    store = open(64 * 1024);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  public void queryCombinesCriteriaMostRecentFirst() {
+    store.upsertAll(issues(40));
+
+    List<StoredIssue> issues = store.query(IssueQuery.builder()
+        .project("PRJ0")
+        .status("Open")
+        .fieldValue(TEAM_FIELD, "team0")
+        .updatedFrom(BASE_UPDATED + 10)
+        .limit(3)
+        .build());
+
+    // issues 0 mod 4 are PRJ0, Open and team0
+    assertEquals(Arrays.asList("PRJ-36", "PRJ-32", "PRJ-28"), keys(issues));
+    assertEquals("summary 36", issues.get(0).getSummary());
+  }
+
+  @Test
+  public void updatedRangeExcludesUpperBound() {
+    store.upsertAll(issues(10));
+
+    List<StoredIssue> issues = store.query(IssueQuery.builder().updatedFrom(BASE_UPDATED + 2).updatedTo(BASE_UPDATED + 5).build());
+
+    assertEquals(Arrays.asList("PRJ-4", "PRJ-3", "PRJ-2"), keys(issues));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void queryOnFieldNotIndexedIsRejected() {
+    store.query(IssueQuery.builder().fieldValue("customfield_99999", "x").build());
+  }
+
+  @Test
+  public void indexesAreRebuiltOnOpen() throws IOException {
+    store.upsertAll(issues(40));
+    store.close();
+
+    store = open(64 * 1024);
+
+    assertEquals(40, store.size());
+    assertEquals(Long.valueOf(BASE_UPDATED + 39), store.getLastUpdated());
+    assertEquals(10, store.query(IssueQuery.builder().fieldValue(TEAM_FIELD, "team1").build()).size());
+    assertEquals("summary 7", store.get("PRJ-7").getSummary());
+  }
+
+  @Test
+  public void staleIssueIsIgnored() {
+    store.upsertAll(Collections.singletonList(issue(1, BASE_UPDATED + 100, "Done")));
+
+    store.upsertAll(Collections.singletonList(issue(1, BASE_UPDATED, "Open")));
+
+    assertEquals("Done", store.get("PRJ-1").getStatus());
+    assertTrue(store.query(IssueQuery.builder().status("Open").build()).isEmpty());
+  }
+
+  @Test
+  public void partialIssueIsMergedIntoStoredOne() {
+    store.upsertAll(Collections.singletonList(issue(1, BASE_UPDATED, "Open")));
+    StoredIssue statusOnly = new StoredIssue(1L, "PRJ-1", null, "Done", null, null, null, 0L, BASE_UPDATED + 1, new LinkedHashMap<>());
+
+    store.upsertAll(Collections.singletonList(statusOnly), new HashSet<>(Arrays.asList("status", "updated")));
+
+    StoredIssue merged = store.get("PRJ-1");
+    assertEquals("Done", merged.getStatus());
+    assertEquals("summary 1", merged.getSummary());
+    assertEquals("team1", merged.getFields().get(TEAM_FIELD));
+    assertEquals(1, store.query(IssueQuery.builder().status("Done").build()).size());
+  }
+
+  @Test
+  public void segmentsAndCompactionStayWithinSegmentSize() throws IOException {
+    int segmentSize = 1024;
+    store.close();
+    store = open(segmentSize);
+    for (StoredIssue issue : issues(60)) {
+      store.upsertAll(Collections.singletonList(issue));
+    }
+    List<Path> written = segmentFiles();
+    assertTrue(written.size() > 1);
+
+    store.compact();
+
+    List<Path> compacted = segmentFiles();
+    for (Path file : compacted) {
+      assertTrue(file + " has " + Files.size(file) + " bytes", Files.size(file) <= segmentSize);
+    }
+    // superseded segments were unmapped and deleted
+    assertTrue(Collections.disjoint(written, compacted));
+    assertEquals(60, store.size());
+    assertEquals("summary 59", store.get("PRJ-59").getSummary());
+    assertNull(store.get("PRJ-60"));
+  }
+
+  private LocalIssueStore open(int segmentSize) throws IOException {
+    return new LocalIssueStore(IssueStoreConfig.builder()
+        .directory(folder.getRoot().toPath())
+        .indexedFields(Collections.singleton(TEAM_FIELD))
+        .segmentSize(segmentSize)
+        .build());
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder.getRoot().toPath(), "segment-*.dat")) {
+      stream.forEach(files::add);
+    }
+    return files;
+  }
+
+  /**
+   * Issues PRJ-0 to PRJ-(count - 1) : 2 projects, 2 statuses and 4 teams in turn, updated 1 ms apart
+   */
+  private static List<StoredIssue> issues(int count) {
+    List<StoredIssue> issues = new ArrayList<>();
+    for (int index = 0; index < count; index++) {
+      issues.add(issue(index, BASE_UPDATED + index, index % 2 == 0 ? "Open" : "Done"));
+    }
+    return issues;
+  }
+
+  private static StoredIssue issue(int index, long updated, String status) {
+    Map<String, String> fields = new LinkedHashMap<>();
+    fields.put(TEAM_FIELD, "team" + index % 4);
+    return new StoredIssue(10000L + index, "PRJ-" + index, "PRJ" + index % 2, status, "Task", "summary " + index, "user" + index % 3,
+        BASE_UPDATED, updated, fields);
+  }
+
+  private static List<String> keys(List<StoredIssue> issues) {
+    return issues.stream().map(StoredIssue::getKey).collect(Collectors.toList());
+  }
+}
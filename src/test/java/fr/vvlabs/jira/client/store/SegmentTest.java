@@ -0,0 +1,106 @@
+package fr.vvlabs.jira.client.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * segment files : appends, reads before and after sealing, scan of an interrupted write, deletion of a mapped segment
+ */
+public class SegmentTest {
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void recordsAreReadBackBeforeAndAfterSealing() throws IOException {
+    try (Segment segment = new Segment(0, file())) {
+      long first = segment.append(bytes("first"));
+      long[] batch = segment.appendAll(Arrays.asList(bytes("second"), bytes(""), bytes("fourth")));
+
+      assertEquals(0L, first);
+      assertEquals(4, segment.getRecords());
+      assertEquals(4 * Segment.LENGTH_BYTES + "firstsecondfourth".length(), segment.getSize());
+      assertArrayEquals(bytes("second"), segment.read(batch[0]));
+      assertArrayEquals(bytes(""), segment.read(batch[1]));
+
+      segment.seal();
+
+      assertTrue(segment.isSealed());
+      assertArrayEquals(bytes("first"), segment.read(first));
+      assertArrayEquals(bytes("fourth"), segment.read(batch[2]));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void sealedSegmentRejectsAppends() throws IOException {
+    try (Segment segment = new Segment(0, file())) {
+      segment.append(bytes("first"));
+      segment.seal();
+
+      segment.append(bytes("second"));
+    }
+  }
+
+  @Test
+  public void scanTruncatesIncompleteRecord() throws IOException {
+    Path file = file();
+    try (Segment segment = new Segment(0, file)) {
+      segment.appendAll(Arrays.asList(bytes("first"), bytes("second")));
+    }
+    long validSize = Files.size(file);
+    // interrupted write : length prefix of 100 bytes, only 3 written
+    Files.write(file, new byte[] {0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    List<String> records = new ArrayList<>();
+    try (Segment segment = new Segment(0, file)) {
+      segment.scan((offset, record) -> records.add(new String(record, StandardCharsets.UTF_8)));
+
+      assertEquals(Arrays.asList("first", "second"), records);
+      assertEquals(2, segment.getRecords());
+      assertEquals(validSize, segment.getSize());
+    }
+    assertEquals(validSize, Files.size(file));
+  }
+
+  @Test
+  public void sealedSegmentIsDeleted() throws IOException {
+    Path file = file();
+    Segment segment = new Segment(0, file);
+    segment.append(bytes("first"));
+    segment.seal();
+
+    segment.delete();
+
+    assertFalse(Files.exists(file));
+  }
+
+  private Path file() {
+    return folder.getRoot().toPath().resolve("segment-000000.dat");
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+}
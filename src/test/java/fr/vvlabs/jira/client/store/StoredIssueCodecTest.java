@@ -0,0 +1,63 @@
+package fr.vvlabs.jira.client.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * binary layout of stored issues : round trip, null and long values, unknown versions
+ */
+public class StoredIssueCodecTest {
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Test
+  public void issueIsDecodedAsEncoded() throws IOException {
+    Map<String, String> fields = new LinkedHashMap<>();
+    fields.put("customfield_10001", "Backend");
+    fields.put("customfield_10002", "3.5");
+    StoredIssue issue = new StoredIssue(10042L, "PRJ-42", "PRJ", "In Progress", "Bug", "déjà vu – 🐛", "jdoe",
+        1514764800000L, 1514851200000L, fields);
+
+    StoredIssue decoded = StoredIssueCodec.decode(StoredIssueCodec.encode(issue));
+
+    assertEquals(issue.toString(), decoded.toString());
+    assertEquals(Arrays.asList("customfield_10001", "customfield_10002"), Arrays.asList(decoded.getFields().keySet().toArray()));
+  }
+
+  @Test
+  public void nullValuesAreKept() throws IOException {
+    StoredIssue issue = new StoredIssue(1L, "PRJ-1", null, null, null, null, null, 0L, 0L, new LinkedHashMap<>());
+
+    StoredIssue decoded = StoredIssueCodec.decode(StoredIssueCodec.encode(issue));
+
+    assertEquals("PRJ-1", decoded.getKey());
+    assertNull(decoded.getProjectKey());
+    assertNull(decoded.getAssignee());
+    assertNull(decoded.getSummary());
+  }
+
+  @Test
+  public void valuesLongerThan64KiBAreKept() throws IOException {
+    char[] summary = new char[70_000];
+    Arrays.fill(summary, 'é');
+    StoredIssue issue = new StoredIssue(1L, "PRJ-1", "PRJ", "Open", "Task", new String(summary), null, 0L, 0L, new LinkedHashMap<>());
+
+    assertEquals(issue.getSummary(), StoredIssueCodec.decode(StoredIssueCodec.encode(issue)).getSummary());
+  }
+
+  @Test(expected = IOException.class)
+  public void unknownVersionIsRejected() throws IOException {
+    byte[] record = StoredIssueCodec.encode(new StoredIssue(1L, "PRJ-1", null, null, null, null, null, 0L, 0L, new LinkedHashMap<>()));
+    record[0] = 42;
+
+    StoredIssueCodec.decode(record);
+  }
+}
@@ -0,0 +1,140 @@
+package fr.vvlabs.jira.client.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import fr.vvlabs.jira.client.JiraExpandRestClient;
+import fr.vvlabs.jira.client.JiraExpandRestClientFactory;
+import fr.vvlabs.jira.client.util.JiraStubConfig;
+import fr.vvlabs.jira.client.util.JiraStubServer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * incremental sync against {@link JiraStubServer}, whose "updated >= ..." searches follow the watermark
+ */
+public class IncrementalSyncTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final int ISSUE_COUNT = 230;
+  private static final String QUERY_ID = "all";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private JiraStubServer stub;
+  private JiraExpandRestClient client;
+  private IncrementalSyncConfig config;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @Before
+  public void setUp() throws IOException {
+    stub = new JiraStubServer(JiraStubConfig.builder()
+        .issueCount(ISSUE_COUNT)
+        .maxPageSize(50)
+        .latencyMillis(0)
+        .latencyJitterMillis(0)
+        .build()).start();
+    client = new JiraExpandRestClientFactory().createWithBasicHttpAuthentication(stub.getBaseUri(), "test", "test");
+    config = IncrementalSyncConfig.builder().pageSize(50).build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    stub.close();
+  }
+
+  @Test(timeout = 60_000)
+  public void firstSyncDeliversEveryIssueOnce() {
+    List<Issue> delivered = new ArrayList<>();
+
+    SyncReport report = sync(delivered);
+
+    assertEquals(ISSUE_COUNT, report.getDeliveredIssues());
+    assertEquals(ISSUE_COUNT, delivered.size());
+    Set<Long> ids = new HashSet<>();
+    delivered.forEach(issue -> ids.add(issue.getId()));
+    assertEquals(ISSUE_COUNT, ids.size());
+    long lastUpdated = delivered.get(delivered.size() - 1).getUpdateDate().getMillis();
+    assertEquals(lastUpdated, report.getWatermark().getUpdatedMillis());
+  }
+
+  @Test(timeout = 60_000)
+  public void nextSyncSkipsIssuesOfTheOverlapWindow() {
+    sync(new ArrayList<>());
+    List<Issue> delivered = new ArrayList<>();
+
+    // a new store reads the persisted watermark
+    SyncReport report = sync(delivered);
+
+    assertEquals(0, report.getDeliveredIssues());
+    assertTrue(delivered.isEmpty());
+    assertTrue(report.getSkippedDuplicates() > 0);
+    assertEquals(1, report.getPages());
+  }
+
+  @Test(timeout = 60_000)
+  public void issueUpdatedAfterLastSyncIsDeliveredAgain() {
+    SyncReport first = sync(new ArrayList<>());
+    stub.touch(10, first.getWatermark().getUpdatedMillis() + 60_000L);
+    List<Issue> delivered = new ArrayList<>();
+
+    SyncReport report = sync(delivered);
+
+    assertEquals(1, report.getDeliveredIssues());
+    assertEquals(stub.issueKey(10), delivered.get(0).getKey());
+    assertEquals(first.getWatermark().getUpdatedMillis() + 60_000L, report.getWatermark().getUpdatedMillis());
+  }
+
+  @Test(timeout = 60_000)
+  public void crashedSyncResumesFromLastCommittedPage() {
+    List<Issue> delivered = new ArrayList<>();
+    try {
+      IncrementalSync sync = new IncrementalSync(client, new FileWatermarkStore(folder.getRoot().toPath()), config);
+      sync.sync(QUERY_ID, null, null, null, null, page -> {
+        if (!delivered.isEmpty()) {
+          throw new IllegalStateException("consumer crashed");
+        }
+        delivered.addAll(page);
+      });
+      fail("the consumer failure must stop the sync");
+    } catch (IllegalStateException e) {
+      // only the first page was committed
+    }
+    assertEquals(50, delivered.size());
+
+    SyncReport report = sync(delivered);
+
+    assertEquals(ISSUE_COUNT - 50, report.getDeliveredIssues());
+    Set<Long> ids = new HashSet<>();
+    delivered.forEach(issue -> ids.add(issue.getId()));
+    assertEquals(ISSUE_COUNT, ids.size());
+    assertEquals(ISSUE_COUNT, delivered.size());
+  }
+
+  private SyncReport sync(List<Issue> delivered) {
+    IncrementalSync sync = new IncrementalSync(client, new FileWatermarkStore(folder.getRoot().toPath()), config);
+    return sync.sync(QUERY_ID, null, null, null, null, delivered::addAll);
+  }
+}
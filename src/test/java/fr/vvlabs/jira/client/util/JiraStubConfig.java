@@ -0,0 +1,76 @@
+package fr.vvlabs.jira.client.util;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * behaviour of {@link JiraStubServer}
+ */
+@Getter
+@Builder
+public class JiraStubConfig {
+
+  /** listening port, 0 for any free port */
+  @Builder.Default
+  private final int port = 0;
+
+  /** request handling threads */
+  @Builder.Default
+  private final int threads = 64;
+
+  /** issues matching every search */
+  @Builder.Default
+  private final int issueCount = 10000;
+
+  /** projects, issues are spread over them */
+  @Builder.Default
+  private final int projectCount = 10;
+
+  /** search pages are capped at this size, as Jira does with maxResults */
+  @Builder.Default
+  private final int maxPageSize = 100;
+
+  /** changelog pages are capped at this size */
+  @Builder.Default
+  private final int maxChangelogPageSize = 100;
+
+  /** fixed latency added to every response */
+  @Builder.Default
+  private final long latencyMillis = 20;
+
+  /** random latency added on top of the fixed latency, up to this value */
+  @Builder.Default
+  private final long latencyJitterMillis = 10;
+
+  /** share of requests answered with 429 Too Many Requests, between 0 and 1 */
+  @Builder.Default
+  private final double throttleRate = 0d;
+
+  /** Retry-After header of 429 responses, seconds */
+  @Builder.Default
+  private final int retryAfterSeconds = 1;
+
+  /** characters of each issue description, to tune payload size */
+  @Builder.Default
+  private final int descriptionSize = 200;
+
+  /** custom fields of each issue, alternating select, number and date fields */
+  @Builder.Default
+  private final int customFieldCount = 6;
+
+  /** changelog groups of each issue */
+  @Builder.Default
+  private final int changelogGroups = 20;
+
+  /** compress responses when the client accepts gzip */
+  @Builder.Default
+  private final boolean gzip = true;
+
+  /** serve the paged changelog resource, false to answer 404 as older Jira versions do */
+  @Builder.Default
+  private final boolean pagedChangelog = true;
+
+  /** search page answered with 500 Internal Server Error, by its startAt, -1 for none */
+  @Builder.Default
+  private final int failedSearchStartAt = -1;
+}
@@ -0,0 +1,661 @@
+package fr.vvlabs.jira.client.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * embedded Jira answering the REST resources used by the client, with generated issues :
+ * search (GET and POST), issue, issue changelog, projects and project.
+ * Latency, page size caps, 429 responses and payload size are configurable, see {@link JiraStubConfig}.
+ * Issue keys match whatever their case, and issues of project PRJn keep their keys of project OLDn, as moved issues do.
+ * Searches match every issue, except "key = ..." and "key IN (...)" queries which match the given keys
+ * and are rejected with 400 when a key does not exist, as Jira does, unless validateQuery is "warn",
+ * and queries on "updated" or "created"
+ * against epoch millis, which match the issues in range, in updated order or in created order when sorted by created.
+ */
+@Slf4j
+public class JiraStubServer implements Closeable {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String[] API_PREFIXES = {"/rest/api/latest/", "/rest/api/2/"};
+  private static final Pattern KEY_QUERY = Pattern.compile("^\\s*key\\s*(=|in)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern ISSUE_KEY = Pattern.compile("([A-Z][A-Z0-9]*)-(\\d+)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern TIME_FILTER = Pattern.compile("(updated|created)\\s*([<>]=?)\\s*(-?\\d+)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern ORDER_BY_CREATED = Pattern.compile("order\\s+by\\s+created", Pattern.CASE_INSENSITIVE);
+  private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ").withZone(ZoneOffset.UTC);
+  private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC);
+  private static final long BASE_CREATED_MILLIS = Instant.parse("2018-01-01T00:00:00Z").toEpochMilli();
+  private static final long MINUTE_MILLIS = 60_000L;
+  private static final String PROJECT_KEY_PREFIX = "PRJ";
+  private static final String OLD_PROJECT_KEY_PREFIX = "OLD";
+  private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+  private static final String[] STATUSES = {"1", "3", "10300", "6", "10500"};
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private final JiraStubConfig config;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong throttled = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+  private final Map<Integer, Long> touched = new ConcurrentHashMap<>();
+  private final Queue<String> searchJqls = new ConcurrentLinkedQueue<>();
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  /**
+   * Build a new stub, call {@link #start()} to serve requests
+   * @param config
+   * @throws IOException
+   */
+  public JiraStubServer(final JiraStubConfig config) throws IOException {
+    this.config = config;
+    this.server = HttpServer.create(new InetSocketAddress("localhost", config.getPort()), 0);
+    this.executor = Executors.newFixedThreadPool(config.getThreads(),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("jira-stub-%d").build());
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+  }
+
+  // ===========================================================
+  // Methods for/from SuperClass/Interfaces
+  // ===========================================================
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  public JiraStubServer start() {
+    server.start();
+    log.info("start() Jira stub listening on {}", getBaseUri());
+    return this;
+  }
+
+  /**
+   * @return server URI, to give to the client factory
+   */
+  public URI getBaseUri() {
+    return URI.create("http://localhost:" + server.getAddress().getPort());
+  }
+
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  public long getThrottledCount() {
+    return throttled.get();
+  }
+
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /**
+   * @return highest number of requests waiting for their latency at the same time
+   */
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests.get();
+  }
+
+  /**
+   * @return JQL of the searches received, in arrival order
+   */
+  public List<String> getSearchJqls() {
+    return new ArrayList<>(searchJqls);
+  }
+
+  /**
+   * Change the updated timestamp of an issue, as an edit made in Jira would
+   * @param index issue index
+   * @param updatedMillis
+   */
+  public void touch(int index, long updatedMillis) {
+    touched.put(index, updatedMillis);
+  }
+
+  /**
+   * @param index issue index, from 0 to issueCount - 1
+   * @return issue key, e.g. PRJ3-12
+   */
+  public String issueKey(int index) {
+    return projectKey(index % config.getProjectCount()) + "-" + (index / config.getProjectCount() + 1);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    try {
+      // counted while waiting, a client reusing the slot only sends once the response is written
+      maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+      try {
+        sleep();
+      } finally {
+        concurrentRequests.decrementAndGet();
+      }
+      if (config.getThrottleRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.getThrottleRate()) {
+        throttled.incrementAndGet();
+        exchange.getResponseHeaders().set("Retry-After", Integer.toString(config.getRetryAfterSeconds()));
+        send(exchange, 429, error("Rate limit exceeded"));
+        return;
+      }
+      String path = apiPath(exchange.getRequestURI().getPath());
+      Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+      if (path == null) {
+        send(exchange, 404, error("Not found"));
+      } else if (path.equals("search")) {
+        handleSearch(exchange, query);
+      } else if (path.startsWith("issue/") && path.endsWith("/changelog")) {
+        handleChangelog(exchange, path.substring("issue/".length(), path.length() - "/changelog".length()), query);
+      } else if (path.startsWith("issue/")) {
+        handleIssue(exchange, path.substring("issue/".length()), query);
+      } else if (path.equals("project")) {
+        send(exchange, 200, projectsJson());
+      } else if (path.startsWith("project/")) {
+        handleProject(exchange, path.substring("project/".length()));
+      } else {
+        send(exchange, 404, error("Not found"));
+      }
+    } catch (JSONException | RuntimeException e) {
+      log.warn("handle(...) {} failed : {}", exchange.getRequestURI(), e.toString());
+      send(exchange, 500, error(e.toString()));
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void handleSearch(HttpExchange exchange, Map<String, String> query) throws IOException, JSONException {
+    String jql = query.getOrDefault("jql", "");
+    int startAt = parseInt(query.get("startAt"), 0);
+    int maxResults = parseInt(query.get("maxResults"), 50);
+    Set<String> fields = split(query.get("fields"));
+    Set<String> expand = split(query.get("expand"));
+    String validateQuery = query.get("validateQuery");
+    if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+      JSONObject body = new JSONObject(read(exchange.getRequestBody()));
+      jql = body.optString("jql", "");
+      startAt = body.optInt("startAt", 0);
+      maxResults = body.optInt("maxResults", 50);
+      fields = toSet(body.optJSONArray("fields"));
+      expand = toSet(body.optJSONArray("expand"));
+      validateQuery = body.optString("validateQuery", null);
+    }
+    searchJqls.add(jql);
+    if (startAt == config.getFailedSearchStartAt()) {
+      send(exchange, 500, error("Internal server error"));
+      return;
+    }
+
+    List<Integer> matches = null;
+    List<String> warnings = new ArrayList<>();
+    if (KEY_QUERY.matcher(jql).find()) {
+      Set<Integer> keyMatches = new LinkedHashSet<>();
+      Matcher keys = ISSUE_KEY.matcher(jql);
+      while (keys.find()) {
+        int index = indexOf(keys.group(1), Integer.parseInt(keys.group(2)));
+        if (index >= 0) {
+          keyMatches.add(index);
+        } else if ("warn".equals(validateQuery)) {
+          warnings.add("An issue with key '" + keys.group() + "' does not exist for field 'key'.");
+        } else {
+          send(exchange, 400, error("An issue with key '" + keys.group() + "' does not exist for field 'key'."));
+          return;
+        }
+      }
+      matches = new ArrayList<>(keyMatches);
+    } else {
+      matches = inTimeRange(jql);
+    }
+    int total = matches != null ? matches.size() : config.getIssueCount();
+    int pageSize = Math.max(0, Math.min(maxResults, config.getMaxPageSize()));
+    int end = Math.min(total, startAt + pageSize);
+
+    StringBuilder json = new StringBuilder(pageSize * (1024 + config.getDescriptionSize()));
+    json.append("{\"expand\":\"schema,names\",\"startAt\":").append(startAt).append(",\"maxResults\":").append(pageSize)
+        .append(",\"total\":").append(total);
+    if (!warnings.isEmpty()) {
+      json.append(",\"warningMessages\":").append(new JSONArray(warnings));
+    }
+    json.append(",\"issues\":[");
+    for (int position = startAt; position < end; position++) {
+      if (position > startAt) {
+        json.append(',');
+      }
+      int index = matches != null ? matches.get(position) : position;
+      appendIssue(json, index, fields, expand.contains("changelog") ? config.getMaxChangelogPageSize() : 0);
+    }
+    json.append(']');
+    appendNamesAndSchema(json, expand);
+    json.append('}');
+    send(exchange, 200, json.toString());
+  }
+
+  private void handleIssue(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+    int index = indexOf(key);
+    if (index < 0) {
+      send(exchange, 404, error("Issue Does Not Exist"));
+      return;
+    }
+    Set<String> expand = split(query.get("expand"));
+    StringBuilder json = new StringBuilder(4096 + config.getDescriptionSize());
+    appendIssue(json, index, split(query.get("fields")), expand.contains("changelog") ? config.getChangelogGroups() : 0);
+    // names and schema of a single issue are members of the issue
+    json.setLength(json.length() - 1);
+    appendNamesAndSchema(json, expand.isEmpty() ? new HashSet<>(Arrays.asList("names", "schema")) : expand);
+    json.append('}');
+    send(exchange, 200, json.toString());
+  }
+
+  private void handleChangelog(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+    int index = indexOf(key);
+    if (!config.isPagedChangelog() || index < 0) {
+      send(exchange, 404, error("Not found"));
+      return;
+    }
+    int total = config.getChangelogGroups();
+    int startAt = parseInt(query.get("startAt"), 0);
+    int pageSize = Math.min(parseInt(query.get("maxResults"), 100), config.getMaxChangelogPageSize());
+    int end = Math.min(total, startAt + pageSize);
+    StringBuilder json = new StringBuilder(512 * pageSize);
+    json.append("{\"self\":\"").append(getBaseUri()).append("/rest/api/latest/issue/").append(key).append("/changelog\"")
+        .append(",\"startAt\":").append(startAt).append(",\"maxResults\":").append(pageSize)
+        .append(",\"total\":").append(total).append(",\"isLast\":").append(end >= total).append(",\"values\":[");
+    for (int group = startAt; group < end; group++) {
+      if (group > startAt) {
+        json.append(',');
+      }
+      appendChangelogGroup(json, index, group);
+    }
+    json.append("]}");
+    send(exchange, 200, json.toString());
+  }
+
+  private void handleProject(HttpExchange exchange, String key) throws IOException {
+    int project = projectIndex(key);
+    if (project < 0) {
+      send(exchange, 404, error("No project could be found with key '" + key + "'."));
+      return;
+    }
+    String self = getBaseUri() + "/rest/api/latest/project/" + (project + 1);
+    StringBuilder json = new StringBuilder(1024);
+    json.append("{\"expand\":\"description,lead,url,projectKeys\",\"self\":\"").append(self).append("\",\"id\":\"").append(project + 1)
+        .append("\",\"key\":\"").append(key).append("\",\"name\":").append(JSONObject.quote(JiraMockUtil.LOOM_RECETTE_A + " " + project))
+        .append(",\"description\":\"\",\"lead\":");
+    appendUser(json);
+    json.append(",\"components\":[],\"issueTypes\":[],\"versions\":[],\"roles\":{},\"projectKeys\":[\"").append(key).append("\"]}");
+    send(exchange, 200, json.toString());
+  }
+
+  private String projectsJson() {
+    StringBuilder json = new StringBuilder(128 * config.getProjectCount());
+    json.append('[');
+    for (int project = 0; project < config.getProjectCount(); project++) {
+      if (project > 0) {
+        json.append(',');
+      }
+      json.append("{\"self\":\"").append(getBaseUri()).append("/rest/api/latest/project/").append(project + 1)
+          .append("\",\"id\":\"").append(project + 1).append("\",\"key\":\"").append(projectKey(project))
+          .append("\",\"name\":").append(JSONObject.quote(JiraMockUtil.LOOM_RECETTE_A + " " + project)).append('}');
+    }
+    return json.append(']').toString();
+  }
+
+  private void appendIssue(StringBuilder json, int index, Set<String> fields, int changelogGroups) {
+    String key = issueKey(index);
+    long created = createdMillis(index);
+    long updated = updatedMillis(index);
+    int project = index % config.getProjectCount();
+    String status = STATUSES[index % STATUSES.length];
+    String base = getBaseUri() + "/rest/api/2/";
+    json.append("{\"expand\":\"operations,editmeta,changelog,transitions,renderedFields\",\"id\":\"").append(10000L + index)
+        .append("\",\"self\":\"").append(base).append("issue/").append(10000L + index).append("\",\"key\":\"").append(key)
+        .append("\",\"fields\":{");
+    json.append("\"summary\":").append(JSONObject.quote("summary of " + key));
+    json.append(",\"issuetype\":{\"self\":\"").append(base).append("issuetype/1\",\"id\":\"1\",\"description\":\"\",\"iconUrl\":\"")
+        .append(base).append("icon.png\",\"name\":\"Task\",\"subtask\":false}");
+    json.append(",\"project\":{\"self\":\"").append(base).append("project/").append(project + 1).append("\",\"id\":\"").append(project + 1)
+        .append("\",\"key\":\"").append(projectKey(project)).append("\",\"name\":")
+        .append(JSONObject.quote(JiraMockUtil.LOOM_RECETTE_A + " " + project)).append('}');
+    json.append(",\"status\":{\"self\":\"").append(base).append("status/").append(status).append("\",\"description\":\"\",\"iconUrl\":\"")
+        .append(base).append("icon.png\",\"name\":").append(JSONObject.quote(JiraMockUtil.JIRA_STATUS_MAP.get(Long.valueOf(status))))
+        .append(",\"id\":\"").append(status).append("\"}");
+    json.append(",\"created\":\"").append(DATE_TIME.format(Instant.ofEpochMilli(created))).append('"');
+    json.append(",\"updated\":\"").append(DATE_TIME.format(Instant.ofEpochMilli(updated))).append('"');
+    if (isWanted(fields, "reporter")) {
+      json.append(",\"reporter\":");
+      appendUser(json);
+    }
+    if (isWanted(fields, "assignee")) {
+      json.append(",\"assignee\":");
+      appendUser(json);
+    }
+    if (isWanted(fields, "description")) {
+      json.append(",\"description\":\"");
+      for (int i = 0; i < config.getDescriptionSize(); i++) {
+        json.append((char) ('a' + (index + i) % 26));
+      }
+      json.append('"');
+    }
+    for (int field = 0; field < config.getCustomFieldCount(); field++) {
+      String fieldId = customFieldId(field);
+      if (!isWanted(fields, fieldId)) {
+        continue;
+      }
+      json.append(",\"").append(fieldId).append("\":");
+      switch (field % 3) {
+        case 0:
+          json.append("{\"self\":\"").append(base).append("customFieldOption/").append(field).append("\",\"value\":")
+              .append(JSONObject.quote(JiraMockUtil.JIRA_ACTIVITY_DOMAINS[(index + field) % JiraMockUtil.JIRA_ACTIVITY_DOMAINS.length]))
+              .append(",\"id\":\"").append(field).append("\"}");
+          break;
+        case 1:
+          json.append((index + field) % 13 + 0.5);
+          break;
+        default:
+          json.append('"').append(DATE.format(Instant.ofEpochMilli(created + field * 24 * 60 * MINUTE_MILLIS))).append('"');
+      }
+    }
+    json.append('}');
+    if (changelogGroups > 0) {
+      int groups = Math.min(changelogGroups, config.getChangelogGroups());
+      json.append(",\"changelog\":{\"startAt\":0,\"maxResults\":").append(groups).append(",\"total\":").append(config.getChangelogGroups())
+          .append(",\"histories\":[");
+      for (int group = 0; group < groups; group++) {
+        if (group > 0) {
+          json.append(',');
+        }
+        appendChangelogGroup(json, index, group);
+      }
+      json.append("]}");
+    }
+    json.append('}');
+  }
+
+  private void appendChangelogGroup(StringBuilder json, int index, int group) {
+    String from = STATUSES[group % STATUSES.length];
+    String to = STATUSES[(group + 1) % STATUSES.length];
+    long created = BASE_CREATED_MILLIS + index * MINUTE_MILLIS + (group + 1) * MINUTE_MILLIS;
+    json.append("{\"id\":\"").append(index * 1000L + group).append("\",\"author\":");
+    appendUser(json);
+    json.append(",\"created\":\"").append(DATE_TIME.format(Instant.ofEpochMilli(created))).append("\",\"items\":[")
+        .append("{\"field\":\"status\",\"fieldtype\":\"jira\",\"from\":\"").append(from).append("\",\"fromString\":")
+        .append(JSONObject.quote(JiraMockUtil.JIRA_STATUS_MAP.get(Long.valueOf(from)))).append(",\"to\":\"").append(to)
+        .append("\",\"toString\":").append(JSONObject.quote(JiraMockUtil.JIRA_STATUS_MAP.get(Long.valueOf(to)))).append('}')
+        .append(",{\"field\":").append(JSONObject.quote(JiraMockUtil.JIRA_FIELD_ESTIMATION_NAME))
+        .append(",\"fieldtype\":\"custom\",\"from\":null,\"fromString\":null,\"to\":null,\"toString\":\"").append(group).append("\"}")
+        .append("]}");
+  }
+
+  private void appendUser(StringBuilder json) {
+    json.append("{\"self\":\"").append(getBaseUri()).append("/rest/api/2/user?username=test\",\"name\":\"test user\",\"key\":\"test\"")
+        .append(",\"emailAddress\":\"test@jira.com\",\"displayName\":\"M Test user\",\"active\":true,\"timeZone\":\"Europe/Paris\"}");
+  }
+
+  private void appendNamesAndSchema(StringBuilder json, Set<String> expand) {
+    if (expand.contains("names")) {
+      json.append(",\"names\":{\"summary\":\"Summary\",\"issuetype\":\"Issue Type\",\"project\":\"Project\",\"status\":\"Status\"")
+          .append(",\"created\":\"Created\",\"updated\":\"Updated\",\"reporter\":\"Reporter\",\"assignee\":\"Assignee\"")
+          .append(",\"description\":\"Description\"");
+      for (int field = 0; field < config.getCustomFieldCount(); field++) {
+        json.append(",\"").append(customFieldId(field)).append("\":\"Custom field ").append(field).append('"');
+      }
+      json.append('}');
+    }
+    if (expand.contains("schema")) {
+      json.append(",\"schema\":{");
+      for (int field = 0; field < config.getCustomFieldCount(); field++) {
+        if (field > 0) {
+          json.append(',');
+        }
+        String type = field % 3 == 0 ? "option" : field % 3 == 1 ? "number" : "date";
+        json.append('"').append(customFieldId(field)).append("\":{\"type\":\"").append(type)
+            .append("\",\"custom\":\"com.atlassian.jira.plugin.system.customfieldtypes:").append(type).append("\",\"customId\":")
+            .append(20000 + field).append('}');
+      }
+      json.append('}');
+    }
+  }
+
+  private void send(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    if (config.isGzip() && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+        gzip.write(bytes);
+      }
+      bytes = compressed.toByteArray();
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+    }
+    exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+    bytesSent.addAndGet(bytes.length);
+  }
+
+  private void sleep() {
+    long latency = config.getLatencyMillis()
+        + (config.getLatencyJitterMillis() > 0 ? ThreadLocalRandom.current().nextLong(config.getLatencyJitterMillis() + 1) : 0);
+    if (latency > 0) {
+      try {
+        Thread.sleep(latency);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static long createdMillis(int index) {
+    return BASE_CREATED_MILLIS + index * MINUTE_MILLIS;
+  }
+
+  private long updatedMillis(int index) {
+    Long updated = touched.get(index);
+    return updated != null ? updated : BASE_CREATED_MILLIS + index * MINUTE_MILLIS + (index % 1000) * MINUTE_MILLIS;
+  }
+
+  /**
+   * @return indexes of the issues matching every "updated" and "created" filter of the JQL, null when it has none
+   */
+  private List<Integer> inTimeRange(String jql) {
+    List<Predicate<Integer>> filters = new ArrayList<>();
+    Matcher filter = TIME_FILTER.matcher(jql);
+    while (filter.find()) {
+      boolean updated = "updated".equalsIgnoreCase(filter.group(1));
+      String operator = filter.group(2);
+      long millis = Long.parseLong(filter.group(3));
+      filters.add(index -> {
+        long value = updated ? updatedMillis(index) : createdMillis(index);
+        switch (operator) {
+          case ">":
+            return value > millis;
+          case ">=":
+            return value >= millis;
+          case "<":
+            return value < millis;
+          default:
+            return value <= millis;
+        }
+      });
+    }
+    if (filters.isEmpty()) {
+      return null;
+    }
+    List<Integer> matches = new ArrayList<>();
+    for (int index = 0; index < config.getIssueCount(); index++) {
+      final int candidate = index;
+      if (filters.stream().allMatch(matching -> matching.test(candidate))) {
+        matches.add(index);
+      }
+    }
+    // created grows with the index
+    if (!ORDER_BY_CREATED.matcher(jql).find()) {
+      matches.sort(Comparator.comparingLong((Integer index) -> updatedMillis(index)).thenComparing(Comparator.naturalOrder()));
+    }
+    return matches;
+  }
+
+  private int indexOf(String key) {
+    Matcher matcher = ISSUE_KEY.matcher(key);
+    return matcher.matches() ? indexOf(matcher.group(1), Integer.parseInt(matcher.group(2))) : -1;
+  }
+
+  /**
+   * @return index of the issue, -1 if it does not exist
+   */
+  private int indexOf(String projectKey, int number) {
+    String upperCaseKey = projectKey.toUpperCase(Locale.ROOT);
+    int project = projectIndex(upperCaseKey.startsWith(OLD_PROJECT_KEY_PREFIX)
+        ? PROJECT_KEY_PREFIX + upperCaseKey.substring(OLD_PROJECT_KEY_PREFIX.length())
+        : upperCaseKey);
+    long index = (long) (number - 1) * config.getProjectCount() + project;
+    return project >= 0 && number > 0 && index < config.getIssueCount() ? (int) index : -1;
+  }
+
+  private int projectIndex(String projectKey) {
+    if (!projectKey.startsWith(PROJECT_KEY_PREFIX)) {
+      return -1;
+    }
+    try {
+      int project = Integer.parseInt(projectKey.substring(PROJECT_KEY_PREFIX.length()));
+      return project < config.getProjectCount() ? project : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static String projectKey(int project) {
+    return PROJECT_KEY_PREFIX + project;
+  }
+
+  private static String customFieldId(int field) {
+    return "customfield_" + (20000 + field);
+  }
+
+  private static boolean isWanted(Set<String> fields, String field) {
+    return fields.isEmpty() || fields.contains(field) || fields.contains("*all") || fields.contains("*navigable");
+  }
+
+  private static String apiPath(String path) {
+    for (String prefix : API_PREFIXES) {
+      if (path.startsWith(prefix)) {
+        return path.substring(prefix.length());
+      }
+    }
+    return null;
+  }
+
+  private static String error(String message) {
+    return "{\"errorMessages\":[" + JSONObject.quote(message) + "],\"errors\":{}}";
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+    Map<String, String> query = new HashMap<>();
+    if (rawQuery == null) {
+      return query;
+    }
+    for (String parameter : rawQuery.split("&")) {
+      int separator = parameter.indexOf('=');
+      if (separator > 0) {
+        query.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"), URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+      }
+    }
+    return query;
+  }
+
+  private static Set<String> split(String values) {
+    Set<String> set = new HashSet<>();
+    if (values != null) {
+      for (String value : values.split(",")) {
+        if (!value.trim().isEmpty()) {
+          set.add(value.trim());
+        }
+      }
+    }
+    return set;
+  }
+
+  private static Set<String> toSet(JSONArray array) throws JSONException {
+    Set<String> set = new HashSet<>();
+    if (array != null) {
+      for (int i = 0; i < array.length(); i++) {
+        set.add(array.getString(i));
+      }
+    }
+    return set;
+  }
+
+  private static int parseInt(String value, int defaultValue) {
+    try {
+      return value != null ? Integer.parseInt(value) : defaultValue;
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static String read(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) > 0) {
+      bytes.write(buffer, 0, read);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,122 @@
+package fr.vvlabs.jira.client.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * the stub itself : page size caps, 429 injection, payload size and gzip, so load measures rest on a known server
+ */
+public class JiraStubServerTest {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String SEARCH_PATH = "/rest/api/latest/search?jql=&fields=*all&maxResults=";
+
+  // ===========================================================
+  // Fields
+  // ===========================================================
+
+  private JiraStubServer stub;
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  @After
+  public void tearDown() {
+    if (stub != null) {
+      stub.close();
+    }
+  }
+
+  @Test(timeout = 30_000)
+  public void searchPagesAreCappedAtMaxPageSize() throws IOException, JSONException {
+    start(JiraStubConfig.builder().issueCount(250).maxPageSize(100));
+
+    HttpURLConnection connection = open(SEARCH_PATH + 500 + "&startAt=200", false);
+
+    assertEquals(200, connection.getResponseCode());
+    JSONObject page = new JSONObject(read(connection.getInputStream()));
+    assertEquals(100, page.getInt("maxResults"));
+    assertEquals(250, page.getInt("total"));
+    assertEquals(50, page.getJSONArray("issues").length());
+  }
+
+  @Test(timeout = 30_000)
+  public void throttledRequestsGiveRetryAfter() throws IOException {
+    start(JiraStubConfig.builder().throttleRate(1d).retryAfterSeconds(3));
+
+    HttpURLConnection connection = open(SEARCH_PATH + 10, false);
+
+    assertEquals(429, connection.getResponseCode());
+    assertEquals("3", connection.getHeaderField("Retry-After"));
+    assertEquals(1, stub.getThrottledCount());
+    assertEquals(1, stub.getRequestCount());
+  }
+
+  @Test(timeout = 30_000)
+  public void descriptionSizeDrivesPayloadSize() throws IOException {
+    start(JiraStubConfig.builder().descriptionSize(0));
+    read(open(SEARCH_PATH + 10, false).getInputStream());
+    long smallPage = stub.getBytesSent();
+    stub.close();
+
+    start(JiraStubConfig.builder().descriptionSize(10_000));
+    read(open(SEARCH_PATH + 10, false).getInputStream());
+
+    assertTrue(stub.getBytesSent() > smallPage + 10 * 10_000);
+  }
+
+  @Test(timeout = 30_000)
+  public void responsesAreGzippedOnlyWhenAccepted() throws IOException, JSONException {
+    start(JiraStubConfig.builder());
+
+    HttpURLConnection plain = open(SEARCH_PATH + 10, false);
+    assertNull(plain.getHeaderField("Content-Encoding"));
+    long plainBytes = read(plain.getInputStream()).length();
+
+    HttpURLConnection gzipped = open(SEARCH_PATH + 10, true);
+    assertEquals("gzip", gzipped.getHeaderField("Content-Encoding"));
+    String body = read(new GZIPInputStream(gzipped.getInputStream()));
+    assertEquals(10, new JSONObject(body).getJSONArray("issues").length());
+    assertTrue(stub.getBytesSent() - plainBytes < plainBytes);
+  }
+
+  private void start(JiraStubConfig.JiraStubConfigBuilder config) throws IOException {
+    stub = new JiraStubServer(config.latencyMillis(0).latencyJitterMillis(0).build()).start();
+  }
+
+  private HttpURLConnection open(String path, boolean acceptGzip) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) stub.getBaseUri().resolve(path).toURL().openConnection();
+    if (acceptGzip) {
+      connection.setRequestProperty("Accept-Encoding", "gzip");
+    }
+    return connection;
+  }
+
+  private static String read(InputStream in) throws IOException {
+    StringBuilder text = new StringBuilder();
+    try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+      char[] buffer = new char[8192];
+      for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+        text.append(buffer, 0, read);
+      }
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,116 @@
+package fr.vvlabs.jira.client.util;
+
+import com.atlassian.jira.rest.client.api.domain.IssueFieldId;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Jira search responses, as returned by /rest/api/latest/search, built from the same data as {@link JiraMockUtil}
+ */
+public final class SearchResponseFixtures {
+
+  // ===========================================================
+  // Constants
+  // ===========================================================
+
+  private static final String BASE_URL = "http://jira.local/rest/api/2/";
+  private static final String DATE = "2018-06-15T10:00:00.000+0200";
+  private static final String[][] CUSTOM_FIELDS = {
+      {JiraMockUtil.JIRA_FIELD_ACTIVITY_DOMAIN_ID, JiraMockUtil.JIRA_FIELD_ACTIVITY_DOMAIN_NAME},
+      {JiraMockUtil.JIRA_FIELD_ESTIMATION_ID, JiraMockUtil.JIRA_FIELD_ESTIMATION_NAME},
+      {JiraMockUtil.JIRA_FIELD_VISIBLITY_ID, JiraMockUtil.JIRA_FIELD_VISIBLITY_NAME},
+      {JiraMockUtil.JIRA_FIELD_TIME_SPENT_ID, JiraMockUtil.JIRA_FIELD_TIME_SPENT_NAME},
+      {JiraMockUtil.JIRA_FIELD_ESTIMATION_REVALUED_ID, JiraMockUtil.JIRA_FIELD_ESTIMATION_REVALUED_NAME},
+      {JiraMockUtil.JIRA_FIELD_TECHNOLOGY_ID, JiraMockUtil.JIRA_FIELD_TECHNOLOGY_NAME}};
+
+  // ===========================================================
+  // Constructors
+  // ===========================================================
+
+  private SearchResponseFixtures() {
+  }
+
+  // ===========================================================
+  // Methods
+  // ===========================================================
+
+  /**
+   * @param issues number of issues in the page
+   * @param changelogGroups number of changelog histories per issue, 0 for no changelog expando
+   * @return search response body
+   */
+  public static String searchResponse(int issues, int changelogGroups) {
+    try {
+      JSONArray issuesJson = new JSONArray();
+      for (int i = 0; i < issues; i++) {
+        issuesJson.put(issue(10000L + i, "LOOM-" + (i + 1), changelogGroups));
+      }
+      JSONObject names = new JSONObject();
+      JSONObject schema = new JSONObject();
+      for (String[] customField : CUSTOM_FIELDS) {
+        names.put(customField[0], customField[1]);
+        schema.put(customField[0], new JSONObject().put("type", "option").put("custom", "com.atlassian.jira.plugin.system.customfieldtypes:select"));
+      }
+      return new JSONObject()
+          .put("expand", "schema,names")
+          .put("startAt", 0)
+          .put("maxResults", issues)
+          .put("total", issues * 10)
+          .put("issues", issuesJson)
+          .put("names", names)
+          .put("schema", schema)
+          .toString();
+    } catch (JSONException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static JSONObject issue(long id, String key, int changelogGroups) throws JSONException {
+    JSONObject fields = new JSONObject()
+        .put(IssueFieldId.SUMMARY_FIELD.id, "summary of " + key)
+        .put(IssueFieldId.DESCRIPTION_FIELD.id, "description")
+        .put(IssueFieldId.ISSUE_TYPE_FIELD.id, new JSONObject().put("self", BASE_URL + "issuetype/1").put("id", "1").put("name", "Task")
+            .put("description", "").put("iconUrl", BASE_URL + "icon.png").put("subtask", false))
+        .put(IssueFieldId.PROJECT_FIELD.id, new JSONObject().put("self", BASE_URL + "project/1").put("id", "1").put("key", "LOOM")
+            .put("name", JiraMockUtil.LOOM_RECETTE_A))
+        .put(IssueFieldId.STATUS_FIELD.id, new JSONObject().put("self", BASE_URL + "status/1").put("id", "1")
+            .put("name", JiraMockUtil.JIRA_STATUS_MAP.get(1L)).put("description", "").put("iconUrl", BASE_URL + "icon.png"))
+        .put(IssueFieldId.REPORTER_FIELD.id, user("test@jira.com"))
+        .put(IssueFieldId.ASSIGNEE_FIELD.id, user("test@jira.com"))
+        .put(IssueFieldId.CREATED_FIELD.id, DATE)
+        .put(IssueFieldId.UPDATED_FIELD.id, DATE);
+    for (int i = 0; i < CUSTOM_FIELDS.length; i++) {
+      fields.put(CUSTOM_FIELDS[i][0], new JSONObject().put("value", JiraMockUtil.JIRA_ACTIVITY_DOMAINS[i % JiraMockUtil.JIRA_ACTIVITY_DOMAINS.length]));
+    }
+    JSONObject issue = new JSONObject()
+        .put("expand", changelogGroups > 0 ? "changelog,schema,names" : "schema,names")
+        .put("id", Long.toString(id))
+        .put("self", BASE_URL + "issue/" + id)
+        .put("key", key)
+        .put("fields", fields);
+    if (changelogGroups > 0) {
+      issue.put("changelog", changelog(changelogGroups));
+    }
+    return issue;
+  }
+
+  private static JSONObject changelog(int groups) throws JSONException {
+    JSONArray histories = new JSONArray();
+    for (int i = 0; i < groups; i++) {
+      JSONArray items = new JSONArray()
+          .put(new JSONObject().put("field", IssueFieldId.STATUS_FIELD.id).put("fieldtype", "jira")
+              .put("from", "3").put("fromString", "In Progress").put("to", "10300").put("toString", "IN REVIEW"))
+          .put(new JSONObject().put("field", JiraMockUtil.JIRA_FIELD_ESTIMATION_NAME).put("fieldtype", "custom")
+              .put("from", JSONObject.NULL).put("fromString", JSONObject.NULL).put("to", JSONObject.NULL).put("toString", "1"));
+      histories.put(new JSONObject().put("id", Integer.toString(i)).put("author", user("test@jira.com")).put("created", DATE).put("items", items));
+    }
+    return new JSONObject().put("startAt", 0).put("maxResults", groups).put("total", groups).put("histories", histories);
+  }
+
+  private static JSONObject user(String email) throws JSONException {
+    return new JSONObject().put("self", BASE_URL + "user?username=test").put("name", "test user").put("key", "test")
+        .put("displayName", "M Test user").put("emailAddress", email).put("active", true)
+        .put("avatarUrls", new JSONObject().put("48x48", BASE_URL + "avatar.png"));
+  }
+}